@@ -43,6 +43,12 @@ public class GatewayConfig {
                         )
                         .uri(authServiceUrl))
 
+                // AUTH — статус асинхронной регистрации и массовая регистрация
+                .route("auth-register-status", r -> r.path("/api/v1/auth/register/*/status",
+                                "/api/v1/auth/register/bulk")
+                        .filters(f -> f.filter(requestLoggingFilter))
+                        .uri(authServiceUrl))
+
                 // AUTH — LOGIN и другие (без admin фильтра)
                 .route("auth-login", r -> r.path("/api/v1/auth/login")
                         .filters(f -> f.filter(requestLoggingFilter))
@@ -1,5 +1,7 @@
 package com.stoliar.filter;
 
+import com.stoliar.revocation.RevocationSnapshotPoller;
+import com.stoliar.util.JwtPrincipal;
 import com.stoliar.util.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +18,7 @@ import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Component
@@ -23,6 +26,7 @@ import java.util.List;
 public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final RevocationSnapshotPoller revocationSnapshotPoller;
 
     // пути, которые не требуют авторизации через JWT
     private final List<String> excludedPaths = List.of(
@@ -49,7 +53,12 @@ public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
             token = authHeader.substring(7);
         }
 
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
+        // Отозванные токены (logout, отзыв администратором) не доходят до сервисов
+        Optional<JwtPrincipal> principal = token != null
+                ? jwtTokenProvider.verify(token).filter(verified -> !revocationSnapshotPoller.isRevoked(verified))
+                : Optional.empty();
+
+        if (principal.isEmpty()) {
             ServerHttpResponse response = exchange.getResponse();
             response.setStatusCode(HttpStatus.UNAUTHORIZED);
             byte[] bytes = "Unauthorized".getBytes(StandardCharsets.UTF_8);
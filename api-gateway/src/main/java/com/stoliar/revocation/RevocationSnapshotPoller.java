@@ -0,0 +1,115 @@
+package com.stoliar.revocation;
+
+import com.stoliar.config.RevocationProperties;
+import com.stoliar.util.BloomFilter;
+import com.stoliar.util.JwtPrincipal;
+import com.stoliar.util.RevocationSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Периодически забирает снимок отзывов из auth-service (с If-None-Match, без изменений - 304)
+ * и держит его в памяти для проверки каждого запроса без сетевых вызовов.
+ * При недоступности auth-service остается последний полученный снимок.
+ */
+@Slf4j
+@Component
+public class RevocationSnapshotPoller {
+
+    private final WebClient webClient;
+    private final RevocationProperties properties;
+
+    private volatile RevocationSnapshot snapshot = RevocationSnapshot.empty();
+    private volatile String etag;
+    private Disposable polling;
+
+    public RevocationSnapshotPoller(WebClient webClient, RevocationProperties properties) {
+        this.webClient = webClient;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Polling revocation snapshot from {} every {}", properties.getSnapshotUrl(),
+                properties.getRefreshInterval());
+        polling = Flux.interval(Duration.ZERO, properties.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> poll()
+                        .onErrorResume(error -> {
+                            log.warn("Failed to refresh revocation snapshot: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (polling != null) {
+            polling.dispose();
+        }
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        return snapshot.isRevoked(principal);
+    }
+
+    Mono<Void> poll() {
+        WebClient.RequestHeadersSpec<?> request = webClient.get().uri(properties.getSnapshotUrl());
+        String currentEtag = etag;
+        if (currentEtag != null) {
+            request = request.header(HttpHeaders.IF_NONE_MATCH, currentEtag);
+        }
+        return request.exchangeToMono(response -> {
+            if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                return response.releaseBody();
+            }
+            if (!response.statusCode().is2xxSuccessful()) {
+                return response.<Void>createError();
+            }
+            String newEtag = response.headers().asHttpHeaders().getETag();
+            return response.bodyToMono(RevocationSnapshotResponse.class)
+                    .doOnNext(body -> apply(body, newEtag))
+                    .then();
+        });
+    }
+
+    void apply(RevocationSnapshotResponse body, String newEtag) {
+        snapshot = toSnapshot(body);
+        etag = newEtag;
+        log.debug("Revocation snapshot {} applied: {} tokens, {} users", body.getVersion(),
+                snapshot.revokedTokenIds().size(), snapshot.userCutoffs().size());
+    }
+
+    static RevocationSnapshot toSnapshot(RevocationSnapshotResponse body) {
+        BloomFilter filter = null;
+        if (BloomFilter.HASH_ALGORITHM.equals(body.getHashAlgorithm()) && body.getBloomBits() != null) {
+            byte[] bytes = Base64.getDecoder().decode(body.getBloomBits());
+            long[] words = new long[bytes.length / Long.BYTES];
+            ByteBuffer.wrap(bytes).asLongBuffer().get(words);
+            filter = BloomFilter.fromWords(words, body.getBloomBitSize(), body.getBloomHashFunctions());
+        } else {
+            // Фильтр посчитан незнакомым алгоритмом - проверяем только точное множество
+            log.warn("Unsupported revocation filter algorithm: {}", body.getHashAlgorithm());
+        }
+        return new RevocationSnapshot(
+                body.getVersion(),
+                filter,
+                body.getRevokedTokenIds() != null ? Set.copyOf(body.getRevokedTokenIds()) : Set.of(),
+                body.getUserCutoffs() != null ? Map.copyOf(body.getUserCutoffs()) : Map.of());
+    }
+}
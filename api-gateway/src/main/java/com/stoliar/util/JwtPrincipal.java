@@ -0,0 +1,10 @@
+package com.stoliar.util;
+
+import java.time.Instant;
+
+/**
+ * Данные проверенного токена, нужные gateway для проверки отзыва.
+ * tokenId (jti) и issuedAt могут быть null у старых токенов.
+ */
+public record JwtPrincipal(String email, Long userId, String tokenId, Instant issuedAt) {
+}
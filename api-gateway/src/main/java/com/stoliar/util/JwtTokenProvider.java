@@ -3,12 +3,13 @@ package com.stoliar.util;
 import com.stoliar.config.JwtProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.util.Optional;
 
 @Slf4j
 @Component
@@ -16,18 +17,26 @@ import java.security.Key;
 public class JwtTokenProvider {
     private final JwtProperties jwtProperties;
 
-    private Key getSigningKey() {
+    // Ключ и парсер потокобезопасны - строим один раз
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
         byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(keyBytes))
+                .build();
     }
 
-    public boolean validateToken(String token) {
+    // Подпись, срок и claims для проверки отзыва - за один разбор
+    public Optional<JwtPrincipal> verify(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            return Optional.of(new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("userId", Long.class),
+                    claims.getId(),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null));
         } catch (SecurityException | MalformedJwtException e) {
             log.debug("Invalid JWT signature: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -39,6 +48,10 @@ public class JwtTokenProvider {
         } catch (Exception e) {
             log.debug("JWT validation error: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 }
@@ -0,0 +1,179 @@
+package com.stoliar.revocation;
+
+import com.stoliar.config.RevocationProperties;
+import com.stoliar.util.BloomFilter;
+import com.stoliar.util.JwtPrincipal;
+import com.stoliar.util.RevocationSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationSnapshotPollerTest {
+
+    private static final int BIT_SIZE = 256;
+    private static final int HASH_FUNCTIONS = 4;
+
+    @Test
+    void testToSnapshot_PublishedBits_ShouldRejectRevokedTokenIds() {
+        // Given
+        RevocationSnapshotResponse body = response(1, Set.of("jti-1", "jti-2"), Map.of());
+
+        // When
+        RevocationSnapshot snapshot = RevocationSnapshotPoller.toSnapshot(body);
+
+        // Then
+        assertNotNull(snapshot.filter());
+        assertTrue(snapshot.filter().mightContain("jti-1"));
+        assertTrue(snapshot.filter().mightContain("jti-2"));
+        assertTrue(snapshot.isRevoked(principal(42L, "jti-1", Instant.now())));
+        assertFalse(snapshot.isRevoked(principal(42L, "jti-3", Instant.now())));
+    }
+
+    @Test
+    void testToSnapshot_UnknownAlgorithm_ShouldFallBackToExactSet() {
+        // Given
+        RevocationSnapshotResponse body = response(1, Set.of("jti-1"), Map.of());
+        body.setHashAlgorithm("murmur3-128");
+
+        // When
+        RevocationSnapshot snapshot = RevocationSnapshotPoller.toSnapshot(body);
+
+        // Then
+        assertNull(snapshot.filter());
+        assertTrue(snapshot.isRevoked(principal(42L, "jti-1", Instant.now())));
+    }
+
+    @Test
+    void testIsRevoked_UserCutoffInSameSecondAsIat_ShouldBeRevoked() {
+        // Given
+        Instant cutoff = Instant.parse("2025-01-01T12:00:00.500Z");
+        RevocationSnapshot snapshot = RevocationSnapshotPoller.toSnapshot(response(1, Set.of(), Map.of(42L, cutoff)));
+
+        // When & Then
+        assertTrue(snapshot.isRevoked(principal(42L, null, Instant.parse("2025-01-01T12:00:00Z"))));
+        assertFalse(snapshot.isRevoked(principal(42L, null, Instant.parse("2025-01-01T12:00:01Z"))));
+    }
+
+    @Test
+    void testPoll_NotModified_ShouldSendEtagAndKeepSnapshot() {
+        // Given
+        List<ClientRequest> requests = new ArrayList<>();
+        AtomicReference<ClientResponse> nextResponse = new AtomicReference<>(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"1-1000\"")
+                .body("""
+                        {"version":1,"hashAlgorithm":"fnv1a64-fmix64","bloomBitSize":%d,"bloomHashFunctions":%d,
+                         "bloomBits":"%s","revokedTokenIds":["jti-1"],"userCutoffs":{}}
+                        """.formatted(BIT_SIZE, HASH_FUNCTIONS, encode(Reference.words(Set.of("jti-1")))))
+                .build());
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(nextResponse.get());
+                })
+                .build();
+        RevocationSnapshotPoller poller = new RevocationSnapshotPoller(webClient, new RevocationProperties());
+
+        // When
+        poller.poll().block();
+        nextResponse.set(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        poller.poll().block();
+
+        // Then
+        assertNull(requests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"1-1000\"", requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertTrue(poller.isRevoked(principal(42L, "jti-1", Instant.now())));
+    }
+
+    @Test
+    void testPoll_ServerError_ShouldKeepLastSnapshot() {
+        // Given
+        RevocationSnapshotPoller poller = new RevocationSnapshotPoller(
+                WebClient.builder()
+                        .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()))
+                        .build(),
+                new RevocationProperties());
+        poller.apply(response(1, Set.of("jti-1"), Map.of()), "\"1-1000\"");
+
+        // When & Then
+        assertThrows(Exception.class, () -> poller.poll().block());
+        assertTrue(poller.isRevoked(principal(42L, "jti-1", Instant.now())));
+    }
+
+    private static RevocationSnapshotResponse response(long version, Set<String> tokenIds,
+                                                       Map<Long, Instant> userCutoffs) {
+        RevocationSnapshotResponse body = new RevocationSnapshotResponse();
+        body.setVersion(version);
+        body.setGeneratedAt(Instant.now());
+        body.setHashAlgorithm(BloomFilter.HASH_ALGORITHM);
+        body.setBloomBitSize(BIT_SIZE);
+        body.setBloomHashFunctions(HASH_FUNCTIONS);
+        body.setBloomBits(encode(Reference.words(tokenIds)));
+        body.setRevokedTokenIds(tokenIds);
+        body.setUserCutoffs(userCutoffs);
+        return body;
+    }
+
+    // Так же, как auth-service: long[] в big-endian, затем base64
+    private static String encode(long[] words) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        buffer.asLongBuffer().put(words);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    private static JwtPrincipal principal(Long userId, String tokenId, Instant issuedAt) {
+        return new JwtPrincipal("john@example.com", userId, tokenId, issuedAt);
+    }
+
+    // Независимая реализация опубликованной схемы fnv1a64-fmix64 (см. BloomFilter)
+    private static final class Reference {
+
+        static long[] words(Set<String> values) {
+            long[] words = new long[(BIT_SIZE + 63) / 64];
+            for (String value : values) {
+                long h1 = fmix64(fnv1a64(value));
+                long h2 = fmix64(h1 ^ 0x9e3779b97f4a7c15L);
+                for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                    long combined = h1 + i * h2;
+                    long index = ((combined % BIT_SIZE) + BIT_SIZE) % BIT_SIZE;
+                    words[(int) (index / 64)] |= 1L << (index % 64);
+                }
+            }
+            return words;
+        }
+
+        static long fnv1a64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (char c : value.toCharArray()) {
+                hash ^= c;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
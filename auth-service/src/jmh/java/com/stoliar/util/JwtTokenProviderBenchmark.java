@@ -0,0 +1,54 @@
+package com.stoliar.util;
+
+import com.stoliar.config.JwtProperties;
+import com.stoliar.entity.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка токенов с ключом и парсером, построенными один раз в init().
+ * Запуск: ./gradlew :auth-service:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("benchmark-secret-key-with-at-least-32-bytes");
+        jwtProperties.setAccessTokenExpiration(900_000);
+        jwtProperties.setRefreshTokenExpiration(604_800_000);
+
+        jwtTokenProvider = new JwtTokenProvider(jwtProperties);
+        jwtTokenProvider.init();
+        accessToken = jwtTokenProvider.generateAccessToken("user@example.com", Role.USER, 42L);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtTokenProvider.generateAccessToken("user@example.com", Role.USER, 42L);
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> verify() {
+        return jwtTokenProvider.verify(accessToken);
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> generateAndVerify() {
+        return jwtTokenProvider.verify(jwtTokenProvider.generateAccessToken("user@example.com", Role.USER, 42L));
+    }
+}
@@ -0,0 +1,23 @@
+package com.stoliar.cache;
+
+import com.stoliar.entity.Role;
+import com.stoliar.entity.UserCredentials;
+
+import java.time.Instant;
+
+/**
+ * Неизменяемый снимок учетных данных для проверки входа. Сущность JPA в кэше не хранится:
+ * ее изменение вне транзакции незаметно для других потоков и не попадет в базу.
+ */
+public record CachedCredentials(Long id,
+                                String email,
+                                String password,
+                                Role role,
+                                boolean active,
+                                Instant loadedAt) {
+
+    public static CachedCredentials of(UserCredentials credentials) {
+        return new CachedCredentials(credentials.getId(), credentials.getEmail(), credentials.getPassword(),
+                credentials.getRole(), Boolean.TRUE.equals(credentials.getActive()), Instant.now());
+    }
+}
@@ -0,0 +1,92 @@
+package com.stoliar.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stoliar.config.CredentialsCacheProperties;
+import com.stoliar.repository.UserCredentialsRepository;
+import com.stoliar.service.TokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Кэш учетных данных по email с коротким TTL для входа и UserDetailsService.
+ * Изменение пароля, роли, активности и удаление сбрасывают запись сразу и повторно после коммита -
+ * иначе параллельное чтение успевает вернуть в кэш незафиксированное старое состояние.
+ * Удаление на другом инстансе видно через отсечку в снимке отзывов: запись, загруженная до нее, перечитывается.
+ * Отсутствующие email не кэшируются, чтобы только что зарегистрированный пользователь был виден сразу.
+ */
+@Slf4j
+@Component
+public class CredentialsCache {
+
+    private final UserCredentialsRepository userCredentialsRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final Cache<String, CachedCredentials> cache;
+
+    public CredentialsCache(UserCredentialsRepository userCredentialsRepository,
+                            TokenRevocationService tokenRevocationService,
+                            CredentialsCacheProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.userCredentialsRepository = userCredentialsRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "credentials");
+    }
+
+    public Optional<CachedCredentials> findByEmail(String email) {
+        CachedCredentials cached = cache.getIfPresent(email);
+        if (cached != null && !isRevokedSinceLoad(cached)) {
+            return Optional.of(cached);
+        }
+
+        Optional<CachedCredentials> loaded = userCredentialsRepository.findByEmail(email)
+                .map(CachedCredentials::of);
+        loaded.ifPresentOrElse(credentials -> cache.put(email, credentials), () -> cache.invalidate(email));
+        return loaded;
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+        afterCommit(() -> cache.invalidate(email));
+    }
+
+    // Для путей, где известен только id; удаления редки, поэтому достаточно просмотра записей
+    public void invalidateById(Long credentialsId) {
+        Runnable evict = () -> cache.asMap().values().removeIf(cached -> Objects.equals(cached.id(), credentialsId));
+        evict.run();
+        afterCommit(evict);
+    }
+
+    private boolean isRevokedSinceLoad(CachedCredentials cached) {
+        Optional<Instant> cutoff = tokenRevocationService.getUserCutoff(cached.id());
+        if (cutoff.isPresent() && !cutoff.get().isBefore(cached.loadedAt())) {
+            log.debug("Cached credentials for user id {} are older than its token revocation, reloading", cached.id());
+            return true;
+        }
+        return false;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.credentials-cache")
+@Data
+public class CredentialsCacheProperties {
+    // Предел устаревания записи на других инстансах, если изменение не сопровождалось отзывом токенов
+    private Duration ttl = Duration.ofSeconds(30);
+    private long maxSize = 10_000;
+}
@@ -0,0 +1,33 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "app.login-throttle")
+@Data
+public class LoginThrottleProperties {
+    private boolean enabled = true;
+    // Окно делится на корзины - точность скольжения равна длине корзины
+    private Duration window = Duration.ofMinutes(15);
+    private int buckets = 15;
+    private int maxFailuresPerEmail = 5;
+    private int maxFailuresPerIp = 50;
+    // Предел числа отслеживаемых email и IP каждого вида - память ограничена при переборе адресов
+    private int maxTrackedKeys = 100_000;
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+    // X-Forwarded-For учитывается, только если соединение пришло с адреса из trustedProxies (gateway):
+    // сервис доступен и напрямую, а там заголовок подставляет сам клиент
+    private boolean trustForwardedFor = false;
+    // Адреса или подсети (CIDR) gateway, который дописывает адрес клиента последним в X-Forwarded-For
+    private List<String> trustedProxies = new ArrayList<>();
+
+    public long bucketMillis() {
+        return Math.max(1, window.toMillis() / buckets);
+    }
+}
@@ -0,0 +1,82 @@
+package com.stoliar.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Делегирующий энкодер: новые хэши пишутся с префиксом {encodingId}, старые хэши без префикса
+ * проверяются как BCrypt. Cost BCrypt подбирается при старте под app.password-hashing.target-latency.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class PasswordEncoderConfig {
+
+    static final String BCRYPT_ID = "bcrypt";
+    static final String PBKDF2_ID = "pbkdf2";
+
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final PasswordHashingProperties properties;
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        int strength = properties.getBcryptStrength() > 0
+                ? properties.getBcryptStrength()
+                : calibrateBcryptStrength();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT_ID, bcrypt);
+        encoders.put(PBKDF2_ID, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        String encodingId = properties.getEncodingId();
+        if (!encoders.containsKey(encodingId)) {
+            throw new IllegalStateException("Unsupported password encoding id: " + encodingId);
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encodingId, encoders);
+        // Хэши, сохраненные до перехода на делегирующий энкодер, не имеют префикса
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        log.info("Password encoder: encodingId={}, bcryptStrength={}", encodingId, strength);
+        return encoder;
+    }
+
+    // Каждый шаг cost удваивает время, поэтому достаточно замерить минимальный cost
+    private int calibrateBcryptStrength() {
+        int strength = properties.getMinBcryptStrength();
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(strength);
+        // Первый вызов прогревает JIT и не учитывается
+        probe.encode(CALIBRATION_PASSWORD);
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode(CALIBRATION_PASSWORD);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        long targetNanos = properties.getTargetLatency().toNanos();
+        long estimatedNanos = bestNanos;
+        while (strength < properties.getMaxBcryptStrength() && estimatedNanos * 2 <= targetNanos) {
+            strength++;
+            estimatedNanos *= 2;
+        }
+
+        log.info("BCrypt calibrated: cost {} takes ~{} ms, selected cost {} (~{} ms, target {} ms)",
+                properties.getMinBcryptStrength(), bestNanos / 1_000_000, strength,
+                estimatedNanos / 1_000_000, properties.getTargetLatency().toMillis());
+        return strength;
+    }
+}
@@ -0,0 +1,31 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.password-hashing")
+@Data
+public class PasswordHashingProperties {
+    // 0 - по числу доступных ядер: хэширование упирается в CPU, больше потоков не ускоряет
+    private int threads = 0;
+    // При заполненной очереди запрос сразу получает 503, а не ждет свободный поток
+    private int queueCapacity = 64;
+    // Максимальное ожидание результата, включая время в очереди
+    private Duration timeout = Duration.ofSeconds(5);
+
+    // Алгоритм для новых хэшей: bcrypt или pbkdf2. Старые хэши проверяются любым из них
+    private String encodingId = "bcrypt";
+    // 0 - подобрать cost BCrypt при старте под targetLatency
+    private int bcryptStrength = 0;
+    private Duration targetLatency = Duration.ofMillis(250);
+    private int minBcryptStrength = 10;
+    private int maxBcryptStrength = 16;
+
+    public int resolveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
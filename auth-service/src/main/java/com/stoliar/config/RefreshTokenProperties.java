@@ -0,0 +1,21 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.refresh-tokens.purge")
+@Data
+public class RefreshTokenProperties {
+    private boolean enabled = true;
+    private String cron = "0 15 3 * * *";
+    // Строк в одной транзакции - ограничивает время блокировок
+    private int batchSize = 1000;
+    // Пауза между пачками, чтобы очистка не забирала ресурсы БД у входов
+    private Duration pauseBetweenBatches = Duration.ofMillis(100);
+    // Остаток удалится следующим запуском
+    private int maxBatchesPerRun = 500;
+}
@@ -0,0 +1,23 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.registration.outbox")
+@Data
+public class RegistrationOutboxProperties {
+    private boolean enabled = true;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    // Задач в одном вызове массового импорта user-service
+    private int batchSize = 100;
+    private int maxAttempts = 10;
+    // Задержка повтора удваивается с каждой попыткой, но не больше maxBackoff
+    private Duration initialBackoff = Duration.ofSeconds(2);
+    private Duration maxBackoff = Duration.ofMinutes(5);
+    // Время, на которое задача закрепляется за инстансом на время вызова user-service
+    private Duration leaseTimeout = Duration.ofMinutes(1);
+}
@@ -0,0 +1,19 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.revocation")
+@Data
+public class RevocationProperties {
+    // Как быстро отзыв, сделанный другим инстансом, попадает в снимок этого
+    private Duration refreshInterval = Duration.ofSeconds(5);
+    private Duration cleanupInterval = Duration.ofHours(1);
+    private double falsePositiveRate = 0.01;
+    // Запас по размеру фильтра, чтобы он не перестраивался на каждом отзыве в другой размер
+    private int minExpectedInsertions = 1024;
+}
@@ -4,6 +4,8 @@ import com.stoliar.dto.*;
 import com.stoliar.entity.UserCredentials;
 import com.stoliar.response.ApiResponse;
 import com.stoliar.service.AuthService;
+import com.stoliar.service.TokenRevocationService;
+import com.stoliar.util.ClientIpResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,8 +17,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -25,40 +31,61 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final TokenRevocationService tokenRevocationService;
+    private final ClientIpResolver clientIpResolver;
     private final int index = 7;
 
     @Value("${api-gateway.internal-token}")
     private String apiGatewayInternalToken;
 
-    @Operation(summary = "Save user credentials", description = "Save user credentials (ADMIN only)")
+    @Operation(summary = "Save user credentials",
+            description = "Save user credentials (ADMIN only). The user profile is created asynchronously; "
+                    + "login is available once the registration status is COMPLETED")
     @PostMapping("/register")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<UserCredentials>> saveUserCredentials(
-            @Valid @RequestBody UserCredentialsRequest request,
-            HttpServletRequest httpRequest) {
+            @Valid @RequestBody UserCredentialsRequest request) {
 
         log.info("Saving user credentials for username: {}", request.getEmail());
 
-        // Извлекаем токен из заголовка Authorization
-        String token = getTokenFromRequest(httpRequest);
-        if (!StringUtils.hasText(token)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("Authorization token is required"));
-        }
+        UserCredentials credentials = authService.saveUserCredentials(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/v1/auth/register/" + credentials.getId() + "/status"))
+                .body(ApiResponse.success(credentials, "User credentials saved, profile creation pending"));
+    }
+
+    @Operation(summary = "Bulk save user credentials",
+            description = "Register up to 500 users in one request (ADMIN only). Each entry gets its own result; "
+                    + "profiles of accepted entries are created asynchronously")
+    @PostMapping("/register/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BulkRegisterResponse>> registerBulk(
+            @Valid @RequestBody BulkRegisterRequest request) {
+
+        log.info("Bulk registration request, users: {}", request.getUsers().size());
+
+        BulkRegisterResponse response = authService.registerBulk(request.getUsers());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(response, "Bulk registration processed"));
+    }
 
-        UserCredentials credentials = authService.saveUserCredentials(request, token);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success(credentials, "User credentials saved successfully"));
+    @Operation(summary = "Registration status", description = "Status of the asynchronous user profile creation (ADMIN only)")
+    @GetMapping("/register/{id}/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<RegistrationStatusResponse>> getRegistrationStatus(@PathVariable Long id) {
+        RegistrationStatusResponse status = authService.getRegistrationStatus(id);
+        return ResponseEntity.ok(ApiResponse.success(status, "Registration status retrieved"));
     }
 
-    @Operation(summary = "Create token", description = "Create JWT token for authentication")
+    @Operation(summary = "Create token", description = "Create JWT token for authentication. "
+            + "Repeated failures per email or client IP are answered with 429 and Retry-After")
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<TokenResponse>> createToken(
-            @Valid @RequestBody LoginRequest request) {
+            @Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
 
         log.info("Login request for username: {}", request.getEmail());
 
-        TokenResponse tokenResponse = authService.login(request);
+        TokenResponse tokenResponse = authService.login(request, clientIpResolver.resolve(httpRequest));
         return ResponseEntity.ok(ApiResponse.success(tokenResponse, "Login successful"));
     }
 
@@ -67,7 +94,8 @@ public class AuthController {
     public ResponseEntity<ApiResponse<TokenValidationResponse>> validateToken(
             @RequestHeader("Authorization") String authHeader) {
 
-        log.info("Token validation request");
+        // Вызывается другими сервисами на каждый запрос - только debug
+        log.debug("Token validation request");
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             return ResponseEntity.badRequest()
@@ -81,6 +109,52 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success(validationResponse, message));
     }
 
+    @Operation(summary = "Validate tokens", description = "Validate up to 100 JWT tokens in one request; results keep the request order")
+    @PostMapping("/validate/batch")
+    public ResponseEntity<ApiResponse<List<TokenValidationResponse>>> validateTokens(
+            @Valid @RequestBody BatchTokenValidationRequest request) {
+
+        log.debug("Batch token validation request, tokens: {}", request.getTokens().size());
+
+        List<TokenValidationResponse> validationResponses = authService.validateTokens(request.getTokens());
+        return ResponseEntity.ok(ApiResponse.success(validationResponses, "Tokens validated"));
+    }
+
+    @Operation(summary = "Revoke token", description = "Revoke the access token from the Authorization header (logout)")
+    @PostMapping("/revoke")
+    public ResponseEntity<ApiResponse<Void>> revokeToken(HttpServletRequest httpRequest) {
+        String token = getTokenFromRequest(httpRequest);
+        if (!StringUtils.hasText(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Authorization token is required"));
+        }
+
+        authService.revokeToken(token);
+        return ResponseEntity.ok(ApiResponse.success(null, "Token revoked"));
+    }
+
+    @Operation(summary = "Revoke user tokens", description = "Revoke all tokens issued to the user so far (ADMIN only)")
+    @PostMapping("/users/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> revokeAllTokens(@PathVariable Long id) {
+        log.info("Revoking all tokens for credentials id: {}", id);
+
+        authService.revokeAllTokens(id);
+        return ResponseEntity.ok(ApiResponse.success(null, "All tokens of the user revoked"));
+    }
+
+    @Operation(summary = "Revocation snapshot",
+            description = "Bloom filter and exact lists of revoked tokens for local checks in other services; supports If-None-Match")
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationSnapshotResponse> getRevocations(WebRequest webRequest) {
+        RevocationSnapshotResponse snapshot = tokenRevocationService.getSnapshotResponse();
+        String etag = "\"" + snapshot.getVersion() + "-" + snapshot.getGeneratedAt().toEpochMilli() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(snapshot);
+    }
+
     @Operation(summary = "Refresh token", description = "Refresh JWT tokens using refresh token")
     @PostMapping("/refresh")
     public ResponseEntity<ApiResponse<TokenResponse>> refreshToken(
@@ -0,0 +1,15 @@
+package com.stoliar.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTokenValidationRequest {
+    @NotEmpty(message = "Tokens are required")
+    @Size(max = 100, message = "No more than 100 tokens per request")
+    private List<@NotBlank(message = "Token must not be blank") String> tokens;
+}
@@ -0,0 +1,15 @@
+package com.stoliar.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkRegisterRequest {
+    // Записи проверяются по отдельности: невалидная запись попадает в отчет, а не отклоняет весь запрос
+    @NotEmpty(message = "Users are required")
+    @Size(max = 500, message = "No more than 500 users per request")
+    private List<UserCredentialsRequest> users;
+}
@@ -0,0 +1,17 @@
+package com.stoliar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRegisterResponse {
+    private int total;
+    private Map<BulkRegisterStatus, Long> byStatus;
+    private List<BulkRegisterResult> results;
+}
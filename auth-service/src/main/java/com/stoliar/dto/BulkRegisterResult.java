@@ -0,0 +1,19 @@
+package com.stoliar.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRegisterResult {
+    // Позиция записи в запросе, с нуля
+    private int index;
+    private String email;
+    private BulkRegisterStatus status;
+    private Long credentialsId;
+    private String message;
+}
@@ -0,0 +1,9 @@
+package com.stoliar.dto;
+
+public enum BulkRegisterStatus {
+    // Учетные данные сохранены, профиль в user-service создается асинхронно
+    ACCEPTED,
+    INVALID,
+    DUPLICATE_IN_REQUEST,
+    EMAIL_EXISTS
+}
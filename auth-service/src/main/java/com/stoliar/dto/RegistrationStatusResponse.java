@@ -0,0 +1,21 @@
+package com.stoliar.dto;
+
+import com.stoliar.entity.RegistrationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationStatusResponse {
+    private Long credentialsId;
+    private String email;
+    private RegistrationStatus status;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime updatedAt;
+}
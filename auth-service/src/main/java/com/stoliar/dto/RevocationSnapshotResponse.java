@@ -0,0 +1,28 @@
+package com.stoliar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Снимок отзывов для верификаторов других сервисов. bloomBits - long[] фильтра в base64 (big-endian),
+ * индексы битов считаются по алгоритму hashAlgorithm (см. BloomFilter).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocationSnapshotResponse {
+    private long version;
+    private Instant generatedAt;
+    private String hashAlgorithm;
+    private int bloomBitSize;
+    private int bloomHashFunctions;
+    private String bloomBits;
+    private Set<String> revokedTokenIds;
+    // credentialsId -> токены, выпущенные не позже этого момента, недействительны
+    private Map<Long, Instant> userCutoffs;
+}
@@ -0,0 +1,20 @@
+package com.stoliar.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Строка отчета массового импорта user-service (POST /api/v1/users/import)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserImportResult {
+    private Long line;
+    private String email;
+    // CREATED, INVALID, DUPLICATE_IN_FILE, EMAIL_EXISTS
+    private String status;
+    private Long userId;
+    private String message;
+}
@@ -0,0 +1,9 @@
+package com.stoliar.entity;
+
+public enum RegistrationStatus {
+    // Профиль в user-service еще не создан, relay повторяет попытки
+    PENDING,
+    COMPLETED,
+    // Попытки исчерпаны или user-service отклонил данные - учетные данные остаются неактивными
+    FAILED
+}
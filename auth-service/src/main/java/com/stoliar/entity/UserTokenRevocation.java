@@ -0,0 +1,28 @@
+package com.stoliar.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_token_revocations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTokenRevocation {
+
+    @Id
+    @Column(name = "credentials_id")
+    private Long credentialsId;
+
+    // Токены пользователя, выпущенные не позже этого момента, недействительны
+    @Column(name = "revoked_before", nullable = false)
+    private LocalDateTime revokedBefore;
+
+    // revokedBefore + срок жизни access-токена: к этому моменту все затронутые токены истекут
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
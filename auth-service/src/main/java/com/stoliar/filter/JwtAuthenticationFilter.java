@@ -1,6 +1,8 @@
 package com.stoliar.filter;
 
 import com.stoliar.entity.Role;
+import com.stoliar.service.TokenRevocationService;
+import com.stoliar.util.JwtPrincipal;
 import com.stoliar.util.JwtTokenProvider;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,11 +26,14 @@ import java.util.Collections;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
     private final int index = 7;
 
+    // /validate проверяет переданный токен сам, аутентификация вызывающего ему не нужна
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        return request.getRequestURI().startsWith("/api/v1/auth/internal/");
+        String uri = request.getRequestURI();
+        return uri.startsWith("/api/v1/auth/internal/") || uri.startsWith("/api/v1/auth/validate");
     }
 
     @Override
@@ -38,10 +43,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = getTokenFromRequest(request);
 
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String email = jwtTokenProvider.getEmailFromToken(token);
-                Role role = jwtTokenProvider.getRoleFromToken(token);
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
+            JwtPrincipal principal = StringUtils.hasText(token)
+                    ? jwtTokenProvider.verify(token)
+                            .filter(verified -> !tokenRevocationService.isRevoked(verified))
+                            .orElse(null)
+                    : null;
+
+            if (principal != null) {
+                String email = principal.email();
+                Role role = principal.role();
+                Long userId = principal.userId();
 
                 var authorities = Collections.singletonList(
                         new SimpleGrantedAuthority("ROLE_" + role.name())
@@ -0,0 +1,40 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.RegistrationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RegistrationOutboxRepository extends JpaRepository<RegistrationOutbox, Long> {
+
+    Optional<RegistrationOutbox> findByCredentialsId(Long credentialsId);
+
+    // Захват пачки с арендой: next_attempt_at сдвигается на leaseUntil, поэтому другие инстансы
+    // не возьмут задачу, пока идет вызов user-service, а после падения инстанса она вернется сама.
+    // Блокировка держится только на время этого запроса, не на время удаленного вызова
+    @Transactional
+    @Query(value = """
+    WITH due AS (
+        SELECT id FROM registration_outbox
+        WHERE status = 'PENDING' AND next_attempt_at <= :now
+        ORDER BY next_attempt_at, id
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+    )
+    UPDATE registration_outbox o
+    SET next_attempt_at = :leaseUntil, attempts = o.attempts + 1, updated_at = :now
+    FROM due
+    WHERE o.id = due.id
+    RETURNING o.id
+    """, nativeQuery = true)
+    List<Long> claimDue(@Param("now") LocalDateTime now,
+                        @Param("leaseUntil") LocalDateTime leaseUntil,
+                        @Param("batchSize") int batchSize);
+}
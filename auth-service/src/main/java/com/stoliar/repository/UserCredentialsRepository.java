@@ -2,12 +2,31 @@ package com.stoliar.repository;
 
 import com.stoliar.entity.UserCredentials;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface UserCredentialsRepository extends JpaRepository<UserCredentials, Long> {
     Optional<UserCredentials> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Проверка конфликтов массовой регистрации одним запросом
+    @Query("SELECT c.email FROM UserCredentials c WHERE c.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Перехэширование при входе: вход работает со снимком из кэша, а не с загруженной сущностью
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserCredentials c SET c.password = :password, c.updatedAt = :updatedAt WHERE c.id = :id")
+    int updatePassword(@Param("id") Long id,
+                       @Param("password") String password,
+                       @Param("updatedAt") LocalDateTime updatedAt);
 }
\ No newline at end of file
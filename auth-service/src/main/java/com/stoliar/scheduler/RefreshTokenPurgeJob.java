@@ -0,0 +1,72 @@
+package com.stoliar.scheduler;
+
+import com.stoliar.config.RefreshTokenProperties;
+import com.stoliar.service.RefreshTokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Плановое удаление истекших refresh-токенов пачками.
+ * Отозванные, но еще не истекшие токены остаются - по ним обнаруживается повторное использование.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-tokens.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenPurgeJob {
+
+    private final RefreshTokenProperties properties;
+    private final RefreshTokenService refreshTokenService;
+    private final Counter purgedCounter;
+    private final Timer purgeTimer;
+
+    public RefreshTokenPurgeJob(RefreshTokenProperties properties,
+                                RefreshTokenService refreshTokenService,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.refreshTokenService = refreshTokenService;
+        this.purgedCounter = Counter.builder("auth.refresh.tokens.purged")
+                .description("Expired refresh tokens deleted by the purge job")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("auth.refresh.tokens.purge")
+                .description("Duration of a refresh token purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.refresh-tokens.purge.cron:0 15 3 * * *}")
+    public void purge() {
+        purgeTimer.record(this::purgeExpired);
+    }
+
+    int purgeExpired() {
+        int total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int deleted = refreshTokenService.purgeExpiredBatch(properties.getBatchSize());
+            purgedCounter.increment(deleted);
+            total += deleted;
+
+            if (deleted < properties.getBatchSize() || !pause()) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Refresh token purge deleted {} rows", total);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
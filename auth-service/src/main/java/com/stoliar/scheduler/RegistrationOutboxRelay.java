@@ -0,0 +1,142 @@
+package com.stoliar.scheduler;
+
+import com.stoliar.dto.UserCreateRequest;
+import com.stoliar.dto.UserImportResult;
+import com.stoliar.exception.UserServiceException;
+import com.stoliar.service.RegistrationOutboxService;
+import com.stoliar.service.UserServiceClient;
+import com.stoliar.util.JwtTokenProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Создает профили в user-service для задач outbox регистрации.
+ * Захваченная пачка уходит одним вызовом массового импорта без открытой транзакции; повтор после таймаута
+ * безопасен - EMAIL_EXISTS от user-service означает, что профиль уже создан предыдущей попыткой.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.registration.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RegistrationOutboxRelay {
+
+    private static final String SERVICE_NAME = "auth-service";
+    private static final long SERVICE_TOKEN_VALIDITY_MS = 60_000;
+
+    private final RegistrationOutboxService registrationOutboxService;
+    private final UserServiceClient userServiceClient;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final Counter completedCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    public RegistrationOutboxRelay(RegistrationOutboxService registrationOutboxService,
+                                   UserServiceClient userServiceClient,
+                                   JwtTokenProvider jwtTokenProvider,
+                                   MeterRegistry meterRegistry) {
+        this.registrationOutboxService = registrationOutboxService;
+        this.userServiceClient = userServiceClient;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.completedCounter = Counter.builder("auth.registration.relay")
+                .tag("result", "completed")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("auth.registration.relay")
+                .tag("result", "retry")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.registration.relay")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.registration.outbox.poll-interval:1s}")
+    public void relay() {
+        List<Long> claimed = registrationOutboxService.claimDue();
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        try {
+            relay(registrationOutboxService.loadTasks(claimed));
+        } catch (RuntimeException e) {
+            // Задачи вернутся в работу по истечении аренды
+            log.error("Registration relay failed for {} tasks: {}", claimed.size(), e.getMessage(), e);
+        }
+    }
+
+    // Вся захваченная пачка - один вызов массового импорта user-service
+    private void relay(Map<Long, UserCreateRequest> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        List<Long> outboxIds = new ArrayList<>(tasks.keySet());
+        List<UserImportResult> results;
+        try {
+            String serviceToken = jwtTokenProvider.generateServiceToken(SERVICE_NAME, SERVICE_TOKEN_VALIDITY_MS);
+            results = userServiceClient.importUsers(new ArrayList<>(tasks.values()), serviceToken);
+        } catch (UserServiceException e) {
+            boolean permanent = isPermanent(e.getStatus());
+            for (Long outboxId : outboxIds) {
+                if (permanent) {
+                    registrationOutboxService.markFailed(outboxId, e.getMessage());
+                    failedCounter.increment();
+                } else {
+                    registrationOutboxService.scheduleRetry(outboxId, e.getMessage());
+                    retryCounter.increment();
+                }
+            }
+            return;
+        }
+
+        // Строки отчета нумеруются с единицы в порядке отправки
+        Map<Long, UserImportResult> resultsByLine = results.stream()
+                .filter(result -> result.getLine() != null)
+                .collect(Collectors.toMap(UserImportResult::getLine, Function.identity(), (first, second) -> first));
+        for (int i = 0; i < outboxIds.size(); i++) {
+            apply(outboxIds.get(i), resultsByLine.get((long) i + 1));
+        }
+    }
+
+    private void apply(Long outboxId, UserImportResult result) {
+        if (result == null || result.getStatus() == null) {
+            registrationOutboxService.scheduleRetry(outboxId, "No result from user-service import");
+            retryCounter.increment();
+            return;
+        }
+        switch (result.getStatus()) {
+            // EMAIL_EXISTS - профиль создан предыдущей попыткой, ответ на которую потерялся
+            case "CREATED", "EMAIL_EXISTS" -> {
+                registrationOutboxService.markCompleted(outboxId);
+                completedCounter.increment();
+            }
+            case "INVALID", "DUPLICATE_IN_FILE" -> {
+                registrationOutboxService.markFailed(outboxId, result.getStatus() + ": " + result.getMessage());
+                failedCounter.increment();
+            }
+            default -> {
+                registrationOutboxService.scheduleRetry(outboxId, "Unexpected import status: " + result.getStatus());
+                retryCounter.increment();
+            }
+        }
+    }
+
+    // Ошибки данных не исправятся повтором; 401/403/408/429 и 5xx - временные
+    private static boolean isPermanent(HttpStatus status) {
+        return status != null
+                && status.is4xxClientError()
+                && status != HttpStatus.UNAUTHORIZED
+                && status != HttpStatus.FORBIDDEN
+                && status != HttpStatus.REQUEST_TIMEOUT
+                && status != HttpStatus.TOO_MANY_REQUESTS;
+    }
+}
@@ -1,7 +1,9 @@
 package com.stoliar.service;
 
 
+import com.stoliar.dto.BulkRegisterResponse;
 import com.stoliar.dto.LoginRequest;
+import com.stoliar.dto.RegistrationStatusResponse;
 import com.stoliar.dto.TokenResponse;
 import com.stoliar.dto.TokenValidationResponse;
 import com.stoliar.dto.UserCredentialsRequest;
@@ -9,11 +11,18 @@ import com.stoliar.entity.UserCredentials;
 import com.stoliar.response.ApiResponse;
 import org.springframework.http.ResponseEntity;
 
+import java.util.List;
+
 public interface AuthService {
-    UserCredentials saveUserCredentials(UserCredentialsRequest request, String adminToken);
-    TokenResponse login(LoginRequest request);
+    UserCredentials saveUserCredentials(UserCredentialsRequest request);
+    BulkRegisterResponse registerBulk(List<UserCredentialsRequest> requests);
+    RegistrationStatusResponse getRegistrationStatus(Long credentialsId);
+    TokenResponse login(LoginRequest request, String clientIp);
     TokenResponse refreshToken(String refreshToken);
     TokenValidationResponse validateToken(String token);
+    List<TokenValidationResponse> validateTokens(List<String> tokens);
+    void revokeToken(String token);
+    void revokeAllTokens(Long credentialsId);
     ResponseEntity<ApiResponse<Void>> deleteUserForRollback(Long id, String serviceName);
     ResponseEntity<ApiResponse<Void>> deleteUserAsAdmin(Long credentialsId, String adminToken);
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.stoliar.service;
+
+import com.stoliar.config.LoginThrottleProperties;
+import com.stoliar.exception.LoginThrottledException;
+import com.stoliar.util.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничение неудачных входов по email и по IP клиента в скользящем окне.
+ * Попытка резервируется до поиска пользователя и BCrypt, поэтому перебор паролей не расходует пул хэширования.
+ * Счетчики живут в памяти инстанса; число ключей ограничено, простаивающие удаляются по расписанию.
+ */
+@Slf4j
+@Service
+public class LoginThrottleService {
+
+    private final LoginThrottleProperties properties;
+    private final KeyedCounters emailFailures;
+    private final KeyedCounters ipFailures;
+
+    public LoginThrottleService(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.emailFailures = new KeyedCounters("email", properties.getMaxFailuresPerEmail(), meterRegistry);
+        this.ipFailures = new KeyedCounters("ip", properties.getMaxFailuresPerIp(), meterRegistry);
+    }
+
+    /**
+     * Резервирует попытку входа до поиска пользователя и BCrypt: счетчики увеличиваются сразу и попытка
+     * отклоняется, если окно переполнено. Параллельные запросы не проходят проверку все разом -
+     * каждый видит резервы остальных. Неудачный вход оставляет резерв в окне, успешный снимает его.
+     */
+    public LoginAttempt reserve(String email, String clientIp) {
+        if (!properties.isEnabled()) {
+            return LoginAttempt.NONE;
+        }
+        long now = System.currentTimeMillis();
+        Reservation emailReservation = emailFailures.tryReserve(normalize(email), now);
+        if (emailReservation == null) {
+            log.warn("Login throttled for username: {}", email);
+            throw throttled();
+        }
+        Reservation ipReservation = null;
+        if (clientIp != null) {
+            ipReservation = ipFailures.tryReserve(clientIp, now);
+            if (ipReservation == null) {
+                emailReservation.release();
+                log.warn("Login throttled for client ip: {}", clientIp);
+                throw throttled();
+            }
+        }
+        return new LoginAttempt(emailReservation, ipReservation);
+    }
+
+    // Успешный вход снимает ограничение по email; прошлые неудачи с IP остаются -
+    // с адреса могут перебирать другие аккаунты
+    public void recordSuccess(LoginAttempt attempt) {
+        if (attempt.email() != null) {
+            emailFailures.remove(attempt.email().key());
+        }
+        if (attempt.ip() != null) {
+            attempt.ip().release();
+        }
+    }
+
+    // Вход не состоялся не из-за пароля (например, пул хэширования перегружен) - резерв не считается неудачей
+    public void release(LoginAttempt attempt) {
+        if (attempt.email() != null) {
+            attempt.email().release();
+        }
+        if (attempt.ip() != null) {
+            attempt.ip().release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.login-throttle.cleanup-interval:1m}")
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        emailFailures.evictIdle(now);
+        ipFailures.evictIdle(now);
+    }
+
+    private LoginThrottledException throttled() {
+        // Раньше, чем через длину корзины, ни одна неудача из окна не выйдет
+        return new LoginThrottledException("Too many failed login attempts, retry later",
+                Duration.ofMillis(properties.bucketMillis()));
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public record LoginAttempt(Reservation email, Reservation ip) {
+        private static final LoginAttempt NONE = new LoginAttempt(null, null);
+    }
+
+    // Событие в корзине bucket конкретного счетчика: откат не зависит от того, остался ли счетчик в карте
+    public record Reservation(String key, SlidingWindowCounter counter, long bucket) {
+        private void release() {
+            counter.decrement(bucket);
+        }
+    }
+
+    private final class KeyedCounters {
+
+        private final Map<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean();
+        private final int limit;
+        private final Counter throttledCounter;
+        private final Counter evictedCounter;
+
+        private KeyedCounters(String scope, int limit, MeterRegistry meterRegistry) {
+            this.limit = limit;
+            this.throttledCounter = Counter.builder("auth.login.throttled")
+                    .tag("scope", scope)
+                    .description("Login attempts rejected by failure throttling")
+                    .register(meterRegistry);
+            this.evictedCounter = Counter.builder("auth.login.throttle.evicted")
+                    .tag("scope", scope)
+                    .description("Active failure counters evicted because the key limit was reached")
+                    .register(meterRegistry);
+            Gauge.builder("auth.login.throttle.tracked", counters, Map::size)
+                    .tag("scope", scope)
+                    .register(meterRegistry);
+        }
+
+        private Reservation tryReserve(String key, long now) {
+            SlidingWindowCounter counter = counters.get(key);
+            if (counter == null) {
+                if (counters.size() >= properties.getMaxTrackedKeys()) {
+                    evict(now);
+                }
+                counter = counters.computeIfAbsent(key,
+                        ignored -> new SlidingWindowCounter(properties.getBuckets(), properties.bucketMillis()));
+            }
+            Reservation reservation = new Reservation(key, counter, counter.increment(now));
+            if (counter.sum(now) > limit) {
+                reservation.release();
+                throttledCounter.increment();
+                return null;
+            }
+            return reservation;
+        }
+
+        private void remove(String key) {
+            counters.remove(key);
+        }
+
+        private void evictIdle(long now) {
+            counters.values().removeIf(counter -> counter.isIdle(now));
+        }
+
+        // Переполнение: сначала простаивающие счетчики, затем самые давно обновленные.
+        // Вытесняет один поток, остальные продолжают без ожидания
+        private void evict(long now) {
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                evictIdle(now);
+                int excess = counters.size() - properties.getMaxTrackedKeys() * 9 / 10;
+                if (excess <= 0) {
+                    return;
+                }
+                counters.entrySet().stream()
+                        .sorted(Comparator.comparingLong(entry -> entry.getValue().getLastUpdatedMillis()))
+                        .limit(excess)
+                        .map(Map.Entry::getKey)
+                        .toList()
+                        .forEach(counters::remove);
+                evictedCounter.increment(excess);
+                log.warn("Login throttle key limit reached, evicted {} counters", excess);
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.stoliar.service;
+
+import com.stoliar.entity.RefreshToken;
+import com.stoliar.exception.InvalidCredentialsException;
+import com.stoliar.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Хранилище refresh-токенов по SHA-256. Каждая сессия - семейство токенов:
+ * при обновлении старый токен отзывается, новый получает тот же familyId.
+ * Предъявление уже отозванного токена означает утечку - отзывается все семейство.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Transactional
+    public void store(String token, Long credentialsId, String familyId, LocalDateTime expiresAt) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setCredentialsId(credentialsId);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(refreshToken);
+    }
+
+    /**
+     * Отзывает предъявленный токен и возвращает его запись для выпуска следующего в том же семействе.
+     * Отзыв семейства при повторном использовании должен сохраниться, поэтому исключение не откатывает транзакцию.
+     */
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public RefreshToken consume(String token) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (stored.getRevokedAt() != null || refreshTokenRepository.revokeIfActive(stored.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(stored.getFamilyId(), now);
+            log.warn("Refresh token reuse detected for credentials id: {}, revoked {} tokens of the session",
+                    stored.getCredentialsId(), revoked);
+            throw new InvalidCredentialsException("Refresh token reuse detected");
+        }
+
+        if (stored.getExpiresAt().isBefore(now)) {
+            throw new InvalidCredentialsException("Refresh token expired");
+        }
+        return stored;
+    }
+
+    @Transactional
+    public int revokeAll(Long credentialsId) {
+        return refreshTokenRepository.revokeAllForCredentials(credentialsId, LocalDateTime.now());
+    }
+
+    // Каждая пачка - отдельная транзакция репозитория
+    public int purgeExpiredBatch(int batchSize) {
+        return refreshTokenRepository.deleteExpiredBatch(LocalDateTime.now(), batchSize);
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
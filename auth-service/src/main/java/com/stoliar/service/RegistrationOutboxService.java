@@ -0,0 +1,236 @@
+package com.stoliar.service;
+
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.config.RegistrationOutboxProperties;
+import com.stoliar.dto.RegistrationStatusResponse;
+import com.stoliar.dto.UserCreateRequest;
+import com.stoliar.entity.RegistrationOutbox;
+import com.stoliar.entity.RegistrationStatus;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.exception.EntityNotFoundException;
+import com.stoliar.repository.RegistrationOutboxRepository;
+import com.stoliar.repository.UserCredentialsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Состояние задач outbox регистрации. Каждый метод - короткая локальная транзакция;
+ * вызов user-service выполняет RegistrationOutboxRelay между ними, без открытой транзакции.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RegistrationOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int INSERT_BATCH_SIZE = 500;
+    private static final String CREDENTIALS_NOT_FOUND = "Credentials not found";
+
+    private final RegistrationOutboxRepository registrationOutboxRepository;
+    private final UserCredentialsRepository userCredentialsRepository;
+    private final RegistrationOutboxProperties properties;
+    private final CredentialsCache credentialsCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Учетные данные и задача на создание профиля фиксируются одной локальной транзакцией
+    @Transactional
+    public UserCredentials register(UserCredentials credentials) {
+        UserCredentials savedCredentials = userCredentialsRepository.save(credentials);
+
+        RegistrationOutbox outbox = new RegistrationOutbox();
+        outbox.setCredentialsId(savedCredentials.getId());
+        outbox.setNextAttemptAt(LocalDateTime.now());
+        registrationOutboxRepository.save(outbox);
+        return savedCredentials;
+    }
+
+    /**
+     * Массовая вставка учетных данных и задач outbox: по одному INSERT ... SELECT FROM unnest на пачку,
+     * вместо построчных insert (IDENTITY не дает Hibernate группировать вставки).
+     * Email, занятый параллельной транзакцией, пропускается через ON CONFLICT и отсутствует в результате.
+     */
+    @Transactional
+    public Map<String, Long> registerAll(List<UserCredentials> credentials) {
+        Map<String, Long> idsByEmail = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < credentials.size(); from += INSERT_BATCH_SIZE) {
+            List<UserCredentials> batch = credentials.subList(from, Math.min(from + INSERT_BATCH_SIZE, credentials.size()));
+            Map<String, Long> inserted = insertCredentials(batch, now);
+            insertOutbox(inserted.values(), now);
+            idsByEmail.putAll(inserted);
+        }
+        return idsByEmail;
+    }
+
+    public List<Long> claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+        return registrationOutboxRepository.claimDue(now, now.plus(properties.getLeaseTimeout()),
+                properties.getBatchSize());
+    }
+
+    // Данные для создания профилей по id задач; обработанные задачи пропускаются.
+    // Задача без учетных данных (удалены до создания профиля) закрывается как FAILED, иначе она
+    // оставалась бы PENDING и захватывалась бы снова после каждой аренды
+    @Transactional
+    public Map<Long, UserCreateRequest> loadTasks(List<Long> outboxIds) {
+        List<RegistrationOutbox> pending = registrationOutboxRepository.findAllById(outboxIds).stream()
+                .filter(outbox -> outbox.getStatus() == RegistrationStatus.PENDING)
+                .toList();
+        Map<Long, UserCredentials> credentialsById = userCredentialsRepository
+                .findAllById(pending.stream().map(RegistrationOutbox::getCredentialsId).toList()).stream()
+                .collect(Collectors.toMap(UserCredentials::getId, Function.identity()));
+
+        Map<Long, UserCreateRequest> tasks = new LinkedHashMap<>();
+        for (RegistrationOutbox outbox : pending) {
+            UserCredentials credentials = credentialsById.get(outbox.getCredentialsId());
+            if (credentials == null) {
+                outbox.setStatus(RegistrationStatus.FAILED);
+                outbox.setLastError(CREDENTIALS_NOT_FOUND);
+                log.warn("Registration task {} failed: credentials id {} not found",
+                        outbox.getId(), outbox.getCredentialsId());
+                continue;
+            }
+            UserCreateRequest request = new UserCreateRequest();
+            request.setEmail(credentials.getEmail());
+            request.setRole(credentials.getRole());
+            request.setName(credentials.getName());
+            request.setSurname(credentials.getSurname());
+            request.setBirthDate(credentials.getBirthDate());
+            tasks.put(outbox.getId(), request);
+        }
+        return tasks;
+    }
+
+    // Профиль создан - учетные данные активируются, вход становится доступен
+    @Transactional
+    public void markCompleted(Long outboxId) {
+        RegistrationOutbox outbox = getOutbox(outboxId);
+        outbox.setStatus(RegistrationStatus.COMPLETED);
+        outbox.setLastError(null);
+        userCredentialsRepository.findById(outbox.getCredentialsId())
+                .ifPresent(credentials -> {
+                    credentials.setActive(true);
+                    credentialsCache.invalidate(credentials.getEmail());
+                });
+        log.info("Registration completed for credentials id: {}", outbox.getCredentialsId());
+    }
+
+    @Transactional
+    public void markFailed(Long outboxId, String error) {
+        RegistrationOutbox outbox = getOutbox(outboxId);
+        outbox.setStatus(RegistrationStatus.FAILED);
+        outbox.setLastError(truncate(error));
+        log.error("Registration failed for credentials id: {} after {} attempts: {}",
+                outbox.getCredentialsId(), outbox.getAttempts(), error);
+    }
+
+    // Экспоненциальная задержка; после maxAttempts задача переходит в FAILED
+    @Transactional
+    public void scheduleRetry(Long outboxId, String error) {
+        RegistrationOutbox outbox = getOutbox(outboxId);
+        if (outbox.getAttempts() >= properties.getMaxAttempts()) {
+            markFailed(outboxId, error);
+            return;
+        }
+        outbox.setLastError(truncate(error));
+        outbox.setNextAttemptAt(LocalDateTime.now().plus(backoff(outbox.getAttempts())));
+        log.warn("Registration attempt {} failed for credentials id: {}, next attempt at {}",
+                outbox.getAttempts(), outbox.getCredentialsId(), outbox.getNextAttemptAt());
+    }
+
+    @Transactional(readOnly = true)
+    public RegistrationStatusResponse getStatus(Long credentialsId) {
+        RegistrationOutbox outbox = registrationOutboxRepository.findByCredentialsId(credentialsId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Registration not found for credentials id: " + credentialsId));
+        String email = userCredentialsRepository.findById(credentialsId)
+                .map(UserCredentials::getEmail)
+                .orElse(null);
+        return new RegistrationStatusResponse(credentialsId, email, outbox.getStatus(), outbox.getAttempts(),
+                outbox.getLastError(), outbox.getNextAttemptAt(), outbox.getUpdatedAt());
+    }
+
+    private Map<String, Long> insertCredentials(List<UserCredentials> batch, LocalDateTime now) {
+        Map<String, Long> inserted = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO user_credentials (email, password, role, name, surname, birth_date, active,
+                                                  created_at, updated_at)
+                    SELECT t.email, t.password, t.role, t.name, t.surname, t.birth_date, false, ?, ?
+                    FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::date[])
+                         AS t(email, password, role, name, surname, birth_date)
+                    ON CONFLICT (email) DO NOTHING
+                    RETURNING id, email
+                    """);
+            statement.setTimestamp(1, Timestamp.valueOf(now));
+            statement.setTimestamp(2, Timestamp.valueOf(now));
+            statement.setArray(3, connection.createArrayOf("varchar",
+                    batch.stream().map(UserCredentials::getEmail).toArray()));
+            statement.setArray(4, connection.createArrayOf("varchar",
+                    batch.stream().map(UserCredentials::getPassword).toArray()));
+            statement.setArray(5, connection.createArrayOf("varchar",
+                    batch.stream().map(credentials -> credentials.getRole().name()).toArray()));
+            statement.setArray(6, connection.createArrayOf("varchar",
+                    batch.stream().map(UserCredentials::getName).toArray()));
+            statement.setArray(7, connection.createArrayOf("varchar",
+                    batch.stream().map(UserCredentials::getSurname).toArray()));
+            statement.setArray(8, connection.createArrayOf("date",
+                    batch.stream().map(credentials -> Date.valueOf(credentials.getBirthDate())).toArray()));
+            return statement;
+        }, (RowCallbackHandler) rs -> inserted.put(rs.getString("email"), rs.getLong("id")));
+        return inserted;
+    }
+
+    private void insertOutbox(Collection<Long> credentialsIds, LocalDateTime now) {
+        if (credentialsIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO registration_outbox (credentials_id, status, attempts, next_attempt_at,
+                                                     created_at, updated_at)
+                    SELECT t.id, 'PENDING', 0, ?, ?, ?
+                    FROM unnest(?::bigint[]) AS t(id)
+                    """);
+            statement.setTimestamp(1, Timestamp.valueOf(now));
+            statement.setTimestamp(2, Timestamp.valueOf(now));
+            statement.setTimestamp(3, Timestamp.valueOf(now));
+            statement.setArray(4, connection.createArrayOf("bigint", credentialsIds.toArray()));
+            return statement;
+        });
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.max(0, Math.min(attempts - 1, 20)));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private RegistrationOutbox getOutbox(Long outboxId) {
+        return registrationOutboxRepository.findById(outboxId)
+                .orElseThrow(() -> new EntityNotFoundException("Registration task not found: " + outboxId));
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
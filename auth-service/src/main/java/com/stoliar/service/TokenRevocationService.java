@@ -0,0 +1,171 @@
+package com.stoliar.service;
+
+import com.stoliar.config.JwtProperties;
+import com.stoliar.config.RevocationProperties;
+import com.stoliar.dto.RevocationSnapshotResponse;
+import com.stoliar.entity.RevokedToken;
+import com.stoliar.entity.UserTokenRevocation;
+import com.stoliar.repository.RevokedTokenRepository;
+import com.stoliar.repository.UserTokenRevocationRepository;
+import com.stoliar.util.BloomFilter;
+import com.stoliar.util.JwtPrincipal;
+import com.stoliar.util.RevocationSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отзыв access-токенов по jti или по пользователю с отсечкой по времени выпуска.
+ * Источник истины - таблицы revoked_tokens и user_token_revocations; проверка идет по снимку в памяти,
+ * который перестраивается после каждого отзыва и периодически - чтобы подхватить отзывы других инстансов.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserTokenRevocationRepository userTokenRevocationRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final JwtProperties jwtProperties;
+    private final RevocationProperties properties;
+    private final Counter rejectedCounter;
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile RevocationSnapshot snapshot = RevocationSnapshot.empty();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  UserTokenRevocationRepository userTokenRevocationRepository,
+                                  RefreshTokenService refreshTokenService,
+                                  JwtProperties jwtProperties,
+                                  RevocationProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userTokenRevocationRepository = userTokenRevocationRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.jwtProperties = jwtProperties;
+        this.properties = properties;
+        this.rejectedCounter = Counter.builder("auth.tokens.revoked.rejected")
+                .description("Tokens rejected because they were revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.tokens.revoked.size", this, service -> service.snapshot.revokedTokenIds().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.tokens.revoked.users", this, service -> service.snapshot.userCutoffs().size())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        boolean revoked = snapshot.isRevoked(principal);
+        if (revoked) {
+            rejectedCounter.increment();
+        }
+        return revoked;
+    }
+
+    // Момент, до которого отозваны все токены пользователя; по нему устаревают и закэшированные учетные данные
+    public Optional<Instant> getUserCutoff(Long credentialsId) {
+        return Optional.ofNullable(snapshot.userCutoffs().get(credentialsId));
+    }
+
+    public RevocationSnapshotResponse getSnapshotResponse() {
+        RevocationSnapshot current = snapshot;
+        long[] words = current.filter().toLongArray();
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        buffer.asLongBuffer().put(words);
+        return new RevocationSnapshotResponse(
+                current.version(),
+                current.generatedAt(),
+                BloomFilter.HASH_ALGORITHM,
+                current.filter().getBitSize(),
+                current.filter().getHashFunctions(),
+                Base64.getEncoder().encodeToString(buffer.array()),
+                current.revokedTokenIds(),
+                current.userCutoffs());
+    }
+
+    public void revokeToken(JwtPrincipal principal) {
+        if (principal.tokenId() == null) {
+            // Токены без jti выпущены до появления отзыва - отзываем их отсечкой по пользователю
+            revokeAllForUser(principal.userId());
+            return;
+        }
+        LocalDateTime expiresAt = principal.expiresAt() != null
+                ? toLocalDateTime(principal.expiresAt())
+                : LocalDateTime.now().plusNanos(jwtProperties.getAccessTokenExpiration() * 1_000_000);
+        revokedTokenRepository.save(new RevokedToken(principal.tokenId(), principal.userId(), expiresAt,
+                LocalDateTime.now()));
+        log.info("Access token revoked for user id: {}", principal.userId());
+        reload();
+    }
+
+    // Отзывает все выпущенные пользователю access-токены и его refresh-сессии
+    public void revokeAllForUser(Long credentialsId) {
+        LocalDateTime now = LocalDateTime.now();
+        userTokenRevocationRepository.save(new UserTokenRevocation(credentialsId, now,
+                now.plusNanos(jwtProperties.getAccessTokenExpiration() * 1_000_000)));
+        int sessions = refreshTokenService.revokeAll(credentialsId);
+        log.info("All tokens revoked for user id: {}, refresh sessions revoked: {}", credentialsId, sessions);
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocation.refresh-interval:5s}",
+            initialDelayString = "${app.revocation.refresh-interval:5s}")
+    public synchronized void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> tokenIds = revokedTokenRepository.findActiveTokenIds(now);
+        Map<Long, Instant> userCutoffs = new HashMap<>();
+        for (UserTokenRevocation revocation : userTokenRevocationRepository.findActive(now)) {
+            userCutoffs.put(revocation.getCredentialsId(), toInstant(revocation.getRevokedBefore()));
+        }
+
+        Set<String> revokedTokenIds = Set.copyOf(tokenIds);
+        RevocationSnapshot current = snapshot;
+        if (current.revokedTokenIds().equals(revokedTokenIds) && current.userCutoffs().equals(userCutoffs)) {
+            return;
+        }
+
+        BloomFilter filter = BloomFilter.of(revokedTokenIds, properties.getMinExpectedInsertions(),
+                properties.getFalsePositiveRate());
+        snapshot = new RevocationSnapshot(versions.incrementAndGet(), Instant.now(), filter, revokedTokenIds,
+                Map.copyOf(userCutoffs));
+        log.debug("Revocation snapshot rebuilt: {} tokens, {} users", revokedTokenIds.size(), userCutoffs.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocation.cleanup-interval:1h}")
+    public void cleanup() {
+        LocalDateTime now = LocalDateTime.now();
+        int tokens = revokedTokenRepository.deleteExpired(now);
+        int users = userTokenRevocationRepository.deleteExpired(now);
+        if (tokens + users > 0) {
+            log.info("Expired revocations deleted: {} tokens, {} users", tokens, users);
+        }
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -1,6 +1,10 @@
 package com.stoliar.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stoliar.dto.UserCreateRequest;
+import com.stoliar.dto.UserImportResult;
 import com.stoliar.dto.UserResponse;
 import com.stoliar.exception.UserServiceException;
 import com.stoliar.response.ApiResponse;
@@ -9,9 +13,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -19,7 +26,10 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserServiceClient {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
 
     @Value("${user.service.url}")
     private String userServiceUrl;
@@ -63,6 +73,15 @@ public class UserServiceClient {
                         HttpStatus.valueOf(response.getStatusCode().value())
                 );
             }
+        } catch (UserServiceException e) {
+            throw e;
+        } catch (HttpStatusCodeException e) {
+            // Статус ответа нужен вызывающему: 409 и 400 не повторяются, в отличие от недоступности
+            log.error("user-service rejected user creation. URL: {}, Status: {}", url, e.getStatusCode());
+            throw new UserServiceException(
+                    "User service responded with " + e.getStatusCode().value() + ": " + e.getResponseBodyAsString(),
+                    HttpStatus.valueOf(e.getStatusCode().value())
+            );
         } catch (Exception e) {
             log.error("Error calling user-service to create user. URL: {}, Error: {}", url, e.getMessage(), e);
             throw new UserServiceException(
@@ -72,6 +91,82 @@ public class UserServiceClient {
         }
     }
 
+    /**
+     * Создает профили одним запросом к массовому импорту user-service.
+     * Результаты идут в порядке строк запроса (line с единицы); без итоговой строки summary импорт откатился.
+     */
+    public List<UserImportResult> importUsers(List<UserCreateRequest> requests, String adminToken) {
+        String url = userServiceUrl + "/api/v1/users/import";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(NDJSON);
+        headers.setAccept(List.of(NDJSON));
+        headers.set("Authorization", "Bearer " + adminToken);
+
+        StringBuilder body = new StringBuilder();
+        try {
+            for (UserCreateRequest request : requests) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("name", request.getName());
+                row.put("surname", request.getSurname());
+                row.put("email", request.getEmail());
+                row.put("birthDate", request.getBirthDate().toString());
+                body.append(objectMapper.writeValueAsString(row)).append('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize import request", e);
+        }
+
+        try {
+            log.info("Calling user-service to import {} users", requests.size());
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    url,
+                    HttpMethod.POST,
+                    new HttpEntity<>(body.toString(), headers),
+                    String.class
+            );
+
+            return parseImportReport(response.getBody());
+        } catch (UserServiceException e) {
+            throw e;
+        } catch (HttpStatusCodeException e) {
+            log.error("user-service rejected user import. URL: {}, Status: {}", url, e.getStatusCode());
+            throw new UserServiceException(
+                    "User service responded with " + e.getStatusCode().value() + ": " + e.getResponseBodyAsString(),
+                    HttpStatus.valueOf(e.getStatusCode().value())
+            );
+        } catch (Exception e) {
+            log.error("Error calling user-service to import users. URL: {}, Error: {}", url, e.getMessage(), e);
+            throw new UserServiceException(
+                    "User service unavailable: " + e.getMessage(),
+                    HttpStatus.SERVICE_UNAVAILABLE
+            );
+        }
+    }
+
+    private List<UserImportResult> parseImportReport(String report) throws JsonProcessingException {
+        List<UserImportResult> results = new ArrayList<>();
+        boolean committed = false;
+        for (String line : (report == null ? "" : report).split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            if (node.has("summary")) {
+                committed = true;
+            } else {
+                results.add(objectMapper.treeToValue(node, UserImportResult.class));
+            }
+        }
+        if (!committed) {
+            // Отчет оборвался до коммита - ни один профиль не создан
+            throw new UserServiceException("User import was not committed by user-service",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return results;
+    }
+
     public ResponseEntity<ApiResponse<Void>> deleteUserForRollback(Long userId, String serviceName) {
         String url = userServiceUrl + "/api/v1/users/internal/" + userId;
 
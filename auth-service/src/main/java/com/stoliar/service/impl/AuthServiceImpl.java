@@ -1,30 +1,48 @@
 package com.stoliar.service.impl;
 
+import com.stoliar.cache.CachedCredentials;
+import com.stoliar.cache.CredentialsCache;
 import com.stoliar.dto.*;
+import com.stoliar.entity.RefreshToken;
 import com.stoliar.entity.Role;
 import com.stoliar.entity.UserCredentials;
 import com.stoliar.exception.DuplicateResourceException;
 import com.stoliar.exception.EntityNotFoundException;
 import com.stoliar.exception.InvalidCredentialsException;
+import com.stoliar.exception.PasswordHashingUnavailableException;
 import com.stoliar.exception.UserServiceException;
 import com.stoliar.repository.UserCredentialsRepository;
 import com.stoliar.response.ApiResponse;
 import com.stoliar.service.AuthService;
+import com.stoliar.service.LoginThrottleService;
+import com.stoliar.service.PasswordHashingService;
+import com.stoliar.service.RegistrationOutboxService;
+import com.stoliar.service.RefreshTokenService;
+import com.stoliar.service.TokenRevocationService;
 import com.stoliar.service.UserServiceClient;
+import com.stoliar.util.JwtPrincipal;
 import com.stoliar.util.JwtTokenProvider;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -32,16 +50,20 @@ import java.time.LocalDateTime;
 public class AuthServiceImpl implements AuthService {
 
     private final UserCredentialsRepository userCredentialsRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final CredentialsCache credentialsCache;
+    private final LoginThrottleService loginThrottleService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RegistrationOutboxService registrationOutboxService;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserServiceClient userServiceClient;
+    private final Validator validator;
 
-    @Value("${API_GATEWAY_INTERNAL_TOKEN}")
-    private String internalToken;
-
+    // Без общей транзакции: хэширование пароля идет до захвата соединения,
+    // а сохранение учетных данных и outbox - одна короткая транзакция
     @Override
-    @Transactional
-    public UserCredentials saveUserCredentials(UserCredentialsRequest request, String adminToken) {
+    public UserCredentials saveUserCredentials(UserCredentialsRequest request) {
         log.info("Saving user credentials for username: {}", request.getEmail());
 
         if (userCredentialsRepository.existsByEmail(request.getEmail())) {
@@ -68,169 +90,264 @@ public class AuthServiceImpl implements AuthService {
             throw new SecurityException("Only ADMIN users can create users with ADMIN role");
         }
 
-        // Создаем credentials
+        // Создаем credentials. Вход откроется, когда relay создаст профиль в user-service
         UserCredentials credentials = new UserCredentials();
         credentials.setEmail(request.getEmail());
-        credentials.setPassword(passwordEncoder.encode(request.getPassword()));
+        credentials.setPassword(passwordHashingService.encode(request.getPassword()));
         credentials.setRole(requestedRole);
-        credentials.setActive(true);
+        credentials.setActive(false);
         credentials.setName(request.getName());
         credentials.setSurname(request.getSurname());
         credentials.setBirthDate(request.getBirthDate());
 
-        UserCredentials savedCredentials = userCredentialsRepository.save(credentials);
-        Long savedCredentialsId = savedCredentials.getId();
+        // Профиль в user-service создаст relay; удаленного вызова в транзакции нет
+        UserCredentials savedCredentials = registrationOutboxService.register(credentials);
+        log.info("Registration accepted for credentials id: {}", savedCredentials.getId());
 
-        try {
-            // Создаем запись в user-service с передачей adminToken
-            UserCreateRequest userCreateRequest = new UserCreateRequest();
-            userCreateRequest.setEmail(request.getEmail());
-            userCreateRequest.setRole(requestedRole);
-            userCreateRequest.setName(request.getName());
-            userCreateRequest.setSurname(request.getSurname());
-            userCreateRequest.setBirthDate(request.getBirthDate());
+        return savedCredentials;
+    }
 
-            UserResponse userResponse = userServiceClient.createUser(userCreateRequest, adminToken);
-            log.info("Successfully created user in user-service with id: {}", userResponse.getId());
+    /**
+     * Массовая регистрация (вызывается только ADMIN): проверка записей, один запрос на конфликты email,
+     * параллельное хэширование на пуле и вставка пачкой. Профили создает relay одним вызовом импорта user-service.
+     */
+    @Override
+    public BulkRegisterResponse registerBulk(List<UserCredentialsRequest> requests) {
+        log.info("Bulk registration of {} users", requests.size());
+
+        BulkRegisterResult[] results = new BulkRegisterResult[requests.size()];
+        Map<String, Integer> firstIndexByEmail = new HashMap<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            UserCredentialsRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = new BulkRegisterResult(i, request != null ? request.getEmail() : null,
+                        BulkRegisterStatus.INVALID, null, error);
+                continue;
+            }
+            Integer firstIndex = firstIndexByEmail.putIfAbsent(request.getEmail(), i);
+            if (firstIndex != null) {
+                results[i] = new BulkRegisterResult(i, request.getEmail(), BulkRegisterStatus.DUPLICATE_IN_REQUEST,
+                        null, "Email already used at index " + firstIndex);
+                continue;
+            }
+            candidates.add(i);
+        }
 
-        } catch (UserServiceException e) {
+        Set<String> existing = candidates.isEmpty()
+                ? Set.of()
+                : userCredentialsRepository.findExistingEmails(firstIndexByEmail.keySet());
+        List<Integer> accepted = new ArrayList<>();
+        for (Integer i : candidates) {
+            String email = requests.get(i).getEmail();
+            if (existing.contains(email)) {
+                results[i] = new BulkRegisterResult(i, email, BulkRegisterStatus.EMAIL_EXISTS, null,
+                        "Username already exists: " + email);
+            } else {
+                accepted.add(i);
+            }
+        }
 
-            try {
-                // Вызываем метод rollback
-                deleteUserForRollback(savedCredentialsId, internalToken);
-                log.info("Rollback completed successfully");
-            } catch (Exception rollbackEx) {
-                log.error("Rollback also failed! Manual intervention required.", rollbackEx);
-                // Объединяем ошибки
-                throw new RuntimeException(
-                        "User creation failed AND rollback failed! " +
-                                "Creation error: " + e.getMessage() +
-                                " | Rollback error: " + rollbackEx.getMessage(), e);
+        if (!accepted.isEmpty()) {
+            List<String> encodedPasswords = passwordHashingService.encodeAll(
+                    accepted.stream().map(i -> requests.get(i).getPassword()).toList());
+
+            List<UserCredentials> credentials = new ArrayList<>(accepted.size());
+            for (int j = 0; j < accepted.size(); j++) {
+                UserCredentialsRequest request = requests.get(accepted.get(j));
+                UserCredentials entry = new UserCredentials();
+                entry.setEmail(request.getEmail());
+                entry.setPassword(encodedPasswords.get(j));
+                entry.setRole(request.getRole());
+                entry.setName(request.getName());
+                entry.setSurname(request.getSurname());
+                entry.setBirthDate(request.getBirthDate());
+                entry.setActive(false);
+                credentials.add(entry);
             }
 
-            throw new RuntimeException("Failed to create user profile: " + e.getMessage());
+            Map<String, Long> idsByEmail = registrationOutboxService.registerAll(credentials);
+            for (Integer i : accepted) {
+                String email = requests.get(i).getEmail();
+                Long credentialsId = idsByEmail.get(email);
+                // Отсутствует в результате - email занят параллельной регистрацией после проверки
+                results[i] = credentialsId != null
+                        ? new BulkRegisterResult(i, email, BulkRegisterStatus.ACCEPTED, credentialsId, null)
+                        : new BulkRegisterResult(i, email, BulkRegisterStatus.EMAIL_EXISTS, null,
+                                "Username already exists: " + email);
+            }
         }
 
-        return savedCredentials;
+        List<BulkRegisterResult> resultList = List.of(results);
+        Map<BulkRegisterStatus, Long> byStatus = resultList.stream()
+                .collect(Collectors.groupingBy(BulkRegisterResult::getStatus,
+                        () -> new EnumMap<>(BulkRegisterStatus.class), Collectors.counting()));
+        log.info("Bulk registration finished: {}", byStatus);
+        return new BulkRegisterResponse(resultList.size(), byStatus, resultList);
+    }
+
+    private String validate(UserCredentialsRequest request) {
+        if (request == null) {
+            return "Entry is required";
+        }
+        Set<ConstraintViolation<UserCredentialsRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
     }
 
     @Override
-    @Transactional
-    public TokenResponse login(LoginRequest request) {
+    public RegistrationStatusResponse getRegistrationStatus(Long credentialsId) {
+        return registrationOutboxService.getStatus(credentialsId);
+    }
+
+    // Без общей транзакции: пока запрос ждет пул хэширования, соединение с БД не удерживается
+    @Override
+    public TokenResponse login(LoginRequest request, String clientIp) {
         log.info("Login attempt for username: {}", request.getEmail());
 
-        UserCredentials credentials = userCredentialsRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid username or password"));
+        // Попытка резервируется до поиска пользователя и BCrypt
+        LoginThrottleService.LoginAttempt attempt = loginThrottleService.reserve(request.getEmail(), clientIp);
 
-        if (!credentials.getActive()) {
-            throw new InvalidCredentialsException("Account is deactivated");
+        CachedCredentials credentials;
+        try {
+            credentials = authenticate(request);
+        } catch (InvalidCredentialsException e) {
+            // Резерв остается в окне как неудачная попытка
+            throw e;
+        } catch (RuntimeException e) {
+            loginThrottleService.release(attempt);
+            throw e;
         }
+        loginThrottleService.recordSuccess(attempt);
 
-        if (!passwordEncoder.matches(request.getPassword(), credentials.getPassword())) {
-            throw new InvalidCredentialsException("Invalid username or password");
-        }
+        rehashIfNeeded(credentials, request.getPassword());
 
-        String accessToken = jwtTokenProvider.generateAccessToken(
-                credentials.getEmail(),
-                credentials.getRole(),
-                credentials.getId()
-        );
+        // Каждый вход - новая сессия со своим семейством refresh-токенов
+        TokenResponse tokenResponse = issueTokens(credentials.id(), credentials.email(), credentials.role(),
+                UUID.randomUUID().toString());
 
-        String refreshToken = jwtTokenProvider.generateRefreshToken(
-                credentials.getEmail(),
-                credentials.getRole(),
-                credentials.getId()
-        );
+        log.info("Successful login for username: {}", request.getEmail());
+        return tokenResponse;
+    }
 
-        // Сохраняем refresh token в базу
-        credentials.setRefreshToken(refreshToken);
-        credentials.setRefreshTokenExpiry(LocalDateTime.now().plusSeconds(jwtTokenProvider.getJwtProperties().getRefreshTokenExpiration() / 1000));
-        userCredentialsRepository.save(credentials);
+    // Повторные входы того же пользователя в пределах TTL не обращаются к базе
+    private CachedCredentials authenticate(LoginRequest request) {
+        CachedCredentials credentials = credentialsCache.findByEmail(request.getEmail())
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid username or password"));
 
-        log.info("Successful login for username: {}", request.getEmail());
+        if (!credentials.active()) {
+            throw new InvalidCredentialsException("Account is deactivated");
+        }
 
-        return new TokenResponse(
-                accessToken,
-                refreshToken,
-                "Bearer",
-                jwtTokenProvider.getTokenExpirationInSeconds(accessToken)
-        );
+        if (!passwordHashingService.matches(request.getPassword(), credentials.password())) {
+            throw new InvalidCredentialsException("Invalid username or password");
+        }
+        return credentials;
     }
 
+    // Пароль известен только при успешном входе - в этот момент переписываем устаревший хэш
+    private void rehashIfNeeded(CachedCredentials credentials, String rawPassword) {
+        if (!passwordHashingService.needsRehash(credentials.password())) {
+            return;
+        }
+        try {
+            userCredentialsRepository.updatePassword(credentials.id(), passwordHashingService.encode(rawPassword),
+                    LocalDateTime.now());
+            credentialsCache.invalidate(credentials.email());
+            log.info("Password hash upgraded for user id: {}", credentials.id());
+        } catch (PasswordHashingUnavailableException e) {
+            // Вход не должен падать из-за перехэширования - обновим при следующем входе
+            log.warn("Skipping password rehash for user id {}: {}", credentials.id(), e.getMessage());
+        }
+    }
+
+    // Без общей транзакции: отзыв семейства при повторном использовании фиксируется в RefreshTokenService
     @Override
-    @Transactional
     public TokenResponse refreshToken(String refreshToken) {
         log.info("Refresh token request");
 
-        // Проверяем, что токен является refresh token
-        if (!jwtTokenProvider.isRefreshToken(refreshToken)) {
+        // Подпись, срок и тип проверяются за один разбор токена
+        JwtPrincipal principal = jwtTokenProvider.verify(refreshToken)
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid or expired refresh token"));
+
+        if (!"refresh".equals(principal.type())) {
             throw new InvalidCredentialsException("Invalid refresh token");
         }
 
-        // Проверяем валидность токена
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
-            throw new InvalidCredentialsException("Invalid or expired refresh token");
-        }
+        RefreshToken consumed = refreshTokenService.consume(refreshToken);
 
-        String email = jwtTokenProvider.getUsernameFromToken(refreshToken);
-        UserCredentials credentials = userCredentialsRepository.findByEmail(email)
+        UserCredentials credentials = userCredentialsRepository.findById(consumed.getCredentialsId())
                 .orElseThrow(() -> new InvalidCredentialsException("User not found"));
 
         if (!credentials.getActive()) {
             throw new InvalidCredentialsException("Account is deactivated");
         }
 
-        // Проверяем, что refresh token совпадает с сохраненным
-        if (!refreshToken.equals(credentials.getRefreshToken())) {
-            throw new InvalidCredentialsException("Invalid refresh token");
-        }
-
-        // Проверяем срок действия refresh token
-        if (credentials.getRefreshTokenExpiry().isBefore(LocalDateTime.now())) {
-            throw new InvalidCredentialsException("Refresh token expired");
-        }
+        TokenResponse tokenResponse = issueTokens(credentials.getId(), credentials.getEmail(), credentials.getRole(),
+                consumed.getFamilyId());
 
-        // Генерируем новую пару токенов
-        String newAccessToken = jwtTokenProvider.generateAccessToken(
-                credentials.getEmail(),
-                credentials.getRole(),
-                credentials.getId()
-        );
+        log.info("Token refreshed for username: {}", credentials.getEmail());
+        return tokenResponse;
+    }
 
-        String newRefreshToken = jwtTokenProvider.generateRefreshToken(
-                credentials.getEmail(),
-                credentials.getRole(),
-                credentials.getId()
-        );
+    private TokenResponse issueTokens(Long credentialsId, String email, Role role, String familyId) {
+        String accessToken = jwtTokenProvider.generateAccessToken(email, role, credentialsId);
 
-        // Обновляем refresh token в базе
-        credentials.setRefreshToken(newRefreshToken);
-        credentials.setRefreshTokenExpiry(LocalDateTime.now().plusSeconds(jwtTokenProvider.getJwtProperties().getRefreshTokenExpiration() / 1000));
-        userCredentialsRepository.save(credentials);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(email, role, credentialsId);
 
-        log.info("Token refreshed for username: {}", email);
+        // В базу попадает только хэш refresh token; строка user_credentials не обновляется
+        refreshTokenService.store(refreshToken, credentialsId, familyId,
+                LocalDateTime.now().plusSeconds(jwtTokenProvider.getJwtProperties().getRefreshTokenExpiration() / 1000));
 
         return new TokenResponse(
-                newAccessToken,
-                newRefreshToken,
+                accessToken,
+                refreshToken,
                 "Bearer",
-                jwtTokenProvider.getTokenExpirationInSeconds(newAccessToken)
+                jwtTokenProvider.getAccessTokenExpirationInSeconds()
         );
     }
 
+    // Только проверка подписи, claims и снимка отзывов в памяти: без транзакции, без обращения к БД
     @Override
-    @Transactional
     public TokenValidationResponse validateToken(String token) {
-        log.info("Validating token");
+        return jwtTokenProvider.verify(token)
+                .filter(principal -> !tokenRevocationService.isRevoked(principal))
+                .map(principal -> new TokenValidationResponse(true, principal.email(), principal.role(), "Token is valid"))
+                .orElseGet(() -> new TokenValidationResponse(false, null, null, "Invalid token"));
+    }
 
-        if (!jwtTokenProvider.validateToken(token)) {
-            return new TokenValidationResponse(false, null, null, "Invalid token");
+    @Override
+    public List<TokenValidationResponse> validateTokens(List<String> tokens) {
+        List<TokenValidationResponse> responses = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            responses.add(validateToken(token));
         }
+        return responses;
+    }
 
-        String username = jwtTokenProvider.getEmailFromToken(token);
-        Role role = jwtTokenProvider.getRoleFromToken(token);
+    @Override
+    public void revokeToken(String token) {
+        JwtPrincipal principal = jwtTokenProvider.verify(token)
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid token"));
+        // Refresh-токены отзываются ротацией и отзывом сессий, а не через снимок
+        if (!"access".equals(principal.type())) {
+            throw new InvalidCredentialsException("Only access tokens can be revoked");
+        }
+        tokenRevocationService.revokeToken(principal);
+    }
 
-        return new TokenValidationResponse(true, username, role, "Token is valid");
+    @Override
+    public void revokeAllTokens(Long credentialsId) {
+        if (!userCredentialsRepository.existsById(credentialsId)) {
+            throw new EntityNotFoundException("User credentials not found with id: " + credentialsId);
+        }
+        tokenRevocationService.revokeAllForUser(credentialsId);
     }
 
     @Override
@@ -255,6 +372,7 @@ public class AuthServiceImpl implements AuthService {
             }
 
             userCredentialsRepository.deleteById(id);
+            credentialsCache.invalidateById(id);
 
             log.info("User deleted successfully from both services, id: {}", id);
             return ResponseEntity.ok(ApiResponse.success(null, "User deleted for rollback"));
@@ -302,7 +420,10 @@ public class AuthServiceImpl implements AuthService {
 
             // 3. Удаляем из auth-db
             userCredentialsRepository.delete(credentials);
+            credentialsCache.invalidate(email);
             log.info("User deleted from auth-db: {}", credentialsId);
+            // Выданные токены удаленного пользователя перестают приниматься сразу, а не через 15 минут
+            tokenRevocationService.revokeAllForUser(credentialsId);
 
             // 4. Возвращаем успешный ответ
             return ResponseEntity.ok(
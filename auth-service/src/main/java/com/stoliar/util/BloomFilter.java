@@ -0,0 +1,93 @@
+package com.stoliar.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Компактный фильтр Блума по строковым id токенов. Ложноотрицательных ответов нет,
+ * поэтому отрицательный ответ mightContain окончательный; положительный проверяется точным множеством.
+ * Индексы битов: двойное хэширование floorMod(h1 + i * h2, bitSize) в знаковой 64-битной арифметике
+ * от FNV-1a 64 (по UTF-16 единицам строки) с финализатором MurmurHash3 - верификаторы в других сервисах
+ * должны считать их так же.
+ */
+public final class BloomFilter {
+
+    public static final String HASH_ALGORITHM = "fnv1a64-fmix64";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long SECOND_HASH_SEED = 0x9e3779b97f4a7c15L;
+
+    private final long[] bits;
+    private final int bitSize;
+    private final int hashFunctions;
+
+    private BloomFilter(long[] bits, int bitSize, int hashFunctions) {
+        this.bits = bits;
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+    }
+
+    public static BloomFilter of(Collection<String> values, int minExpectedInsertions, double falsePositiveRate) {
+        int expected = Math.max(values.size(), minExpectedInsertions);
+        // Стандартные оценки: m = -n ln p / (ln 2)^2, k = m / n * ln 2
+        long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int bitSize = (int) Math.min(Math.max(optimalBits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        int hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expected * Math.log(2)));
+
+        BloomFilter filter = new BloomFilter(new long[(bitSize + Long.SIZE - 1) / Long.SIZE], bitSize, hashFunctions);
+        values.forEach(filter::put);
+        return filter;
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = fmix64(h1 ^ SECOND_HASH_SEED);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) bitSize);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long[] toLongArray() {
+        return Arrays.copyOf(bits, bits.length);
+    }
+
+    public int getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    private void put(String value) {
+        long h1 = hash(value);
+        long h2 = fmix64(h1 ^ SECOND_HASH_SEED);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) bitSize);
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return fmix64(hash);
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,58 @@
+package com.stoliar.util;
+
+import com.stoliar.config.LoginThrottleProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * Адрес клиента для ограничения входов. За gateway адрес соединения - адрес gateway, а реальный клиент -
+ * последний адрес в X-Forwarded-For: его дописывает сам gateway, предыдущие значения клиент может подставить сам.
+ * Заголовку верим, только если соединение пришло от доверенного прокси, иначе его подделал бы прямой клиент.
+ */
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    private final boolean trustForwardedFor;
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientIpResolver(LoginThrottleProperties properties) {
+        this.trustForwardedFor = properties.isTrustForwardedFor();
+        this.trustedProxies = properties.getTrustedProxies().stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .map(IpAddressMatcher::new)
+                .toList();
+        if (trustForwardedFor && trustedProxies.isEmpty()) {
+            log.warn("app.login-throttle.trust-forwarded-for is set without trusted-proxies, X-Forwarded-For is ignored");
+        }
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (!StringUtils.hasText(forwardedFor) || !isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+        String[] addresses = forwardedFor.split(",");
+        String last = addresses[addresses.length - 1].trim();
+        return StringUtils.hasText(last) ? last : remoteAddr;
+    }
+
+    private boolean isTrustedProxy(String remoteAddr) {
+        if (!trustForwardedFor || remoteAddr == null) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedProxies) {
+            if (matcher.matches(remoteAddr)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
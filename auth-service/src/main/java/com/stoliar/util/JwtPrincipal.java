@@ -0,0 +1,13 @@
+package com.stoliar.util;
+
+import com.stoliar.entity.Role;
+
+import java.time.Instant;
+
+/**
+ * Данные проверенного токена, полученные за один разбор.
+ * type - access или refresh; tokenId (jti), issuedAt и expiresAt могут быть null у старых токенов.
+ */
+public record JwtPrincipal(String email, Role role, Long userId, String type,
+                           String tokenId, Instant issuedAt, Instant expiresAt) {
+}
@@ -4,6 +4,7 @@ import com.stoliar.config.JwtProperties;
 import com.stoliar.entity.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -11,6 +12,8 @@ import org.springframework.stereotype.Component;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Slf4j
 @Component
@@ -19,9 +22,21 @@ public class JwtTokenProvider {
 
     private final JwtProperties jwtProperties;
 
-    public Key getSigningKey() {
+    // Ключ и парсер потокобезопасны - строим один раз; JwtBuilder изменяемый, поэтому он создается на каждый токен
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
         byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
     }
 
     public String generateAccessToken(String email, Role role, Long userId) {
@@ -33,9 +48,26 @@ public class JwtTokenProvider {
                 .claim("role", role.name())
                 .claim("userId", userId)
                 .claim("type", "access")
+                // jti - по нему токен можно отозвать до истечения
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    // Короткоживущий токен auth-service для фоновых вызовов user-service, когда токена администратора уже нет
+    public String generateServiceToken(String serviceName, long validityMs) {
+        Date now = new Date();
+
+        return Jwts.builder()
+                .setSubject(serviceName)
+                .claim("role", Role.ADMIN.name())
+                .claim("type", "access")
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + validityMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -48,80 +80,52 @@ public class JwtTokenProvider {
                 .claim("role", role.name())
                 .claim("userId", userId)
                 .claim("type", "refresh")
+                // Уникальный id: два входа в одну секунду не должны давать одинаковый токен
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    // Один разбор и проверка подписи на вызов; ошибки не выбрасываются
+    public Optional<JwtPrincipal> verify(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = getClaimsFromToken(token);
+            return Optional.of(new JwtPrincipal(
+                    claims.getSubject(),
+                    Role.valueOf(claims.get("role", String.class)),
+                    claims.get("userId", Long.class),
+                    claims.get("type", String.class),
+                    claims.getId(),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null));
         } catch (SecurityException | MalformedJwtException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
+            // Истекшие токены - штатная ситуация для /validate, не засоряем лог
+            log.debug("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             log.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
+            log.error("JWT claims are invalid: {}", e.getMessage());
         } catch (Exception e) {
             log.error("JWT validation error: {}", e.getMessage());
         }
-        return false;
-    }
-
-    // Переименован метод для ясности
-    public String getEmailFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.getSubject();
-    }
-
-    // Оставляем старый метод для обратной совместимости (опционально)
-    @Deprecated
-    public String getUsernameFromToken(String token) {
-        return getEmailFromToken(token);
-    }
-
-    public Role getRoleFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return Role.valueOf(claims.get("role", String.class));
+        return Optional.empty();
     }
 
-    public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("userId", Long.class);
-    }
-
-    public String getTokenTypeFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("type", String.class);
-    }
-
-    public boolean isRefreshToken(String token) {
-        return "refresh".equals(getTokenTypeFromToken(token));
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
-    public Long getTokenExpirationInSeconds(String token) {
-        Claims claims = getClaimsFromToken(token);
-        long expirationMs = claims.getExpiration().getTime();
-        long currentMs = System.currentTimeMillis();
-        long remainingSeconds = (expirationMs - currentMs) / 1000;
-
-        // Возвращаем 0, если токен уже истек (отрицательное значение)
-        return Math.max(remainingSeconds, 0);
+    // Срок только что выпущенного access-токена известен из настроек - разбирать токен заново не нужно
+    public long getAccessTokenExpirationInSeconds() {
+        return jwtProperties.getAccessTokenExpiration() / 1000;
     }
 
     public JwtProperties getJwtProperties() {
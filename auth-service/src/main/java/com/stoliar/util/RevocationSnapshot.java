@@ -0,0 +1,32 @@
+package com.stoliar.util;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Неизменяемый снимок отзывов. Проверка - O(1) в памяти: отсечка по пользователю,
+ * затем фильтр Блума и только при его срабатывании - точное множество.
+ */
+public record RevocationSnapshot(long version,
+                                 Instant generatedAt,
+                                 BloomFilter filter,
+                                 Set<String> revokedTokenIds,
+                                 Map<Long, Instant> userCutoffs) {
+
+    public static RevocationSnapshot empty() {
+        return new RevocationSnapshot(0, Instant.EPOCH, BloomFilter.of(Set.of(), 1, 0.01), Set.of(), Map.of());
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        if (principal.userId() != null && principal.issuedAt() != null) {
+            Instant cutoff = userCutoffs.get(principal.userId());
+            // iat хранится с точностью до секунды - токен, выпущенный в секунду отзыва, тоже недействителен
+            if (cutoff != null && !principal.issuedAt().isAfter(cutoff)) {
+                return true;
+            }
+        }
+        String tokenId = principal.tokenId();
+        return tokenId != null && filter.mightContain(tokenId) && revokedTokenIds.contains(tokenId);
+    }
+}
@@ -0,0 +1,92 @@
+package com.stoliar.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счетчик событий за скользящее окно из N корзин фиксированной длины без блокировок.
+ * Каждая корзина - одно long: старшие биты - номер корзины во времени, младшие 24 бита - счетчик,
+ * поэтому сброс устаревшей корзины и инкремент выполняются одним CAS.
+ */
+public final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray buckets;
+    private final long bucketMillis;
+    private volatile long lastUpdatedMillis;
+
+    public SlidingWindowCounter(int bucketCount, long bucketMillis) {
+        this.buckets = new AtomicLongArray(bucketCount);
+        this.bucketMillis = bucketMillis;
+    }
+
+    // Возвращает номер корзины, в которую попало событие, - по нему событие можно откатить (decrement)
+    public long increment(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int index = (int) (epoch % buckets.length());
+        long countedEpoch;
+        while (true) {
+            long current = buckets.get(index);
+            long bucketEpoch = current >>> COUNT_BITS;
+            long next;
+            if (bucketEpoch == epoch) {
+                long count = current & COUNT_MASK;
+                if (count == COUNT_MASK) {
+                    // Счетчик насыщен - дальше считать незачем
+                    countedEpoch = epoch;
+                    break;
+                }
+                next = current + 1;
+            } else if (bucketEpoch < epoch) {
+                next = (epoch << COUNT_BITS) | 1;
+            } else {
+                // Корзину уже занял поток с более поздним временем - событие попадает в нее
+                next = current + ((current & COUNT_MASK) == COUNT_MASK ? 0 : 1);
+            }
+            if (buckets.compareAndSet(index, current, next)) {
+                countedEpoch = next >>> COUNT_BITS;
+                break;
+            }
+        }
+        lastUpdatedMillis = nowMillis;
+        return countedEpoch;
+    }
+
+    // Откат события из increment. Если корзина уже занята более поздним временем, событие вышло из окна
+    public void decrement(long bucketEpoch) {
+        int index = (int) (bucketEpoch % buckets.length());
+        while (true) {
+            long current = buckets.get(index);
+            if ((current >>> COUNT_BITS) != bucketEpoch || (current & COUNT_MASK) == 0) {
+                return;
+            }
+            if (buckets.compareAndSet(index, current, current - 1)) {
+                return;
+            }
+        }
+    }
+
+    public long sum(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int bucketCount = buckets.length();
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long value = buckets.get(i);
+            long age = epoch - (value >>> COUNT_BITS);
+            if (age >= 0 && age < bucketCount) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    // Все корзины вышли из окна - счетчик можно удалять
+    public boolean isIdle(long nowMillis) {
+        return nowMillis - lastUpdatedMillis >= bucketMillis * buckets.length();
+    }
+
+    public long getLastUpdatedMillis() {
+        return lastUpdatedMillis;
+    }
+}
@@ -0,0 +1,130 @@
+package com.stoliar.cache;
+
+import com.stoliar.config.CredentialsCacheProperties;
+import com.stoliar.entity.Role;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.repository.UserCredentialsRepository;
+import com.stoliar.service.CustomUserDetailsService;
+import com.stoliar.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CredentialsCacheTest {
+
+    private static final String EMAIL = "john@example.com";
+
+    private UserCredentialsRepository userCredentialsRepository;
+    private TokenRevocationService tokenRevocationService;
+    private CredentialsCache credentialsCache;
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userCredentialsRepository = mock(UserCredentialsRepository.class);
+        tokenRevocationService = mock(TokenRevocationService.class);
+        when(tokenRevocationService.getUserCutoff(any())).thenReturn(Optional.empty());
+        credentialsCache = new CredentialsCache(userCredentialsRepository, tokenRevocationService,
+                new CredentialsCacheProperties(), new SimpleMeterRegistry());
+        userDetailsService = new CustomUserDetailsService(credentialsCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testLoadUserByUsername_RepeatedAuthentication_ShouldQueryDatabaseOnce() {
+        // Given
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.of(credentials(true)));
+
+        // When
+        userDetailsService.loadUserByUsername(EMAIL);
+        userDetailsService.loadUserByUsername(EMAIL);
+        userDetailsService.loadUserByUsername(EMAIL);
+
+        // Then
+        verify(userCredentialsRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void testLoadUserByUsername_AfterDeactivation_ShouldRejectImmediately() {
+        // Given
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.of(credentials(true)));
+        assertTrue(userDetailsService.loadUserByUsername(EMAIL).isEnabled());
+
+        // When
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.of(credentials(false)));
+        credentialsCache.invalidate(EMAIL);
+
+        // Then
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+    }
+
+    @Test
+    void testInvalidate_InsideTransaction_ShouldEvictAgainAfterCommit() {
+        // Given
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.of(credentials(true)));
+        TransactionSynchronizationManager.initSynchronization();
+        credentialsCache.invalidate(EMAIL);
+
+        // When - параллельное чтение до коммита возвращает в кэш старое состояние
+        credentialsCache.findByEmail(EMAIL);
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.of(credentials(false)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertFalse(credentialsCache.findByEmail(EMAIL).orElseThrow().active());
+    }
+
+    @Test
+    void testFindByEmail_RevokedOnAnotherInstance_ShouldReload() {
+        // Given
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.of(credentials(true)));
+        credentialsCache.findByEmail(EMAIL);
+
+        // When - удаление на другом инстансе приходит только через снимок отзывов
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(tokenRevocationService.getUserCutoff(42L)).thenReturn(Optional.of(Instant.now().plusSeconds(1)));
+
+        // Then
+        assertTrue(credentialsCache.findByEmail(EMAIL).isEmpty());
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+    }
+
+    @Test
+    void testFindByEmail_UnknownEmail_ShouldNotBeCached() {
+        // Given
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        assertTrue(credentialsCache.findByEmail(EMAIL).isEmpty());
+
+        // When
+        when(userCredentialsRepository.findByEmail(EMAIL)).thenReturn(Optional.of(credentials(true)));
+
+        // Then
+        assertTrue(credentialsCache.findByEmail(EMAIL).isPresent());
+    }
+
+    private static UserCredentials credentials(boolean active) {
+        UserCredentials credentials = new UserCredentials();
+        credentials.setId(42L);
+        credentials.setEmail(EMAIL);
+        credentials.setPassword("{bcrypt}$2a$10$hash");
+        credentials.setRole(Role.USER);
+        credentials.setActive(active);
+        return credentials;
+    }
+}
@@ -0,0 +1,126 @@
+package com.stoliar.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderConfigTest {
+
+    private static final String PASSWORD = "secret-password";
+
+    @Test
+    void testPasswordEncoder_ShouldWritePrefixedHashes() {
+        // Given
+        PasswordEncoder encoder = encoder(fixedStrength(4));
+
+        // When
+        String encoded = encoder.encode(PASSWORD);
+
+        // Then
+        assertTrue(encoded.startsWith("{bcrypt}$2a$04$"), encoded);
+        assertTrue(encoder.matches(PASSWORD, encoded));
+        assertFalse(encoder.matches("wrong-password", encoded));
+    }
+
+    @Test
+    void testPasswordEncoder_LegacyUnprefixedHash_ShouldMatchAsBcrypt() {
+        // Given - хэш, сохраненный до перехода на делегирующий энкодер
+        PasswordEncoder encoder = encoder(fixedStrength(4));
+        String legacyHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+        // When & Then
+        assertTrue(encoder.matches(PASSWORD, legacyHash));
+        assertFalse(encoder.matches("wrong-password", legacyHash));
+    }
+
+    @Test
+    void testPasswordEncoder_Pbkdf2Hash_ShouldMatch() {
+        // Given
+        PasswordEncoder encoder = encoder(fixedStrength(4));
+        String pbkdf2Hash = "{pbkdf2}" + Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode(PASSWORD);
+
+        // When & Then
+        assertTrue(encoder.matches(PASSWORD, pbkdf2Hash));
+    }
+
+    @Test
+    void testUpgradeEncoding_ShouldFlagLegacyAndWeakerHashes() {
+        // Given
+        PasswordEncoder encoder = encoder(fixedStrength(5));
+
+        // When & Then
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode(PASSWORD)));
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD)));
+        assertFalse(encoder.upgradeEncoding(encoder.encode(PASSWORD)));
+    }
+
+    @Test
+    void testUpgradeEncoding_OtherAlgorithm_ShouldFlagForRehash() {
+        // Given - новые хэши пишутся в pbkdf2, bcrypt остается для проверки
+        PasswordHashingProperties properties = fixedStrength(4);
+        properties.setEncodingId("pbkdf2");
+        PasswordEncoder encoder = encoder(properties);
+
+        // When & Then
+        assertTrue(encoder.encode(PASSWORD).startsWith("{pbkdf2}"));
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD)));
+    }
+
+    @Test
+    void testPasswordEncoder_UnsupportedEncodingId_ShouldFailFast() {
+        // Given
+        PasswordHashingProperties properties = fixedStrength(4);
+        properties.setEncodingId("md5");
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> encoder(properties));
+    }
+
+    @Test
+    void testCalibration_UnreachableTarget_ShouldStopAtMaxStrength() {
+        // Given
+        PasswordHashingProperties properties = calibrated(Duration.ofHours(1));
+
+        // When
+        String encoded = encoder(properties).encode(PASSWORD);
+
+        // Then
+        assertTrue(encoded.startsWith("{bcrypt}$2a$06$"), encoded);
+    }
+
+    @Test
+    void testCalibration_TargetBelowMinCost_ShouldUseMinStrength() {
+        // Given
+        PasswordHashingProperties properties = calibrated(Duration.ZERO);
+
+        // When
+        String encoded = encoder(properties).encode(PASSWORD);
+
+        // Then
+        assertTrue(encoded.startsWith("{bcrypt}$2a$04$"), encoded);
+    }
+
+    private static PasswordEncoder encoder(PasswordHashingProperties properties) {
+        return new PasswordEncoderConfig(properties).passwordEncoder();
+    }
+
+    private static PasswordHashingProperties fixedStrength(int strength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setBcryptStrength(strength);
+        return properties;
+    }
+
+    private static PasswordHashingProperties calibrated(Duration targetLatency) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setBcryptStrength(0);
+        properties.setMinBcryptStrength(4);
+        properties.setMaxBcryptStrength(6);
+        properties.setTargetLatency(targetLatency);
+        return properties;
+    }
+}
@@ -0,0 +1,129 @@
+package com.stoliar.repository;
+
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.config.RegistrationOutboxProperties;
+import com.stoliar.entity.RegistrationOutbox;
+import com.stoliar.entity.RegistrationStatus;
+import com.stoliar.entity.Role;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.service.RegistrationOutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Массовая вставка через unnest на настоящем PostgreSQL: ON CONFLICT (email) и RETURNING
+ * не проверить на моках JdbcTemplate.
+ */
+@Import({RegistrationOutboxService.class, RegistrationOutboxProperties.class})
+class RegistrationOutboxBulkInsertTest extends AbstractJpaTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RegistrationOutboxService registrationOutboxService;
+
+    @Autowired
+    private UserCredentialsRepository userCredentialsRepository;
+
+    @Autowired
+    private RegistrationOutboxRepository registrationOutboxRepository;
+
+    @MockitoBean
+    private CredentialsCache credentialsCache;
+
+    @Test
+    void testRegisterAll_ShouldInsertInactiveCredentialsWithPendingOutbox() {
+        // Given
+        List<UserCredentials> credentials = List.of(
+                credentials("first@example.com", Role.USER),
+                credentials("second@example.com", Role.ADMIN));
+
+        // When
+        Map<String, Long> idsByEmail = registrationOutboxService.registerAll(credentials);
+
+        // Then
+        assertEquals(Set.of("first@example.com", "second@example.com"), idsByEmail.keySet());
+
+        UserCredentials stored = userCredentialsRepository.findById(idsByEmail.get("second@example.com")).orElseThrow();
+        assertEquals("second@example.com", stored.getEmail());
+        assertEquals("hash-second@example.com", stored.getPassword());
+        assertEquals(Role.ADMIN, stored.getRole());
+        assertEquals("John", stored.getName());
+        assertEquals("Doe", stored.getSurname());
+        assertEquals(LocalDate.of(1990, 1, 1), stored.getBirthDate());
+        assertFalse(stored.getActive());
+        assertNotNull(stored.getCreatedAt());
+
+        for (Long id : idsByEmail.values()) {
+            RegistrationOutbox outbox = registrationOutboxRepository.findByCredentialsId(id).orElseThrow();
+            assertEquals(RegistrationStatus.PENDING, outbox.getStatus());
+            assertEquals(0, outbox.getAttempts());
+        }
+    }
+
+    @Test
+    void testRegisterAll_ExistingEmail_ShouldBeSkippedByOnConflict() {
+        // Given
+        UserCredentials existing = credentials("taken@example.com", Role.USER);
+        existing.setActive(true);
+        existing.setCreatedAt(LocalDateTime.now());
+        entityManager.persistAndFlush(existing);
+
+        // When
+        Map<String, Long> idsByEmail = registrationOutboxService.registerAll(List.of(
+                credentials("taken@example.com", Role.USER),
+                credentials("fresh@example.com", Role.USER)));
+
+        // Then
+        assertEquals(Set.of("fresh@example.com"), idsByEmail.keySet());
+        entityManager.clear();
+        UserCredentials untouched = userCredentialsRepository.findById(existing.getId()).orElseThrow();
+        assertTrue(untouched.getActive());
+        assertEquals("hash-taken@example.com", untouched.getPassword());
+        assertTrue(registrationOutboxRepository.findByCredentialsId(existing.getId()).isEmpty());
+        assertEquals(2, userCredentialsRepository.count());
+        assertEquals(1, registrationOutboxRepository.count());
+    }
+
+    @Test
+    void testRegisterAll_MoreThanOneBatch_ShouldInsertEveryEntry() {
+        // Given - больше размера пачки в 500 строк
+        List<UserCredentials> credentials = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            credentials.add(credentials("user" + i + "@example.com", Role.USER));
+        }
+
+        // When
+        Map<String, Long> idsByEmail = registrationOutboxService.registerAll(credentials);
+
+        // Then
+        assertEquals(501, idsByEmail.size());
+        assertEquals(501, Set.copyOf(idsByEmail.values()).size());
+        assertEquals(501, registrationOutboxRepository.count());
+    }
+
+    private static UserCredentials credentials(String email, Role role) {
+        UserCredentials credentials = new UserCredentials();
+        credentials.setEmail(email);
+        credentials.setPassword("hash-" + email);
+        credentials.setRole(role);
+        credentials.setName("John");
+        credentials.setSurname("Doe");
+        credentials.setBirthDate(LocalDate.of(1990, 1, 1));
+        credentials.setActive(false);
+        return credentials;
+    }
+}
@@ -0,0 +1,90 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.RegistrationOutbox;
+import com.stoliar.entity.RegistrationStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("integration-test")
+class RegistrationOutboxRepositoryTest extends AbstractJpaTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RegistrationOutboxRepository registrationOutboxRepository;
+
+    @Test
+    void testClaimDue_DueTask_ShouldLeaseAndCountAttempt() {
+        // Given
+        RegistrationOutbox outbox = createOutbox(1L, RegistrationStatus.PENDING, NOW.minusSeconds(1));
+
+        // When
+        List<Long> claimed = registrationOutboxRepository.claimDue(NOW, NOW.plusMinutes(1), 10);
+
+        // Then
+        assertEquals(List.of(outbox.getId()), claimed);
+        RegistrationOutbox leased = reload(outbox.getId());
+        assertEquals(1, leased.getAttempts());
+        assertEquals(NOW.plusMinutes(1), leased.getNextAttemptAt());
+    }
+
+    @Test
+    void testClaimDue_LeasedTask_ShouldNotBeClaimedUntilLeaseExpires() {
+        // Given
+        RegistrationOutbox outbox = createOutbox(1L, RegistrationStatus.PENDING, NOW.minusSeconds(1));
+        registrationOutboxRepository.claimDue(NOW, NOW.plusMinutes(1), 10);
+
+        // When - другой инстанс до истечения аренды и после нее
+        List<Long> duringLease = registrationOutboxRepository.claimDue(NOW.plusSeconds(30), NOW.plusMinutes(2), 10);
+        List<Long> afterLease = registrationOutboxRepository.claimDue(NOW.plusMinutes(1), NOW.plusMinutes(2), 10);
+
+        // Then - задача упавшего инстанса возвращается в работу сама
+        assertTrue(duringLease.isEmpty());
+        assertEquals(List.of(outbox.getId()), afterLease);
+        assertEquals(2, reload(outbox.getId()).getAttempts());
+    }
+
+    @Test
+    void testClaimDue_ShouldSkipNotDueAndFinishedTasksAndRespectBatchSize() {
+        // Given
+        RegistrationOutbox first = createOutbox(1L, RegistrationStatus.PENDING, NOW.minusMinutes(2));
+        RegistrationOutbox second = createOutbox(2L, RegistrationStatus.PENDING, NOW.minusMinutes(1));
+        createOutbox(3L, RegistrationStatus.PENDING, NOW.minusSeconds(1));
+        createOutbox(4L, RegistrationStatus.PENDING, NOW.plusMinutes(1));
+        createOutbox(5L, RegistrationStatus.COMPLETED, NOW.minusMinutes(3));
+        createOutbox(6L, RegistrationStatus.FAILED, NOW.minusMinutes(3));
+
+        // When
+        List<Long> claimed = registrationOutboxRepository.claimDue(NOW, NOW.plusMinutes(1), 2);
+
+        // Then - самые давние из готовых к повтору
+        assertEquals(List.of(first.getId(), second.getId()), claimed.stream().sorted().toList());
+    }
+
+    private RegistrationOutbox createOutbox(Long credentialsId, RegistrationStatus status, LocalDateTime nextAttemptAt) {
+        RegistrationOutbox outbox = new RegistrationOutbox();
+        outbox.setCredentialsId(credentialsId);
+        outbox.setStatus(status);
+        outbox.setNextAttemptAt(nextAttemptAt);
+        return entityManager.persistFlushFind(outbox);
+    }
+
+    // Нативный UPDATE идет мимо контекста персистентности
+    private RegistrationOutbox reload(Long id) {
+        entityManager.clear();
+        return entityManager.find(RegistrationOutbox.class, id);
+    }
+}
@@ -0,0 +1,173 @@
+package com.stoliar.scheduler;
+
+import com.stoliar.dto.UserCreateRequest;
+import com.stoliar.dto.UserImportResult;
+import com.stoliar.exception.UserServiceException;
+import com.stoliar.service.RegistrationOutboxService;
+import com.stoliar.service.UserServiceClient;
+import com.stoliar.util.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistrationOutboxRelayTest {
+
+    private static final String SERVICE_TOKEN = "service-token";
+
+    @Mock
+    private RegistrationOutboxService registrationOutboxService;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    private MeterRegistry meterRegistry;
+    private RegistrationOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new RegistrationOutboxRelay(registrationOutboxService, userServiceClient, jwtTokenProvider,
+                meterRegistry);
+    }
+
+    @Test
+    void testRelay_ImportResults_ShouldApplyStatusPerLine() {
+        // Given - строки отчета нумеруются с единицы в порядке задач
+        givenTasks(11L, 12L, 13L, 14L, 15L);
+        when(userServiceClient.importUsers(anyList(), eq(SERVICE_TOKEN))).thenReturn(List.of(
+                result(1L, "CREATED"),
+                result(2L, "EMAIL_EXISTS"),
+                result(3L, "INVALID"),
+                result(4L, "DUPLICATE_IN_FILE")));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(registrationOutboxService).markCompleted(11L);
+        verify(registrationOutboxService).markCompleted(12L);
+        verify(registrationOutboxService).markFailed(eq(13L), startsWith("INVALID"));
+        verify(registrationOutboxService).markFailed(eq(14L), startsWith("DUPLICATE_IN_FILE"));
+        // Строки для задачи нет - повтор, а не потеря
+        verify(registrationOutboxService).scheduleRetry(eq(15L), anyString());
+        assertEquals(2.0, relayCount("completed"));
+        assertEquals(2.0, relayCount("failed"));
+        assertEquals(1.0, relayCount("retry"));
+    }
+
+    @Test
+    void testRelay_UnknownStatus_ShouldScheduleRetry() {
+        // Given
+        givenTasks(11L);
+        when(userServiceClient.importUsers(anyList(), eq(SERVICE_TOKEN)))
+                .thenReturn(List.of(result(1L, "SOMETHING_NEW")));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(registrationOutboxService).scheduleRetry(eq(11L), contains("SOMETHING_NEW"));
+        verify(registrationOutboxService, never()).markFailed(anyLong(), anyString());
+    }
+
+    @Test
+    void testRelay_ClientError_ShouldMarkWholeBatchFailed() {
+        // Given
+        givenTasks(11L, 12L);
+        when(userServiceClient.importUsers(anyList(), eq(SERVICE_TOKEN)))
+                .thenThrow(new UserServiceException("Bad request", HttpStatus.BAD_REQUEST));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(registrationOutboxService).markFailed(11L, "Bad request");
+        verify(registrationOutboxService).markFailed(12L, "Bad request");
+        verify(registrationOutboxService, never()).scheduleRetry(anyLong(), anyString());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HttpStatus.class, names = {
+            "UNAUTHORIZED", "FORBIDDEN", "REQUEST_TIMEOUT", "TOO_MANY_REQUESTS",
+            "INTERNAL_SERVER_ERROR", "BAD_GATEWAY", "SERVICE_UNAVAILABLE"})
+    void testRelay_TransientError_ShouldScheduleRetry(HttpStatus status) {
+        // Given
+        givenTasks(11L);
+        when(userServiceClient.importUsers(anyList(), eq(SERVICE_TOKEN)))
+                .thenThrow(new UserServiceException("Unavailable", status));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(registrationOutboxService).scheduleRetry(11L, "Unavailable");
+        verify(registrationOutboxService, never()).markFailed(anyLong(), anyString());
+    }
+
+    @Test
+    void testRelay_ErrorWithoutStatus_ShouldScheduleRetry() {
+        // Given - user-service недоступен, ответа нет
+        givenTasks(11L);
+        when(userServiceClient.importUsers(anyList(), eq(SERVICE_TOKEN)))
+                .thenThrow(new UserServiceException("Connection refused", null));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(registrationOutboxService).scheduleRetry(11L, "Connection refused");
+    }
+
+    @Test
+    void testRelay_NothingClaimed_ShouldNotCallUserService() {
+        // Given
+        when(registrationOutboxService.claimDue()).thenReturn(List.of());
+
+        // When
+        relay.relay();
+
+        // Then
+        verifyNoInteractions(userServiceClient);
+        verify(registrationOutboxService, never()).loadTasks(anyList());
+    }
+
+    private void givenTasks(Long... outboxIds) {
+        Map<Long, UserCreateRequest> tasks = new LinkedHashMap<>();
+        for (Long outboxId : outboxIds) {
+            UserCreateRequest request = new UserCreateRequest();
+            request.setEmail("user" + outboxId + "@example.com");
+            tasks.put(outboxId, request);
+        }
+        List<Long> claimed = List.of(outboxIds);
+        when(registrationOutboxService.claimDue()).thenReturn(claimed);
+        when(registrationOutboxService.loadTasks(claimed)).thenReturn(tasks);
+        when(jwtTokenProvider.generateServiceToken(eq("auth-service"), anyLong())).thenReturn(SERVICE_TOKEN);
+    }
+
+    private double relayCount(String result) {
+        return meterRegistry.get("auth.registration.relay").tag("result", result).counter().count();
+    }
+
+    private static UserImportResult result(Long line, String status) {
+        return new UserImportResult(line, null, status, null, status);
+    }
+}
@@ -0,0 +1,309 @@
+package com.stoliar.service;
+
+import com.stoliar.cache.CachedCredentials;
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.config.JwtProperties;
+import com.stoliar.dto.BulkRegisterResponse;
+import com.stoliar.dto.BulkRegisterResult;
+import com.stoliar.dto.BulkRegisterStatus;
+import com.stoliar.dto.LoginRequest;
+import com.stoliar.dto.TokenResponse;
+import com.stoliar.dto.TokenValidationResponse;
+import com.stoliar.dto.UserCredentialsRequest;
+import com.stoliar.entity.Role;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.exception.InvalidCredentialsException;
+import com.stoliar.exception.PasswordHashingUnavailableException;
+import com.stoliar.repository.UserCredentialsRepository;
+import com.stoliar.service.impl.AuthServiceImpl;
+import com.stoliar.util.JwtPrincipal;
+import com.stoliar.util.JwtTokenProvider;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final String EMAIL = "john@example.com";
+    private static final String PASSWORD = "password123";
+    private static final String LEGACY_HASH = "$2a$10$legacyhash";
+
+    @Mock
+    private UserCredentialsRepository userCredentialsRepository;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private CredentialsCache credentialsCache;
+
+    @Mock
+    private LoginThrottleService loginThrottleService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private RegistrationOutboxService registrationOutboxService;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    // Настоящая валидация аннотаций запроса - классификация INVALID в массовой регистрации
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private AuthServiceImpl authService;
+
+    @Test
+    void testLogin_OutdatedHash_ShouldRehashAndInvalidateCache() {
+        // Given
+        givenCredentials(LEGACY_HASH);
+        givenTokens();
+        when(passwordHashingService.matches(PASSWORD, LEGACY_HASH)).thenReturn(true);
+        when(passwordHashingService.needsRehash(LEGACY_HASH)).thenReturn(true);
+        when(passwordHashingService.encode(PASSWORD)).thenReturn("{bcrypt}$2a$12$newhash");
+
+        // When
+        TokenResponse response = authService.login(loginRequest(), "10.0.0.1");
+
+        // Then
+        assertEquals("access-token", response.getAccessToken());
+        verify(userCredentialsRepository).updatePassword(eq(1L), eq("{bcrypt}$2a$12$newhash"), any());
+        verify(credentialsCache).invalidate(EMAIL);
+    }
+
+    @Test
+    void testLogin_CurrentHash_ShouldNotRehash() {
+        // Given
+        givenCredentials("{bcrypt}$2a$12$currenthash");
+        givenTokens();
+        when(passwordHashingService.matches(PASSWORD, "{bcrypt}$2a$12$currenthash")).thenReturn(true);
+        when(passwordHashingService.needsRehash("{bcrypt}$2a$12$currenthash")).thenReturn(false);
+
+        // When
+        authService.login(loginRequest(), "10.0.0.1");
+
+        // Then
+        verify(passwordHashingService, never()).encode(anyString());
+        verify(userCredentialsRepository, never()).updatePassword(anyLong(), anyString(), any());
+        verify(credentialsCache, never()).invalidate(anyString());
+    }
+
+    @Test
+    void testLogin_RehashPoolBusy_ShouldStillLogIn() {
+        // Given
+        givenCredentials(LEGACY_HASH);
+        givenTokens();
+        when(passwordHashingService.matches(PASSWORD, LEGACY_HASH)).thenReturn(true);
+        when(passwordHashingService.needsRehash(LEGACY_HASH)).thenReturn(true);
+        when(passwordHashingService.encode(PASSWORD))
+                .thenThrow(new PasswordHashingUnavailableException("Authentication service is busy, retry later"));
+
+        // When
+        TokenResponse response = authService.login(loginRequest(), "10.0.0.1");
+
+        // Then - хэш обновится при следующем входе
+        assertNotNull(response);
+        verify(userCredentialsRepository, never()).updatePassword(anyLong(), anyString(), any());
+        verify(credentialsCache, never()).invalidate(anyString());
+    }
+
+    @Test
+    void testLogin_WrongPassword_ShouldKeepThrottleReservation() {
+        // Given
+        givenCredentials(LEGACY_HASH);
+        when(passwordHashingService.matches(PASSWORD, LEGACY_HASH)).thenReturn(false);
+
+        // When & Then
+        assertThrows(InvalidCredentialsException.class, () -> authService.login(loginRequest(), "10.0.0.1"));
+        verify(loginThrottleService).reserve(EMAIL, "10.0.0.1");
+        verify(loginThrottleService, never()).release(any());
+        verify(loginThrottleService, never()).recordSuccess(any());
+        verify(passwordHashingService, never()).needsRehash(anyString());
+    }
+
+    @Test
+    void testLogin_HashingUnavailable_ShouldReleaseThrottleReservation() {
+        // Given
+        LoginThrottleService.LoginAttempt attempt = new LoginThrottleService.LoginAttempt(null, null);
+        when(loginThrottleService.reserve(EMAIL, "10.0.0.1")).thenReturn(attempt);
+        givenCredentials(LEGACY_HASH);
+        when(passwordHashingService.matches(PASSWORD, LEGACY_HASH))
+                .thenThrow(new PasswordHashingUnavailableException("Authentication service is busy, retry later"));
+
+        // When & Then - перегрузка пула не считается неудачным входом
+        assertThrows(PasswordHashingUnavailableException.class,
+                () -> authService.login(loginRequest(), "10.0.0.1"));
+        verify(loginThrottleService).release(attempt);
+    }
+
+    @Test
+    void testValidateTokens_ShouldValidateEachTokenInOrder() {
+        // Given
+        JwtPrincipal active = principal("active@example.com", "jti-1");
+        JwtPrincipal revoked = principal("revoked@example.com", "jti-2");
+        when(jwtTokenProvider.verify("active-token")).thenReturn(Optional.of(active));
+        when(jwtTokenProvider.verify("revoked-token")).thenReturn(Optional.of(revoked));
+        when(jwtTokenProvider.verify("broken-token")).thenReturn(Optional.empty());
+        when(tokenRevocationService.isRevoked(active)).thenReturn(false);
+        when(tokenRevocationService.isRevoked(revoked)).thenReturn(true);
+
+        // When
+        List<TokenValidationResponse> responses = authService.validateTokens(
+                List.of("active-token", "revoked-token", "broken-token"));
+
+        // Then
+        assertEquals(3, responses.size());
+        assertTrue(responses.get(0).isValid());
+        assertEquals("active@example.com", responses.get(0).getEmail());
+        assertEquals(Role.USER, responses.get(0).getRole());
+        assertFalse(responses.get(1).isValid());
+        assertNull(responses.get(1).getEmail());
+        assertFalse(responses.get(2).isValid());
+    }
+
+    @Test
+    void testValidateTokens_EmptyList_ShouldReturnEmptyList() {
+        // When
+        List<TokenValidationResponse> responses = authService.validateTokens(List.of());
+
+        // Then
+        assertTrue(responses.isEmpty());
+        verifyNoInteractions(jwtTokenProvider, tokenRevocationService);
+    }
+
+    @Test
+    void testRegisterBulk_ShouldClassifyEveryEntry() {
+        // Given
+        List<UserCredentialsRequest> requests = Arrays.asList(
+                registration("new@example.com", "pw-new"),
+                registration("not-an-email", "pw-invalid"),
+                registration("new@example.com", "pw-duplicate"),
+                registration("taken@example.com", "pw-taken"),
+                registration("race@example.com", "pw-race"),
+                null);
+        when(userCredentialsRepository.findExistingEmails(any())).thenReturn(Set.of("taken@example.com"));
+        when(passwordHashingService.encodeAll(List.of("pw-new", "pw-race"))).thenReturn(List.of("hash-new", "hash-race"));
+        // race@example.com занят параллельной транзакцией: ON CONFLICT DO NOTHING не вернул его id
+        when(registrationOutboxService.registerAll(anyList())).thenReturn(Map.of("new@example.com", 10L));
+
+        // When
+        BulkRegisterResponse response = authService.registerBulk(requests);
+
+        // Then
+        List<BulkRegisterResult> results = response.getResults();
+        assertEquals(6, response.getTotal());
+        assertResult(results.get(0), BulkRegisterStatus.ACCEPTED, 10L);
+        assertResult(results.get(1), BulkRegisterStatus.INVALID, null);
+        assertTrue(results.get(1).getMessage().contains("email"));
+        assertResult(results.get(2), BulkRegisterStatus.DUPLICATE_IN_REQUEST, null);
+        assertEquals("Email already used at index 0", results.get(2).getMessage());
+        assertResult(results.get(3), BulkRegisterStatus.EMAIL_EXISTS, null);
+        assertResult(results.get(4), BulkRegisterStatus.EMAIL_EXISTS, null);
+        assertResult(results.get(5), BulkRegisterStatus.INVALID, null);
+        assertEquals(Map.of(BulkRegisterStatus.ACCEPTED, 1L, BulkRegisterStatus.INVALID, 2L,
+                BulkRegisterStatus.DUPLICATE_IN_REQUEST, 1L, BulkRegisterStatus.EMAIL_EXISTS, 2L),
+                response.getByStatus());
+
+        // Существующие email проверяются одним запросом, без невалидных и повторов
+        verify(userCredentialsRepository).findExistingEmails(
+                Set.of("new@example.com", "taken@example.com", "race@example.com"));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserCredentials>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(registrationOutboxService).registerAll(inserted.capture());
+        assertEquals(List.of("new@example.com", "race@example.com"),
+                inserted.getValue().stream().map(UserCredentials::getEmail).toList());
+        assertEquals(List.of("hash-new", "hash-race"),
+                inserted.getValue().stream().map(UserCredentials::getPassword).toList());
+        assertTrue(inserted.getValue().stream().noneMatch(UserCredentials::getActive));
+    }
+
+    @Test
+    void testRegisterBulk_NothingToInsert_ShouldSkipHashingAndInsert() {
+        // Given
+        List<UserCredentialsRequest> requests = List.of(
+                registration("taken@example.com", "pw-taken"),
+                registration("bad", "pw-invalid"));
+        when(userCredentialsRepository.findExistingEmails(any())).thenReturn(Set.of("taken@example.com"));
+
+        // When
+        BulkRegisterResponse response = authService.registerBulk(requests);
+
+        // Then
+        assertResult(response.getResults().get(0), BulkRegisterStatus.EMAIL_EXISTS, null);
+        assertResult(response.getResults().get(1), BulkRegisterStatus.INVALID, null);
+        verifyNoInteractions(passwordHashingService, registrationOutboxService);
+    }
+
+    private void givenCredentials(String passwordHash) {
+        when(credentialsCache.findByEmail(EMAIL)).thenReturn(Optional.of(
+                new CachedCredentials(1L, EMAIL, passwordHash, Role.USER, true, Instant.now())));
+    }
+
+    private void givenTokens() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setRefreshTokenExpiration(604_800_000);
+        when(jwtTokenProvider.generateAccessToken(EMAIL, Role.USER, 1L)).thenReturn("access-token");
+        when(jwtTokenProvider.generateRefreshToken(EMAIL, Role.USER, 1L)).thenReturn("refresh-token");
+        when(jwtTokenProvider.getJwtProperties()).thenReturn(jwtProperties);
+        when(jwtTokenProvider.getAccessTokenExpirationInSeconds()).thenReturn(900L);
+    }
+
+    private static void assertResult(BulkRegisterResult result, BulkRegisterStatus status, Long credentialsId) {
+        assertEquals(status, result.getStatus(), result.toString());
+        assertEquals(credentialsId, result.getCredentialsId(), result.toString());
+    }
+
+    private static JwtPrincipal principal(String email, String tokenId) {
+        return new JwtPrincipal(email, Role.USER, 1L, "access", tokenId, Instant.now(), Instant.now().plusSeconds(900));
+    }
+
+    private static UserCredentialsRequest registration(String email, String password) {
+        UserCredentialsRequest request = new UserCredentialsRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        request.setRole(Role.USER);
+        request.setName("John");
+        request.setSurname("Doe");
+        request.setBirthDate(LocalDate.of(1990, 1, 1));
+        return request;
+    }
+
+    private static LoginRequest loginRequest() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(EMAIL);
+        request.setPassword(PASSWORD);
+        return request;
+    }
+}
@@ -0,0 +1,162 @@
+package com.stoliar.service;
+
+import com.stoliar.config.LoginThrottleProperties;
+import com.stoliar.exception.LoginThrottledException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleServiceTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String IP = "10.0.0.1";
+
+    private LoginThrottleProperties properties;
+    private MeterRegistry meterRegistry;
+    private LoginThrottleService loginThrottleService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LoginThrottleProperties();
+        properties.setMaxFailuresPerEmail(3);
+        properties.setMaxFailuresPerIp(5);
+        meterRegistry = new SimpleMeterRegistry();
+        loginThrottleService = new LoginThrottleService(properties, meterRegistry);
+    }
+
+    @Test
+    void testReserve_AfterMaxFailuresPerEmail_ShouldThrottle() {
+        // Given - неудачные попытки оставляют резерв в окне
+        for (int i = 0; i < 3; i++) {
+            loginThrottleService.reserve(EMAIL, IP);
+        }
+
+        // When & Then
+        assertThrows(LoginThrottledException.class, () -> loginThrottleService.reserve(" User@Example.com ", IP));
+        assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("scope", "email").counter().count());
+    }
+
+    @Test
+    void testReserve_ConcurrentAttempts_ShouldAdmitOnlyLimit() throws Exception {
+        // Given
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        // When - все попытки проходят проверку одновременно, до того как хоть одна завершилась
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        loginThrottleService.reserve(EMAIL, null);
+                        return true;
+                    } catch (LoginThrottledException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(30, TimeUnit.SECONDS)) {
+                    admitted++;
+                }
+            }
+
+            // Then
+            assertEquals(3, admitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReserve_IpThrottled_ShouldRollBackEmailReservation() {
+        // Given - IP исчерпан попытками на другие аккаунты
+        for (int i = 0; i < 5; i++) {
+            loginThrottleService.reserve("other" + i + "@example.com", IP);
+        }
+
+        // When
+        assertThrows(LoginThrottledException.class, () -> loginThrottleService.reserve(EMAIL, IP));
+
+        // Then - отклоненная попытка не расходует лимит email
+        for (int i = 0; i < 3; i++) {
+            loginThrottleService.reserve(EMAIL, "10.0.0.2");
+        }
+        assertThrows(LoginThrottledException.class, () -> loginThrottleService.reserve(EMAIL, "10.0.0.2"));
+    }
+
+    @Test
+    void testRecordSuccess_ShouldResetOnlyEmailKey() {
+        // Given - две неудачи и успешный вход с одного IP
+        loginThrottleService.reserve(EMAIL, IP);
+        loginThrottleService.reserve(EMAIL, IP);
+        LoginThrottleService.LoginAttempt success = loginThrottleService.reserve(EMAIL, IP);
+
+        // When
+        loginThrottleService.recordSuccess(success);
+
+        // Then - лимит email снова полный, на IP остались две прошлые неудачи
+        loginThrottleService.reserve(EMAIL, "10.0.0.2");
+        loginThrottleService.reserve(EMAIL, "10.0.0.2");
+        loginThrottleService.reserve(EMAIL, "10.0.0.2");
+        loginThrottleService.reserve("a@example.com", IP);
+        loginThrottleService.reserve("b@example.com", IP);
+        loginThrottleService.reserve("c@example.com", IP);
+        assertThrows(LoginThrottledException.class, () -> loginThrottleService.reserve("d@example.com", IP));
+    }
+
+    @Test
+    void testRelease_ShouldNotCountAttemptAsFailure() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            // When - вход прерван не из-за пароля
+            loginThrottleService.release(loginThrottleService.reserve(EMAIL, IP));
+        }
+
+        // Then
+        assertDoesNotThrow(() -> loginThrottleService.reserve(EMAIL, IP));
+    }
+
+    @Test
+    void testReserve_Disabled_ShouldNeverThrottle() {
+        // Given
+        properties.setEnabled(false);
+
+        // When & Then
+        for (int i = 0; i < 10; i++) {
+            loginThrottleService.recordSuccess(loginThrottleService.reserve(EMAIL, IP));
+            assertDoesNotThrow(() -> loginThrottleService.reserve(EMAIL, IP));
+        }
+    }
+
+    @Test
+    void testReserve_MoreKeysThanTracked_ShouldEvictAndBoundMap() {
+        // Given
+        properties.setMaxTrackedKeys(10);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            loginThrottleService.reserve("user" + i + "@example.com", null);
+        }
+
+        // Then
+        double tracked = meterRegistry.get("auth.login.throttle.tracked").tag("scope", "email").gauge().value();
+        assertTrue(tracked <= 10, "tracked keys: " + tracked);
+        assertTrue(meterRegistry.get("auth.login.throttle.evicted").tag("scope", "email").counter().count() > 0);
+    }
+}
@@ -0,0 +1,191 @@
+package com.stoliar.service;
+
+import com.stoliar.config.PasswordHashingProperties;
+import com.stoliar.exception.GlobalExceptionHandler;
+import com.stoliar.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    void testMatches_QueueFull_ShouldRejectWith503() throws Exception {
+        // Given - единственный поток занят, очередь на одну задачу заполнена
+        BlockingEncoder encoder = new BlockingEncoder();
+        passwordHashingService = service(encoder, 1, 1, Duration.ofSeconds(5));
+        Future<Boolean> running = callers.submit(() -> passwordHashingService.matches("running", "hash"));
+        assertTrue(encoder.started.await(5, TimeUnit.SECONDS));
+        Future<Boolean> queued = callers.submit(() -> passwordHashingService.matches("queued", "hash"));
+        awaitQueueSize(1);
+
+        // When
+        PasswordHashingUnavailableException exception = assertThrows(PasswordHashingUnavailableException.class,
+                () -> passwordHashingService.matches("rejected", "hash"));
+
+        // Then
+        ResponseEntity<?> response = new GlobalExceptionHandler().handlePasswordHashingUnavailableException(exception);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("auth.password.hash.rejected").counter().count());
+
+        encoder.release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0, encoder.calls("rejected"));
+    }
+
+    @Test
+    void testMatches_Timeout_ShouldCancelQueuedTask() throws Exception {
+        // Given
+        BlockingEncoder encoder = new BlockingEncoder();
+        passwordHashingService = service(encoder, 1, 4, Duration.ofMillis(200));
+        Future<Boolean> running = callers.submit(() -> passwordHashingService.matches("running", "hash"));
+        assertTrue(encoder.started.await(5, TimeUnit.SECONDS));
+
+        // When - задача ждет в очереди дольше таймаута
+        assertThrows(PasswordHashingUnavailableException.class,
+                () -> passwordHashingService.matches("abandoned", "hash"));
+        encoder.release.countDown();
+
+        // Then - после освобождения потока снятая задача не хэшируется
+        // (вызов "running" тоже превышает таймаут, но поток пула дорабатывает его до конца)
+        assertThrows(Exception.class, () -> running.get(5, TimeUnit.SECONDS));
+        assertTrue(passwordHashingService.matches("next", "hash"));
+        assertEquals(0, encoder.calls("abandoned"));
+        assertEquals(1, encoder.calls("next"));
+    }
+
+    @Test
+    void testEncodeAll_ShouldPreserveOrderAndSubmitByWindows() {
+        // Given - окно равно числу потоков
+        int threads = 2;
+        AtomicInteger completed = new AtomicInteger();
+        Map<String, Integer> completedBeforeStart = new ConcurrentHashMap<>();
+        PasswordEncoder encoder = new StubEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                completedBeforeStart.put(rawPassword.toString(), completed.get());
+                sleep(rawPassword.toString().hashCode() % 3 * 5L + 5);
+                completed.incrementAndGet();
+                return "encoded:" + rawPassword;
+            }
+        };
+        passwordHashingService = service(encoder, threads, 64, Duration.ofSeconds(5));
+        List<String> raw = IntStream.range(0, 7).mapToObj(i -> "p" + i).toList();
+
+        // When
+        List<String> encoded = passwordHashingService.encodeAll(raw);
+
+        // Then - результат в порядке входа; задачи окна k ставятся после завершения всех предыдущих окон
+        assertEquals(raw.stream().map(p -> "encoded:" + p).toList(), encoded);
+        for (int i = 0; i < raw.size(); i++) {
+            int windowStart = i / threads * threads;
+            assertTrue(completedBeforeStart.get(raw.get(i)) >= windowStart,
+                    raw.get(i) + " started after " + completedBeforeStart.get(raw.get(i)) + " completions");
+        }
+    }
+
+    @Test
+    void testEncodeAll_EmptyList_ShouldReturnEmptyList() {
+        // Given
+        passwordHashingService = service(new StubEncoder(), 2, 4, Duration.ofSeconds(5));
+
+        // When & Then
+        assertTrue(passwordHashingService.encodeAll(List.of()).isEmpty());
+    }
+
+    private PasswordHashingService service(PasswordEncoder encoder, int threads, int queueCapacity, Duration timeout) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setTimeout(timeout);
+        return new PasswordHashingService(encoder, properties, meterRegistry);
+    }
+
+    private void awaitQueueSize(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hash.queue.size").gauge().value() < expected) {
+            assertTrue(System.nanoTime() < deadline, "task was not queued");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class StubEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return true;
+        }
+    }
+
+    // Первый вызов matches занимает поток пула, пока тест не отпустит его
+    private static class BlockingEncoder extends StubEncoder {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            calls.computeIfAbsent(rawPassword.toString(), ignored -> new AtomicInteger()).incrementAndGet();
+            if ("running".contentEquals(rawPassword)) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            return true;
+        }
+
+        private int calls(String rawPassword) {
+            AtomicInteger counter = calls.get(rawPassword);
+            return counter == null ? 0 : counter.get();
+        }
+    }
+}
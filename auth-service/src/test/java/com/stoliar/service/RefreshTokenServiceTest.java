@@ -0,0 +1,159 @@
+package com.stoliar.service;
+
+import com.stoliar.entity.RefreshToken;
+import com.stoliar.exception.InvalidCredentialsException;
+import com.stoliar.repository.AbstractJpaTest;
+import com.stoliar.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * consume на настоящих транзакциях PostgreSQL: тест не оборачивается в транзакцию,
+ * чтобы видеть зафиксированный результат и гонку двух потоков.
+ */
+@Import(RefreshTokenService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest extends AbstractJpaTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+    }
+
+    @Test
+    void testConsume_ActiveToken_ShouldRevokeAndReturnIt() {
+        // Given
+        String familyId = UUID.randomUUID().toString();
+        refreshTokenService.store("token-1", 1L, familyId, LocalDateTime.now().plusDays(1));
+
+        // When
+        RefreshToken consumed = refreshTokenService.consume("token-1");
+
+        // Then
+        assertEquals(familyId, consumed.getFamilyId());
+        assertNotNull(stored("token-1").getRevokedAt());
+    }
+
+    @Test
+    void testConsume_ConcurrentRefreshWithSameToken_ShouldHaveSingleWinner() throws Exception {
+        // Given
+        refreshTokenService.store("token-1", 1L, UUID.randomUUID().toString(), LocalDateTime.now().plusDays(1));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        refreshTokenService.consume("token-1");
+                        return true;
+                    } catch (InvalidCredentialsException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int winners = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(30, TimeUnit.SECONDS)) {
+                    winners++;
+                }
+            }
+
+            // Then - условный UPDATE пропускает только одно обновление
+            assertEquals(1, winners);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConsume_ReusedToken_ShouldRevokeWholeFamilyDespiteException() {
+        // Given - токен уже обменян на следующий в том же семействе
+        String familyId = UUID.randomUUID().toString();
+        refreshTokenService.store("token-1", 1L, familyId, LocalDateTime.now().plusDays(1));
+        refreshTokenService.consume("token-1");
+        refreshTokenService.store("token-2", 1L, familyId, LocalDateTime.now().plusDays(1));
+        refreshTokenService.store("other-session", 1L, UUID.randomUUID().toString(), LocalDateTime.now().plusDays(1));
+
+        // When
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
+                () -> refreshTokenService.consume("token-1"));
+
+        // Then - отзыв семейства зафиксирован, хотя метод завершился исключением (noRollbackFor)
+        assertEquals("Refresh token reuse detected", exception.getMessage());
+        assertNotNull(stored("token-2").getRevokedAt());
+        assertNull(stored("other-session").getRevokedAt());
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.consume("token-2"));
+    }
+
+    @Test
+    void testConsume_ExpiredToken_ShouldBeRejected() {
+        // Given
+        refreshTokenService.store("token-1", 1L, UUID.randomUUID().toString(), LocalDateTime.now().minusMinutes(1));
+
+        // When
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
+                () -> refreshTokenService.consume("token-1"));
+
+        // Then
+        assertEquals("Refresh token expired", exception.getMessage());
+    }
+
+    @Test
+    void testConsume_UnknownToken_ShouldBeRejected() {
+        // When & Then
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.consume("unknown"));
+    }
+
+    @Test
+    void testDeleteExpiredBatch_ShouldDeleteOnlyExpiredTokensInBatches() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            refreshTokenService.store("expired-" + i, 1L, UUID.randomUUID().toString(), now.minusDays(i + 1));
+        }
+        refreshTokenService.store("active", 1L, UUID.randomUUID().toString(), now.plusDays(1));
+
+        // When
+        int first = refreshTokenRepository.deleteExpiredBatch(now, 2);
+        int second = refreshTokenRepository.deleteExpiredBatch(now, 2);
+        int third = refreshTokenRepository.deleteExpiredBatch(now, 2);
+
+        // Then
+        assertEquals(2, first);
+        assertEquals(1, second);
+        assertEquals(0, third);
+        assertEquals(1, refreshTokenRepository.count());
+        assertNotNull(stored("active"));
+    }
+
+    private RefreshToken stored(String token) {
+        return refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(token)).orElseThrow();
+    }
+}
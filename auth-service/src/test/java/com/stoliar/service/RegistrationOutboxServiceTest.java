@@ -0,0 +1,212 @@
+package com.stoliar.service;
+
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.config.RegistrationOutboxProperties;
+import com.stoliar.dto.UserCreateRequest;
+import com.stoliar.entity.RegistrationOutbox;
+import com.stoliar.entity.RegistrationStatus;
+import com.stoliar.entity.Role;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.repository.RegistrationOutboxRepository;
+import com.stoliar.repository.UserCredentialsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistrationOutboxServiceTest {
+
+    @Mock
+    private RegistrationOutboxRepository registrationOutboxRepository;
+
+    @Mock
+    private UserCredentialsRepository userCredentialsRepository;
+
+    @Mock
+    private CredentialsCache credentialsCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RegistrationOutboxProperties properties;
+    private RegistrationOutboxService registrationOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RegistrationOutboxProperties();
+        properties.setMaxAttempts(5);
+        properties.setInitialBackoff(Duration.ofSeconds(2));
+        properties.setMaxBackoff(Duration.ofSeconds(30));
+        registrationOutboxService = new RegistrationOutboxService(registrationOutboxRepository,
+                userCredentialsRepository, properties, credentialsCache, jdbcTemplate);
+    }
+
+    @Test
+    void testClaimDue_ShouldLeaseForLeaseTimeoutAndLimitBatch() {
+        // Given
+        properties.setLeaseTimeout(Duration.ofMinutes(3));
+        properties.setBatchSize(25);
+        when(registrationOutboxRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(1L, 2L));
+
+        // When
+        List<Long> claimed = registrationOutboxService.claimDue();
+
+        // Then
+        assertEquals(List.of(1L, 2L), claimed);
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(registrationOutboxRepository).claimDue(now.capture(), leaseUntil.capture(), eq(25));
+        assertEquals(Duration.ofMinutes(3), Duration.between(now.getValue(), leaseUntil.getValue()));
+    }
+
+    @Test
+    void testScheduleRetry_ShouldDoubleBackoffPerAttempt() {
+        // Given
+        RegistrationOutbox first = outbox(1L, 1);
+        RegistrationOutbox third = outbox(2L, 3);
+        when(registrationOutboxRepository.findById(1L)).thenReturn(Optional.of(first));
+        when(registrationOutboxRepository.findById(2L)).thenReturn(Optional.of(third));
+
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        registrationOutboxService.scheduleRetry(1L, "timeout");
+        registrationOutboxService.scheduleRetry(2L, "timeout");
+        LocalDateTime after = LocalDateTime.now();
+
+        // Then - 2s после первой попытки, 8s после третьей; задача остается PENDING
+        assertDelay(first, before, after, Duration.ofSeconds(2));
+        assertDelay(third, before, after, Duration.ofSeconds(8));
+        assertEquals(RegistrationStatus.PENDING, third.getStatus());
+        assertEquals("timeout", third.getLastError());
+    }
+
+    @Test
+    void testScheduleRetry_BackoffAboveMax_ShouldBeCapped() {
+        // Given - 2s * 2^3 = 16s, 2s * 2^4 = 32s > 30s
+        RegistrationOutbox outbox = outbox(1L, 4);
+        when(registrationOutboxRepository.findById(1L)).thenReturn(Optional.of(outbox));
+
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        registrationOutboxService.scheduleRetry(1L, "timeout");
+        LocalDateTime after = LocalDateTime.now();
+
+        // Then
+        assertDelay(outbox, before, after, Duration.ofSeconds(16));
+
+        // When
+        outbox.setAttempts(5);
+        properties.setMaxAttempts(10);
+        before = LocalDateTime.now();
+        registrationOutboxService.scheduleRetry(1L, "timeout");
+        after = LocalDateTime.now();
+
+        // Then
+        assertDelay(outbox, before, after, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testScheduleRetry_MaxAttemptsReached_ShouldMarkFailed() {
+        // Given
+        RegistrationOutbox outbox = outbox(1L, 5);
+        LocalDateTime nextAttemptAt = outbox.getNextAttemptAt();
+        when(registrationOutboxRepository.findById(1L)).thenReturn(Optional.of(outbox));
+
+        // When
+        registrationOutboxService.scheduleRetry(1L, "x".repeat(2000));
+
+        // Then
+        assertEquals(RegistrationStatus.FAILED, outbox.getStatus());
+        assertEquals(1000, outbox.getLastError().length());
+        assertEquals(nextAttemptAt, outbox.getNextAttemptAt());
+    }
+
+    @Test
+    void testLoadTasks_MissingCredentials_ShouldMarkTaskFailed() {
+        // Given
+        RegistrationOutbox orphan = outbox(1L, 1);
+        orphan.setCredentialsId(100L);
+        RegistrationOutbox live = outbox(2L, 1);
+        live.setCredentialsId(200L);
+        RegistrationOutbox completed = outbox(3L, 1);
+        completed.setCredentialsId(300L);
+        completed.setStatus(RegistrationStatus.COMPLETED);
+        when(registrationOutboxRepository.findAllById(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(orphan, live, completed));
+        when(userCredentialsRepository.findAllById(anyList())).thenReturn(List.of(credentials(200L)));
+
+        // When
+        Map<Long, UserCreateRequest> tasks = registrationOutboxService.loadTasks(List.of(1L, 2L, 3L));
+
+        // Then - задача без учетных данных не останется PENDING навсегда
+        assertEquals(List.of(2L), List.copyOf(tasks.keySet()));
+        assertEquals("john@example.com", tasks.get(2L).getEmail());
+        assertEquals(RegistrationStatus.FAILED, orphan.getStatus());
+        assertNotNull(orphan.getLastError());
+        assertEquals(RegistrationStatus.COMPLETED, completed.getStatus());
+        verify(userCredentialsRepository).findAllById(List.of(100L, 200L));
+    }
+
+    @Test
+    void testMarkCompleted_ShouldActivateCredentialsAndInvalidateCache() {
+        // Given
+        RegistrationOutbox outbox = outbox(1L, 1);
+        outbox.setCredentialsId(200L);
+        UserCredentials credentials = credentials(200L);
+        when(registrationOutboxRepository.findById(1L)).thenReturn(Optional.of(outbox));
+        when(userCredentialsRepository.findById(200L)).thenReturn(Optional.of(credentials));
+
+        // When
+        registrationOutboxService.markCompleted(1L);
+
+        // Then
+        assertEquals(RegistrationStatus.COMPLETED, outbox.getStatus());
+        assertTrue(credentials.getActive());
+        verify(credentialsCache).invalidate("john@example.com");
+    }
+
+    private static void assertDelay(RegistrationOutbox outbox, LocalDateTime before, LocalDateTime after,
+                                    Duration expected) {
+        assertFalse(outbox.getNextAttemptAt().isBefore(before.plus(expected)), outbox.getNextAttemptAt().toString());
+        assertFalse(outbox.getNextAttemptAt().isAfter(after.plus(expected)), outbox.getNextAttemptAt().toString());
+    }
+
+    private static RegistrationOutbox outbox(Long id, int attempts) {
+        RegistrationOutbox outbox = new RegistrationOutbox();
+        outbox.setId(id);
+        outbox.setCredentialsId(id * 100);
+        outbox.setAttempts(attempts);
+        outbox.setNextAttemptAt(LocalDateTime.now().minusMinutes(1));
+        return outbox;
+    }
+
+    private static UserCredentials credentials(Long id) {
+        UserCredentials credentials = new UserCredentials();
+        credentials.setId(id);
+        credentials.setEmail("john@example.com");
+        credentials.setPassword("$2a$10$hash");
+        credentials.setRole(Role.USER);
+        credentials.setActive(false);
+        credentials.setName("John");
+        credentials.setSurname("Doe");
+        credentials.setBirthDate(LocalDate.of(1990, 1, 1));
+        return credentials;
+    }
+}
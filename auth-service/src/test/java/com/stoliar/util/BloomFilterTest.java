@@ -0,0 +1,125 @@
+package com.stoliar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testMightContain_InsertedValues_ShouldHaveNoFalseNegatives() {
+        // Given
+        List<String> tokenIds = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            tokenIds.add(UUID.randomUUID().toString());
+        }
+
+        // When
+        BloomFilter filter = BloomFilter.of(tokenIds, 1024, 0.01);
+
+        // Then
+        tokenIds.forEach(tokenId -> assertTrue(filter.mightContain(tokenId), tokenId));
+    }
+
+    @Test
+    void testMightContain_AbsentValues_ShouldStayNearConfiguredFalsePositiveRate() {
+        // Given
+        List<String> tokenIds = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            tokenIds.add(UUID.randomUUID().toString());
+        }
+        BloomFilter filter = BloomFilter.of(tokenIds, 1024, 0.01);
+
+        // When
+        long falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives < 20_000 * 0.03, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testReferenceHash_ShouldBeFnv1a64() {
+        // Известные значения FNV-1a 64 - эталонная реализация ниже считает по спецификации
+        assertEquals(0xcbf29ce484222325L, Reference.fnv1a64(""));
+        assertEquals(0xaf63dc4c8601ec8cL, Reference.fnv1a64("a"));
+    }
+
+    @Test
+    void testToLongArray_BitLayout_ShouldMatchDocumentedScheme() {
+        // Given
+        Set<String> tokenIds = Set.of("3f2504e0-4f89-11d3-9a0c-0305e82c3301", "jti-1", "jti-2");
+
+        // When
+        BloomFilter filter = BloomFilter.of(tokenIds, 64, 0.01);
+        long[] expected = Reference.words(tokenIds, filter.getBitSize(), filter.getHashFunctions());
+
+        // Then
+        assertEquals("fnv1a64-fmix64", BloomFilter.HASH_ALGORITHM);
+        assertArrayEquals(expected, filter.toLongArray());
+    }
+
+    @Test
+    void testToLongArray_ShouldReturnCopy() {
+        // Given
+        BloomFilter filter = BloomFilter.of(Set.of("jti-1"), 64, 0.01);
+
+        // When
+        long[] words = filter.toLongArray();
+        Arrays.fill(words, 0L);
+
+        // Then
+        assertTrue(filter.mightContain("jti-1"));
+    }
+
+    /**
+     * Независимая реализация опубликованной схемы: h1 = fmix64(FNV-1a 64 по UTF-16 единицам),
+     * h2 = fmix64(h1 ^ 0x9e3779b97f4a7c15), индекс i-й функции - неотрицательный остаток
+     * от деления знакового 64-битного (h1 + i * h2) на bitSize,
+     * бит index хранится в слове index / 64 под номером index % 64.
+     */
+    static final class Reference {
+
+        static long fnv1a64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (char c : value.toCharArray()) {
+                hash ^= c;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+
+        static long[] words(Iterable<String> values, int bitSize, int hashFunctions) {
+            long[] words = new long[(bitSize + 63) / 64];
+            for (String value : values) {
+                long h1 = fmix64(fnv1a64(value));
+                long h2 = fmix64(h1 ^ 0x9e3779b97f4a7c15L);
+                for (int i = 0; i < hashFunctions; i++) {
+                    long combined = h1 + i * h2;
+                    long index = ((combined % bitSize) + bitSize) % bitSize;
+                    words[(int) (index / 64)] |= 1L << (index % 64);
+                }
+            }
+            return words;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.stoliar.util;
+
+import com.stoliar.config.LoginThrottleProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIpResolverTest {
+
+    @Test
+    void testResolve_TrustDisabledByDefault_ShouldIgnoreForwardedFor() {
+        // Given
+        ClientIpResolver resolver = new ClientIpResolver(new LoginThrottleProperties());
+
+        // When & Then
+        assertEquals("203.0.113.7", resolver.resolve(request("203.0.113.7", "198.51.100.1")));
+    }
+
+    @Test
+    void testResolve_FromTrustedProxy_ShouldUseLastForwardedAddress() {
+        // Given
+        ClientIpResolver resolver = new ClientIpResolver(properties(List.of("172.28.0.0/16")));
+
+        // When & Then - первые значения мог подставить клиент, последнее дописал gateway
+        assertEquals("198.51.100.1", resolver.resolve(request("172.28.0.10", "1.2.3.4, 198.51.100.1")));
+    }
+
+    @Test
+    void testResolve_DirectConnection_ShouldIgnoreSpoofedForwardedFor() {
+        // Given
+        ClientIpResolver resolver = new ClientIpResolver(properties(List.of("172.28.0.10")));
+
+        // When & Then
+        assertEquals("203.0.113.7", resolver.resolve(request("203.0.113.7", "172.28.0.10")));
+    }
+
+    @Test
+    void testResolve_TrustWithoutTrustedProxies_ShouldIgnoreForwardedFor() {
+        // Given
+        ClientIpResolver resolver = new ClientIpResolver(properties(List.of()));
+
+        // When & Then
+        assertEquals("172.28.0.10", resolver.resolve(request("172.28.0.10", "198.51.100.1")));
+    }
+
+    private static LoginThrottleProperties properties(List<String> trustedProxies) {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setTrustForwardedFor(true);
+        properties.setTrustedProxies(trustedProxies);
+        return properties;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package com.stoliar.util;
+
+import com.stoliar.entity.Role;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationSnapshotTest {
+
+    private static final Instant CUTOFF = Instant.parse("2025-01-01T12:00:00.500Z");
+
+    @Test
+    void testIsRevoked_IssuedInSameSecondAsCutoff_ShouldBeRevoked() {
+        // Given - iat усечен до секунды, поэтому токен этой секунды мог быть выпущен и после отзыва
+        RevocationSnapshot snapshot = snapshot(Set.of(), Map.of(42L, CUTOFF));
+
+        // When & Then
+        assertTrue(snapshot.isRevoked(principal(42L, null, Instant.parse("2025-01-01T12:00:00Z"))));
+    }
+
+    @Test
+    void testIsRevoked_IssuedBeforeCutoff_ShouldBeRevoked() {
+        RevocationSnapshot snapshot = snapshot(Set.of(), Map.of(42L, CUTOFF));
+
+        assertTrue(snapshot.isRevoked(principal(42L, null, Instant.parse("2025-01-01T11:59:59Z"))));
+    }
+
+    @Test
+    void testIsRevoked_IssuedInNextSecond_ShouldBeAccepted() {
+        RevocationSnapshot snapshot = snapshot(Set.of(), Map.of(42L, CUTOFF));
+
+        assertFalse(snapshot.isRevoked(principal(42L, null, Instant.parse("2025-01-01T12:00:01Z"))));
+    }
+
+    @Test
+    void testIsRevoked_CutoffOfAnotherUser_ShouldBeAccepted() {
+        RevocationSnapshot snapshot = snapshot(Set.of(), Map.of(7L, CUTOFF));
+
+        assertFalse(snapshot.isRevoked(principal(42L, null, Instant.parse("2025-01-01T11:00:00Z"))));
+    }
+
+    @Test
+    void testIsRevoked_RevokedTokenId_ShouldBeRevoked() {
+        RevocationSnapshot snapshot = snapshot(Set.of("jti-1"), Map.of());
+
+        assertTrue(snapshot.isRevoked(principal(42L, "jti-1", Instant.parse("2025-01-01T12:00:01Z"))));
+        assertFalse(snapshot.isRevoked(principal(42L, "jti-2", Instant.parse("2025-01-01T12:00:01Z"))));
+    }
+
+    @Test
+    void testIsRevoked_TokenWithoutJtiAndIat_ShouldBeAccepted() {
+        RevocationSnapshot snapshot = snapshot(Set.of("jti-1"), Map.of(42L, CUTOFF));
+
+        assertFalse(snapshot.isRevoked(principal(42L, null, null)));
+    }
+
+    private static RevocationSnapshot snapshot(Set<String> tokenIds, Map<Long, Instant> userCutoffs) {
+        return new RevocationSnapshot(1, Instant.now(), BloomFilter.of(tokenIds, 64, 0.01), tokenIds, userCutoffs);
+    }
+
+    private static JwtPrincipal principal(Long userId, String tokenId, Instant issuedAt) {
+        return new JwtPrincipal("john@example.com", Role.USER, userId, "access", tokenId, issuedAt,
+                issuedAt != null ? issuedAt.plusSeconds(900) : null);
+    }
+}
@@ -0,0 +1,153 @@
+package com.stoliar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private static final int BUCKETS = 5;
+    private static final long BUCKET_MILLIS = 1_000;
+    private static final long WINDOW_MILLIS = BUCKETS * BUCKET_MILLIS;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void testSum_EventsWithinWindow_ShouldBeCounted() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKETS, BUCKET_MILLIS);
+
+        // When
+        counter.increment(START);
+        counter.increment(START + 1_500);
+        counter.increment(START + 3_999);
+
+        // Then
+        assertEquals(3, counter.sum(START + 4_000));
+    }
+
+    @Test
+    void testSum_WindowRollsOver_ShouldDropOldBucketsOneByOne() {
+        // Given - по событию в каждой секунде окна
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKETS, BUCKET_MILLIS);
+        for (int i = 0; i < BUCKETS; i++) {
+            counter.increment(START + i * BUCKET_MILLIS);
+        }
+
+        // When & Then - каждая следующая корзина выталкивает самую старую
+        assertEquals(5, counter.sum(START + WINDOW_MILLIS - 1));
+        assertEquals(4, counter.sum(START + WINDOW_MILLIS));
+        assertEquals(1, counter.sum(START + WINDOW_MILLIS + (BUCKETS - 1) * BUCKET_MILLIS - 1));
+        assertEquals(0, counter.sum(START + WINDOW_MILLIS + (BUCKETS - 1) * BUCKET_MILLIS));
+    }
+
+    @Test
+    void testIncrement_ReusedBucketAfterFullWindow_ShouldResetStaleCount() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKETS, BUCKET_MILLIS);
+        counter.increment(START);
+        counter.increment(START);
+
+        // When - тот же индекс корзины через целое окно
+        counter.increment(START + WINDOW_MILLIS);
+
+        // Then
+        assertEquals(1, counter.sum(START + WINDOW_MILLIS));
+    }
+
+    @Test
+    void testIncrement_Saturated_ShouldStopAtCountLimit() {
+        // Given
+        long countLimit = (1L << 24) - 1;
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKETS, BUCKET_MILLIS);
+
+        // When
+        for (long i = 0; i < countLimit + 10; i++) {
+            counter.increment(START);
+        }
+
+        // Then - счетчик не переполняется в биты номера корзины
+        assertEquals(countLimit, counter.sum(START));
+        counter.increment(START + BUCKET_MILLIS);
+        assertEquals(countLimit + 1, counter.sum(START + BUCKET_MILLIS));
+    }
+
+    @Test
+    void testIncrement_ConcurrentThreads_ShouldCountEveryEvent() throws Exception {
+        // Given
+        int threads = 8;
+        int incrementsPerThread = 10_000;
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKETS, BUCKET_MILLIS);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < incrementsPerThread; i++) {
+                        counter.increment(START);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals((long) threads * incrementsPerThread, counter.sum(START));
+    }
+
+    @Test
+    void testDecrement_ShouldRollBackEventInItsBucket() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKETS, BUCKET_MILLIS);
+        counter.increment(START);
+        long bucket = counter.increment(START + BUCKET_MILLIS);
+
+        // When
+        counter.decrement(bucket);
+
+        // Then
+        assertEquals(1, counter.sum(START + BUCKET_MILLIS));
+    }
+
+    @Test
+    void testDecrement_BucketReusedByLaterWindow_ShouldKeepNewCount() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKETS, BUCKET_MILLIS);
+        long staleBucket = counter.increment(START);
+        counter.increment(START + WINDOW_MILLIS);
+
+        // When - событие старой корзины уже вышло из окна
+        counter.decrement(staleBucket);
+
+        // Then
+        assertEquals(1, counter.sum(START + WINDOW_MILLIS));
+    }
+
+    @Test
+    void testIsIdle_AfterFullWindowWithoutEvents_ShouldBeTrue() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKETS, BUCKET_MILLIS);
+        counter.increment(START);
+
+        // When & Then
+        assertFalse(counter.isIdle(START + WINDOW_MILLIS - 1));
+        assertTrue(counter.isIdle(START + WINDOW_MILLIS));
+    }
+}
@@ -65,21 +65,28 @@ public class UserServiceClient {
         String url = userServiceUrl + "/api/v1/users/email/" + email;
 
         HttpHeaders headers = createServiceHeaders();
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
 
-        ResponseEntity<UserInfoDto> response = restTemplate.exchange(
+        // User Service оборачивает ответ в ApiResponse, как и для getUserById
+        ResponseEntity<UserApiResponse> response = restTemplate.exchange(
                 url,
                 HttpMethod.GET,
                 entity,
-                UserInfoDto.class
+                UserApiResponse.class
         );
 
-        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-            return response.getBody();
-        } else {
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
             log.error("Failed to get user info by email. Status: {}", response.getStatusCode());
-            throw new RuntimeException("Failed to get user info from user service");
+            throw new IllegalStateException("Invalid response from User Service");
         }
+
+        UserApiResponse apiResponse = response.getBody();
+
+        if (!apiResponse.isSuccess() || apiResponse.getData() == null) {
+            throw new IllegalStateException("User service returned unsuccessful response");
+        }
+
+        return apiResponse.getData();
     }
 
     private HttpHeaders createServiceHeaders() {
@@ -1,53 +1,141 @@
 package com.stoliar.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stoliar.dto.item.ItemCreateDto;
+import com.stoliar.dto.item.ItemCursorPageDto;
 import com.stoliar.dto.item.ItemDto;
-import com.stoliar.entity.Item;
-import com.stoliar.exception.EntityNotFoundException;
-import com.stoliar.mapper.ItemMapper;
-import com.stoliar.repository.ItemRepository;
+import com.stoliar.service.ItemService;
+import com.stoliar.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Set;
 
+@Slf4j
+@Validated
 @RestController
 @RequestMapping("/api/v1/items")
 @RequiredArgsConstructor
 @Tag(name = "Item Management", description = "APIs for managing items")
 public class ItemController {
 
-    private final ItemRepository itemRepository;
-    private final ItemMapper itemMapper;
+    // Сортировки, которые обслуживаются индексами (PK и idx_items_name)
+    private static final Set<String> SORT_FIELDS = Set.of("id", "name");
+
+    private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+
+    // Сколько клиент может не перезапрашивать каталог; после - условный запрос с If-None-Match
+    @Value("${app.http.items-max-age:60s}")
+    private Duration itemsMaxAge;
 
     @Operation(summary = "Create item", description = "Create a new item")
     @PostMapping
     public ResponseEntity<ItemDto> createItem(@Valid @RequestBody ItemCreateDto itemCreateDto) {
-        Item item = itemMapper.toEntity(itemCreateDto);
-        Item savedItem = itemRepository.save(item);
-        ItemDto itemDto = itemMapper.toDto(savedItem);
+        ItemDto itemDto = itemService.createItem(itemCreateDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(itemDto);
     }
 
-    @Operation(summary = "Get all items", description = "Get list of all items")
+    @Operation(summary = "Get items", description = "Get paginated list of items, optionally filtered by name prefix")
     @GetMapping
-    public ResponseEntity<List<ItemDto>> getAllItems() {
-        List<Item> items = itemRepository.findAll();
-        List<ItemDto> itemDtos = itemMapper.toDtoList(items);
-        return ResponseEntity.ok(itemDtos);
+    public ResponseEntity<Page<ItemDto>> getAllItems(
+            @Parameter(description = "Name prefix (case-sensitive)") @RequestParam(required = false) String namePrefix,
+            @Parameter(description = "Page number (default: 0)") @RequestParam(defaultValue = "0") @Min(0) int page,
+            @Parameter(description = "Page size (default: 20, max: 100)") @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @Parameter(description = "Sort by field: id, name (default: id)") @RequestParam(defaultValue = "id") String sort,
+            ServletWebRequest webRequest) {
+
+        if (!SORT_FIELDS.contains(sort)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sort);
+        }
+        Sort order = "id".equals(sort) ? Sort.by("id") : Sort.by(sort).and(Sort.by("id"));
+        Pageable pageable = PageRequest.of(page, size, order);
+
+        String etag = itemService.getItemsETag(namePrefix, pageable);
+        if (ETags.checkNotModified(webRequest, etag, catalogCacheControl())) {
+            return null;
+        }
+
+        Page<ItemDto> items = itemService.getItems(namePrefix, pageable);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(catalogCacheControl())
+                .body(items);
+    }
+
+    @Operation(summary = "Get items by cursor", description = "Get next page of items ordered by id, starting after the given id")
+    @GetMapping("/cursor")
+    public ResponseEntity<ItemCursorPageDto> getItemsByCursor(
+            @Parameter(description = "Id of the last item from the previous page (empty for the first page)")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Page size (default: 100, max: 500)") @RequestParam(defaultValue = "100") @Min(1) @Max(500) int size) {
+
+        return ResponseEntity.ok(itemService.getItemsAfter(afterId, size));
+    }
+
+    @Operation(summary = "Stream all items", description = "Stream the full catalog as NDJSON (one item per line) for sync clients")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        log.info("Streaming full item catalog");
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            itemService.streamAllItems(item -> writeLine(out, item));
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @Operation(summary = "Get item by ID", description = "Get item by its ID")
     @GetMapping("/{id}")
-    public ResponseEntity<ItemDto> getItemById(@PathVariable Long id) {
-        Item item = itemRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Item not found with id: " + id));
-        ItemDto itemDto = itemMapper.toDto(item);
-        return ResponseEntity.ok(itemDto);
+    public ResponseEntity<ItemDto> getItemById(@PathVariable Long id, ServletWebRequest webRequest) {
+        // Item читается из L2-кэша, поэтому ETag берем из самого товара; экономим сериализацию и трафик
+        ItemDto itemDto = itemService.getItemById(id);
+        String etag = ETags.of("item", itemDto.getId(), itemDto.getUpdatedAt());
+        if (ETags.checkNotModified(webRequest, etag, catalogCacheControl())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(catalogCacheControl())
+                .body(itemDto);
+    }
+
+    private CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(itemsMaxAge).cachePublic();
+    }
+
+    private void writeLine(OutputStream out, ItemDto item) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(item));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,8 @@ import com.stoliar.dto.order.OrderResponseDto;
 import com.stoliar.dto.order.OrderUpdateDto;
 import com.stoliar.entity.Order;
 import com.stoliar.service.OrderService;
+import com.stoliar.sse.OrderStatusBroadcaster;
+import com.stoliar.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -19,10 +21,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -35,7 +41,11 @@ import java.util.List;
 @Tag(name = "Order Management", description = "APIs for managing orders")
 public class OrderController {
 
+    // Заказ меняется - клиент может хранить ответ, но перед использованием обязан перепроверить ETag
+    private static final CacheControl ORDER_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final OrderService orderServiceImpl;
+    private final OrderStatusBroadcaster orderStatusBroadcaster;
 
     @Operation(summary = "Create a new order", description = "Create a new order with items")
     @ApiResponses(value = {
@@ -53,15 +63,55 @@ public class OrderController {
     @Operation(summary = "Get order by ID", description = "Retrieve a specific order by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Order not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Order not found")
     })
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponseDto> getOrderById(
-            @Parameter(description = "Order ID", required = true) @PathVariable Long id) {
+            @Parameter(description = "Order ID", required = true) @PathVariable Long id,
+            ServletWebRequest webRequest) {
 
         log.info("Getting order by id: {}", id);
+        // Дешевая проверка по updatedAt до загрузки заказа и запроса в User Service
+        if (ETags.checkNotModified(webRequest, orderServiceImpl.getOrderETag(id), ORDER_CACHE_CONTROL)) {
+            return null;
+        }
+
         OrderResponseDto order = orderServiceImpl.getOrderById(id);
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok()
+                .eTag(ETags.of("order", order.getId(), order.getUpdatedAt()))
+                .cacheControl(ORDER_CACHE_CONTROL)
+                .body(order);
+    }
+
+    @Operation(summary = "Stream order status changes",
+            description = "Server-Sent Events with status changes of the order. Reconnect with Last-Event-ID to receive missed events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(
+            @Parameter(description = "Order ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Id of the last received event") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        log.info("Opening status stream for order: {}", id);
+        orderServiceImpl.checkOrderExists(id);
+        return orderStatusBroadcaster.subscribeToOrder(id, lastEventId);
+    }
+
+    @Operation(summary = "Stream status changes of user orders",
+            description = "Server-Sent Events with status changes of all orders of the user. Reconnect with Last-Event-ID to receive missed events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened")
+    })
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserOrderStatuses(
+            @Parameter(description = "User ID", required = true) @PathVariable Long userId,
+            @Parameter(description = "Id of the last received event") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        log.info("Opening order status stream for user: {}", userId);
+        return orderStatusBroadcaster.subscribeToUser(userId, lastEventId);
     }
 
     @Operation(summary = "Get all orders with filters", description = "Retrieve paginated list of orders with optional filters by date range and status")
@@ -0,0 +1,9 @@
+package com.stoliar.dto.item;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводка по каталогу для ETag списка товаров: меняется при любом добавлении или изменении товара.
+ */
+public record ItemCatalogVersion(Long count, Long maxId, LocalDateTime maxUpdatedAt) {
+}
@@ -0,0 +1,17 @@
+package com.stoliar.dto.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemCursorPageDto {
+    private List<ItemDto> content;
+    // id последнего товара страницы - передается как afterId для следующей
+    private Long nextAfterId;
+    private boolean hasNext;
+}
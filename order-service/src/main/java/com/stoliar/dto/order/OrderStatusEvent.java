@@ -0,0 +1,17 @@
+package com.stoliar.dto.order;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.stoliar.entity.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Смена статуса заказа. Публикуется из OrderServiceImpl и отправляется подписчикам SSE после коммита.
+ */
+public record OrderStatusEvent(
+        Long orderId,
+        Long userId,
+        Order.OrderStatus previousStatus,
+        Order.OrderStatus status,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS") LocalDateTime changedAt) {
+}
@@ -2,13 +2,20 @@ package com.stoliar.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Data
 @Entity
 @Table(name = "items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Item.CACHE_REGION)
 @EntityListeners(AuditingEntityListener.class)
 public class Item extends AuditableEntity {
+    public static final String CACHE_REGION = "items";
+    public static final String QUERY_CACHE_REGION = "itemQueries";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
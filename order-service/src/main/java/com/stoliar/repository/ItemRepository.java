@@ -1,9 +1,71 @@
 package com.stoliar.repository;
 
+import com.stoliar.dto.item.ItemCatalogVersion;
 import com.stoliar.entity.Item;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-}
\ No newline at end of file
+
+    // Страница и count кэшируются в query cache (id), сами Item - в L2-регионе items.
+    // Hibernate сбрасывает результаты при любой записи в items через JPA
+    @Query("SELECT i FROM Item i")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Item.QUERY_CACHE_REGION)
+    })
+    Page<Item> findAllCached(Pageable pageable);
+
+    // Диапазон [prefix, upperBound) идет по idx_items_name; LIKE отсекает крайние случаи сопоставления
+    @Query("""
+            SELECT i FROM Item i
+            WHERE i.name >= :prefix
+              AND i.name < :upperBound
+              AND i.name LIKE :pattern ESCAPE '\\'
+            """)
+    Page<Item> findByNamePrefix(@Param("prefix") String prefix,
+                                @Param("upperBound") String upperBound,
+                                @Param("pattern") String pattern,
+                                Pageable pageable);
+
+    @Query("""
+            SELECT i FROM Item i
+            WHERE i.name >= :prefix
+              AND i.name LIKE :pattern ESCAPE '\\'
+            """)
+    Page<Item> findByNamePrefixFrom(@Param("prefix") String prefix,
+                                    @Param("pattern") String pattern,
+                                    Pageable pageable);
+
+    // Версия каталога для ETag; кэшируется вместе со страницами и сбрасывается при записи в items
+    @Query("SELECT new com.stoliar.dto.item.ItemCatalogVersion(COUNT(i), MAX(i.id), MAX(i.updatedAt)) FROM Item i")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Item.QUERY_CACHE_REGION)
+    })
+    ItemCatalogVersion getCatalogVersion();
+
+    // Keyset-страница по первичному ключу
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Полная выгрузка каталога курсором; мимо L2-кэша, чтобы не вытеснять горячие товары
+    @Query("SELECT i FROM Item i ORDER BY i.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Item> streamAllOrderedById();
+}
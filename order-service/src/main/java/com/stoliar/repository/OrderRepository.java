@@ -21,6 +21,10 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
     @Query("SELECT o FROM Order o WHERE o.id = :id AND o.deleted = false")
     Optional<Order> findByIdAndNotDeleted(@Param("id") Long id);
 
+    // Время последнего изменения для ETag - без загрузки заказа и обращения к User Service
+    @Query("SELECT o.updatedAt FROM Order o WHERE o.id = :id AND o.deleted = false")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
     // GET ORDERS BY USER ID (только неудаленные)
     @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.deleted = false")
     Page<Order> findByUserId(@Param("userId") Long userId, Pageable pageable);
@@ -0,0 +1,19 @@
+package com.stoliar.service;
+
+import com.stoliar.dto.item.ItemCreateDto;
+import com.stoliar.dto.item.ItemCursorPageDto;
+import com.stoliar.dto.item.ItemDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.function.Consumer;
+
+public interface ItemService {
+
+    ItemDto createItem(ItemCreateDto itemCreateDto);
+    ItemDto getItemById(Long id);
+    Page<ItemDto> getItems(String namePrefix, Pageable pageable);
+    String getItemsETag(String namePrefix, Pageable pageable);
+    ItemCursorPageDto getItemsAfter(Long afterId, int size);
+    void streamAllItems(Consumer<ItemDto> consumer);
+}
@@ -11,6 +11,8 @@ public interface OrderService {
 
     OrderResponseDto createOrder(OrderCreateDto orderCreateDto);
     OrderResponseDto getOrderById(Long id);
+    String getOrderETag(Long id);
+    void checkOrderExists(Long id);
     Page<OrderResponseDto> getOrdersWithFilters(OrderFilterDto filterDto);
     Page<OrderResponseDto> getOrdersByUserId(Long userId, Pageable pageable);
     OrderResponseDto updateOrder(Long id, OrderUpdateDto orderUpdateDto);
@@ -0,0 +1,125 @@
+package com.stoliar.service.impl;
+
+import com.stoliar.dto.item.ItemCatalogVersion;
+import com.stoliar.dto.item.ItemCreateDto;
+import com.stoliar.dto.item.ItemCursorPageDto;
+import com.stoliar.dto.item.ItemDto;
+import com.stoliar.entity.Item;
+import com.stoliar.exception.EntityNotFoundException;
+import com.stoliar.mapper.ItemMapper;
+import com.stoliar.repository.ItemRepository;
+import com.stoliar.service.ItemService;
+import com.stoliar.util.ETags;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemServiceImpl implements ItemService {
+
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public ItemDto createItem(ItemCreateDto itemCreateDto) {
+        Item savedItem = itemRepository.save(itemMapper.toEntity(itemCreateDto));
+        return itemMapper.toDto(savedItem);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemDto getItemById(Long id) {
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Item not found with id: " + id));
+        return itemMapper.toDto(item);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ItemDto> getItems(String namePrefix, Pageable pageable) {
+        if (!StringUtils.hasText(namePrefix)) {
+            return itemRepository.findAllCached(pageable).map(itemMapper::toDto);
+        }
+
+        // Поиск по префиксу идет диапазоном по idx_items_name, поэтому и сортировка - по имени
+        String prefix = namePrefix.trim();
+        Pageable byName = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by("name").and(Sort.by("id")));
+        log.debug("Searching items by name prefix: {}", prefix);
+        String upperBound = prefixUpperBound(prefix);
+        Page<Item> items = upperBound != null
+                ? itemRepository.findByNamePrefix(prefix, upperBound, likePattern(prefix), byName)
+                : itemRepository.findByNamePrefixFrom(prefix, likePattern(prefix), byName);
+        return items.map(itemMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getItemsETag(String namePrefix, Pageable pageable) {
+        // Версия считается по всему каталогу - для выборки по префиксу это консервативно, но дешево
+        ItemCatalogVersion version = itemRepository.getCatalogVersion();
+        return ETags.digest("items", version.count(), version.maxId(), version.maxUpdatedAt(),
+                StringUtils.hasText(namePrefix) ? namePrefix.trim() : "",
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemCursorPageDto getItemsAfter(Long afterId, int size) {
+        // Берем на одну запись больше, чтобы узнать, есть ли следующая страница
+        List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId != null ? afterId : 0L, Limit.of(size + 1));
+
+        boolean hasNext = items.size() > size;
+        List<Item> page = hasNext ? items.subList(0, size) : items;
+        Long nextAfterId = hasNext ? page.get(page.size() - 1).getId() : null;
+        return new ItemCursorPageDto(itemMapper.toDtoList(page), nextAfterId, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllItems(Consumer<ItemDto> consumer) {
+        try (Stream<Item> items = itemRepository.streamAllOrderedById()) {
+            items.forEach(item -> {
+                consumer.accept(itemMapper.toDto(item));
+                // Не копим весь каталог в persistence context
+                entityManager.detach(item);
+            });
+        }
+    }
+
+    // Верхняя граница диапазона: увеличиваем последнюю букву/цифру ("Lap" -> "Laq", "Laz" -> "Lb", "Lap_" -> "Laq").
+    // Пунктуация в лингвистических сопоставлениях игнорируется, поэтому на нее границу не строим.
+    // null - подходящего символа нет, ищем только по нижней границе
+    static String prefixUpperBound(String prefix) {
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            char c = prefix.charAt(i);
+            if (Character.isLetterOrDigit(c) && Character.isLetterOrDigit((char) (c + 1))) {
+                return prefix.substring(0, i) + (char) (c + 1);
+            }
+        }
+        return null;
+    }
+
+    static String likePattern(String prefix) {
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
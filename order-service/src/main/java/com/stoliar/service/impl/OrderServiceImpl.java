@@ -6,6 +6,7 @@ import com.stoliar.dto.orderItem.OrderItemDto;
 import com.stoliar.dto.order.OrderCreateDto;
 import com.stoliar.dto.order.OrderFilterDto;
 import com.stoliar.dto.order.OrderResponseDto;
+import com.stoliar.dto.order.OrderStatusEvent;
 import com.stoliar.dto.order.OrderUpdateDto;
 import com.stoliar.dto.orderItem.OrderItemUpdateDto;
 import com.stoliar.dto.user.UserInfoDto;
@@ -21,9 +22,11 @@ import com.stoliar.repository.OrderItemRepository;
 import com.stoliar.repository.ItemRepository;
 import com.stoliar.service.OrderService;
 import com.stoliar.specification.OrderSpecification;
+import com.stoliar.util.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +35,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -50,6 +54,7 @@ public class OrderServiceImpl implements OrderService {
     private final OrderMapper orderMapper;
     private final ItemMapper itemMapper;
     private final UserServiceClient userServiceClient;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public OrderResponseDto createOrder(OrderCreateDto dto) {
@@ -96,6 +101,13 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
+    @Transactional(readOnly = true)
+    public String getOrderETag(Long id) {
+        return orderRepository.findUpdatedAtById(id)
+                .map(updatedAt -> ETags.of("order", id, updatedAt))
+                .orElse(null);
+    }
+
     @Transactional(readOnly = true)
     public Page<OrderResponseDto> getOrdersWithFilters(OrderFilterDto filterDto) {
         log.info("Getting orders with filters");
@@ -144,7 +156,10 @@ public class OrderServiceImpl implements OrderService {
         validateOrderStatusForUpdate(existingOrder.getStatus(), orderUpdateDto);
 
         // Обновляем статус
+        Order.OrderStatus previousStatus = existingOrder.getStatus();
         existingOrder.setStatus(orderUpdateDto.getStatus());
+        // updatedAt - основа ETag заказа, поэтому меняем его и когда меняется только состав
+        existingOrder.setUpdatedAt(LocalDateTime.now());
 
         // Если передан userId - обновляем пользователя
         if (orderUpdateDto.getUserId() != null) {
@@ -162,6 +177,12 @@ public class OrderServiceImpl implements OrderService {
 
         Order updatedOrder = orderRepository.save(existingOrder);
 
+        // Подписчики SSE получат событие только после коммита (OrderStatusBroadcaster)
+        if (previousStatus != updatedOrder.getStatus()) {
+            eventPublisher.publishEvent(new OrderStatusEvent(updatedOrder.getId(), updatedOrder.getUserId(),
+                    previousStatus, updatedOrder.getStatus(), LocalDateTime.now()));
+        }
+
         try {
             UserInfoDto userInfo = userServiceClient.getUserById(updatedOrder.getUserId());
             return enrichOrderWithUserInfo(updatedOrder, userInfo);
@@ -171,6 +192,13 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
+    @Transactional(readOnly = true)
+    public void checkOrderExists(Long id) {
+        if (!orderRepository.existsByIdAndNotDeleted(id)) {
+            throw new EntityNotFoundException("Order not found with id: " + id);
+        }
+    }
+
     @Transactional
     public void deleteOrder(Long id) {
         log.info("Deleting order with id: {}", id);
@@ -0,0 +1,303 @@
+package com.stoliar.sse;
+
+import com.stoliar.dto.order.OrderStatusEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Рассылка смен статуса заказов по SSE-подключениям (на заказ или на пользователя).
+ * <p>
+ * События уходят только после коммита. Последние события хранятся в памяти, чтобы клиент
+ * мог переподключиться с Last-Event-ID и получить пропущенное; если нужных событий уже нет
+ * (или инстанс перезапускался), клиент получает событие reset и перечитывает заказ.
+ * Медленный клиент, у которого переполнился буфер, отключается - он переподключится и догонит по истории.
+ * Состояние локально для инстанса.
+ */
+@Slf4j
+@Component
+public class OrderStatusBroadcaster {
+
+    static final String STATUS_EVENT = "order-status";
+    static final String RESET_EVENT = "reset";
+    private static final long RECONNECT_MILLIS = 3000;
+
+    // Префикс id событий: после перезапуска старые Last-Event-ID распознаются как чужие
+    private final String streamId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Deque<StoredEvent> history = new ArrayDeque<>();
+    private final Object historyLock = new Object();
+
+    private final Map<Long, Set<OrderStatusSubscriber>> byOrder = new ConcurrentHashMap<>();
+    private final Map<Long, Set<OrderStatusSubscriber>> byUser = new ConcurrentHashMap<>();
+
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int historySize;
+    private final Duration heartbeatInterval;
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeat;
+    private final Counter droppedCounter;
+
+    record StoredEvent(long sequence, String id, OrderStatusEvent event) {
+    }
+
+    public OrderStatusBroadcaster(@Value("${app.sse.timeout:30m}") Duration timeout,
+                                  @Value("${app.sse.buffer-size:100}") int bufferSize,
+                                  @Value("${app.sse.history-size:1000}") int historySize,
+                                  @Value("${app.sse.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                  @Value("${app.sse.sender-threads:4}") int senderThreads,
+                                  MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.heartbeatInterval = heartbeatInterval;
+        this.sender = Executors.newFixedThreadPool(senderThreads, Thread.ofPlatform()
+                .name("order-sse-", 0).daemon(true).factory());
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("order-sse-heartbeat").daemon(true).factory());
+        this.droppedCounter = Counter.builder("orders.sse.dropped")
+                .description("SSE connections closed because the client could not keep up")
+                .register(meterRegistry);
+        Gauge.builder("orders.sse.connections", this, OrderStatusBroadcaster::connectionCount)
+                .description("Open order status SSE connections")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long period = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+        allSubscribers().forEach(subscriber -> close(subscriber));
+    }
+
+    public SseEmitter subscribeToOrder(Long orderId, String lastEventId) {
+        return subscribe(orderId, null, lastEventId);
+    }
+
+    public SseEmitter subscribeToUser(Long userId, String lastEventId) {
+        return subscribe(null, userId, lastEventId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusEvent event) {
+        StoredEvent stored;
+        List<OrderStatusSubscriber> targets = new ArrayList<>();
+        synchronized (historyLock) {
+            long seq = sequence.incrementAndGet();
+            stored = new StoredEvent(seq, eventId(seq), event);
+            history.addLast(stored);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            targets.addAll(byOrder.getOrDefault(event.orderId(), Set.of()));
+            targets.addAll(byUser.getOrDefault(event.userId(), Set.of()));
+        }
+
+        log.debug("Order {} status {} -> {}, notifying {} subscribers",
+                event.orderId(), event.previousStatus(), event.status(), targets.size());
+        targets.forEach(subscriber -> deliver(subscriber, toSse(stored)));
+    }
+
+    private SseEmitter subscribe(Long orderId, Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        OrderStatusSubscriber subscriber = new OrderStatusSubscriber(emitter, orderId, userId, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscriber.offer(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("connected"));
+        // Досылка пропущенного и регистрация под одной блокировкой - событие не потеряется между ними
+        synchronized (historyLock) {
+            List<StoredEvent> missed = eventsAfter(lastEventId, subscriber);
+            if (missed == null || missed.size() >= bufferSize) {
+                subscriber.offer(SseEmitter.event()
+                        .name(RESET_EVENT)
+                        .id(eventId(sequence.get()))
+                        .data("Missed events are no longer available, reload the order state"));
+            } else {
+                missed.forEach(stored -> subscriber.offer(toSse(stored)));
+            }
+            register(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * События после lastEventId, относящиеся к подписчику. Пустой список - догонять нечего,
+     * null - история не покрывает разрыв (или id от другого запуска).
+     */
+    List<StoredEvent> eventsAfter(String lastEventId, OrderStatusSubscriber subscriber) {
+        if (!StringUtils.hasText(lastEventId)) {
+            return List.of();
+        }
+        long lastSeq;
+        try {
+            int separator = lastEventId.lastIndexOf('-');
+            if (separator < 0 || !streamId.equals(lastEventId.substring(0, separator))) {
+                return null;
+            }
+            lastSeq = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (lastSeq > sequence.get()) {
+            return null;
+        }
+        StoredEvent oldest = history.peekFirst();
+        if (oldest != null && lastSeq < oldest.sequence() - 1) {
+            return null;
+        }
+        return history.stream()
+                .filter(stored -> stored.sequence() > lastSeq)
+                .filter(stored -> matches(subscriber, stored.event()))
+                .toList();
+    }
+
+    String lastEventId() {
+        return eventId(sequence.get());
+    }
+
+    int connectionCount() {
+        return byOrder.values().stream().mapToInt(Set::size).sum()
+                + byUser.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void deliver(OrderStatusSubscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.offer(event)) {
+            schedule(subscriber);
+        } else if (!subscriber.isClosed()) {
+            log.warn("SSE buffer overflow for order {} / user {}, closing connection",
+                    subscriber.orderId(), subscriber.userId());
+            droppedCounter.increment();
+            close(subscriber);
+        }
+    }
+
+    // Для каждого подключения в пуле работает не больше одной задачи отправки - порядок событий сохраняется
+    private void schedule(OrderStatusSubscriber subscriber) {
+        if (subscriber.draining().compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining().set(false);
+            }
+        }
+    }
+
+    private void drain(OrderStatusSubscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.isClosed() && (event = subscriber.buffer().poll()) != null) {
+                subscriber.emitter().send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Клиент отключился - контейнер сам завершит запрос
+            log.debug("SSE send failed for order {} / user {}: {}",
+                    subscriber.orderId(), subscriber.userId(), e.getMessage());
+            subscriber.markClosed();
+            remove(subscriber);
+        } finally {
+            subscriber.draining().set(false);
+            if (!subscriber.isClosed() && !subscriber.buffer().isEmpty()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        allSubscribers().forEach(subscriber -> deliver(subscriber, SseEmitter.event().comment("heartbeat")));
+    }
+
+    private void close(OrderStatusSubscriber subscriber) {
+        subscriber.markClosed();
+        remove(subscriber);
+        try {
+            subscriber.emitter().complete();
+        } catch (Exception e) {
+            log.debug("Failed to complete SSE emitter: {}", e.getMessage());
+        }
+    }
+
+    private void register(OrderStatusSubscriber subscriber) {
+        if (subscriber.orderId() != null) {
+            add(byOrder, subscriber.orderId(), subscriber);
+        } else {
+            add(byUser, subscriber.userId(), subscriber);
+        }
+    }
+
+    private void remove(OrderStatusSubscriber subscriber) {
+        Map<Long, Set<OrderStatusSubscriber>> index = subscriber.orderId() != null ? byOrder : byUser;
+        Long key = subscriber.orderId() != null ? subscriber.orderId() : subscriber.userId();
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static void add(Map<Long, Set<OrderStatusSubscriber>> index, Long key, OrderStatusSubscriber subscriber) {
+        index.compute(key, (k, subscribers) -> {
+            Set<OrderStatusSubscriber> result = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+    }
+
+    private List<OrderStatusSubscriber> allSubscribers() {
+        List<OrderStatusSubscriber> all = new ArrayList<>();
+        byOrder.values().forEach(all::addAll);
+        byUser.values().forEach(all::addAll);
+        return all;
+    }
+
+    private static boolean matches(OrderStatusSubscriber subscriber, OrderStatusEvent event) {
+        return subscriber.orderId() != null
+                ? subscriber.orderId().equals(event.orderId())
+                : subscriber.userId().equals(event.userId());
+    }
+
+    private SseEmitter.SseEventBuilder toSse(StoredEvent stored) {
+        return SseEmitter.event()
+                .id(stored.id())
+                .name(STATUS_EVENT)
+                .data(stored.event(), MediaType.APPLICATION_JSON);
+    }
+
+    private String eventId(long seq) {
+        return streamId + "-" + seq;
+    }
+}
@@ -0,0 +1,61 @@
+package com.stoliar.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Одно SSE-подключение: на заказ (orderId) или на все заказы пользователя (userId).
+ * События копятся в ограниченном буфере и отправляются одним потоком за раз.
+ */
+class OrderStatusSubscriber {
+
+    private final SseEmitter emitter;
+    private final Long orderId;
+    private final Long userId;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    OrderStatusSubscriber(SseEmitter emitter, Long orderId, Long userId, int bufferSize) {
+        this.emitter = emitter;
+        this.orderId = orderId;
+        this.userId = userId;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    Long orderId() {
+        return orderId;
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    BlockingQueue<SseEmitter.SseEventBuilder> buffer() {
+        return buffer;
+    }
+
+    AtomicBoolean draining() {
+        return draining;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void markClosed() {
+        closed = true;
+    }
+
+    // false - буфер переполнен (клиент не успевает читать)
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        return !closed && buffer.offer(event);
+    }
+}
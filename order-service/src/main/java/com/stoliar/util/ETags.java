@@ -0,0 +1,55 @@
+package com.stoliar.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Сильные ETag, которые считаются по id и updatedAt без сериализации тела ответа.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    // null - валидатор построить нельзя (нет id или updatedAt), ответ уходит без ETag
+    public static String of(String type, Long id, LocalDateTime updatedAt) {
+        if (id == null || updatedAt == null) {
+            return null;
+        }
+        return "\"" + type + "-" + id + "-" + Long.toHexString(epochMicros(updatedAt)) + "\"";
+    }
+
+    // Для составных ответов (страница каталога): хэш от всего, что определяет тело
+    public static String digest(String type, Object... parts) {
+        StringBuilder source = new StringBuilder(type);
+        for (Object part : parts) {
+            source.append('|').append(part instanceof LocalDateTime time ? epochMicros(time) : part);
+        }
+        return "\"" + type + "-" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Проверяет If-None-Match. При совпадении выставляет 304, ETag и Cache-Control -
+     * контроллеру остается вернуть null, тело не загружается и не сериализуется.
+     */
+    public static boolean checkNotModified(ServletWebRequest request, String etag, CacheControl cacheControl) {
+        if (etag == null || !request.checkNotModified(etag)) {
+            return false;
+        }
+        if (cacheControl != null && request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return true;
+    }
+
+    // Точность - микросекунды, как у timestamp в PostgreSQL: значение до и после сохранения совпадает
+    private static long epochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
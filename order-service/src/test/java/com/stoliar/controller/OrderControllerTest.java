@@ -7,6 +7,7 @@ import com.stoliar.dto.order.OrderResponseDto;
 import com.stoliar.dto.orderItem.OrderItemCreateDto;
 import com.stoliar.entity.Order;
 import com.stoliar.service.OrderService;
+import com.stoliar.sse.OrderStatusBroadcaster;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -22,6 +23,8 @@ import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,6 +42,9 @@ public class OrderControllerTest {
     @MockitoBean
     private OrderService orderServiceImpl;
 
+    @MockitoBean
+    private OrderStatusBroadcaster orderStatusBroadcaster;
+
     @Test
     void createOrder_ValidRequest_ShouldReturnCreated() throws Exception {
         // Arrange
@@ -82,6 +88,21 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void getOrderById_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoadingOrder() throws Exception {
+        // Arrange
+        String etag = "\"order-1-5f3c\"";
+        when(orderServiceImpl.getOrderETag(1L)).thenReturn(etag);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/orders/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        verify(orderServiceImpl, never()).getOrderById(anyLong());
+    }
+
     @Test
     void getOrdersByUserId_ShouldReturnPaginatedResults() throws Exception {
         // Arrange
@@ -0,0 +1,146 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.Item;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level cache проверяется между транзакциями, поэтому тестовая транзакция отключена.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnableJpaAuditing
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemRepositoryIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    @DynamicPropertySource
+    static void datasourceProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findById_SecondLoad_ShouldBeServedFromSecondLevelCache() {
+        // Arrange
+        Long id = itemRepository.save(item("Cached item")).getId();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        // Act
+        itemRepository.findById(id);
+        itemRepository.findById(id);
+
+        // Assert
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAllCached_ShouldUseQueryCacheAndSeeNewItems() {
+        // Arrange
+        itemRepository.save(item("First"));
+        PageRequest pageable = PageRequest.of(0, 100, Sort.by("id"));
+        long before = itemRepository.findAllCached(pageable).getTotalElements();
+
+        // Act
+        Page<Item> cached = itemRepository.findAllCached(pageable);
+        itemRepository.save(item("Second"));
+        Page<Item> afterWrite = itemRepository.findAllCached(pageable);
+
+        // Assert
+        assertThat(cached.getTotalElements()).isEqualTo(before);
+        assertThat(statistics.getQueryCacheHitCount()).isPositive();
+        assertThat(afterWrite.getTotalElements()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void findByNamePrefix_ShouldReturnOnlyMatchingNamesInNameOrder() {
+        // Arrange
+        itemRepository.save(item("Laptop Pro"));
+        itemRepository.save(item("Laptop Air"));
+        itemRepository.save(item("Lamp"));
+        itemRepository.save(item("Lap_100%"));
+
+        // Act
+        Page<Item> result = itemRepository.findByNamePrefix("Lapt", "Lapu", "Lapt%",
+                PageRequest.of(0, 10, Sort.by("name").and(Sort.by("id"))));
+        Page<Item> escaped = itemRepository.findByNamePrefix("Lap_", "Laq", "Lap\\_%",
+                PageRequest.of(0, 10, Sort.by("name")));
+
+        // Assert
+        assertThat(result.getContent()).extracting(Item::getName)
+                .containsExactly("Laptop Air", "Laptop Pro");
+        assertThat(escaped.getContent()).extracting(Item::getName)
+                .containsExactly("Lap_100%");
+    }
+
+    @Test
+    void findByIdGreaterThan_ShouldReturnNextKeysetPage() {
+        // Arrange
+        Long first = itemRepository.save(item("Keyset 1")).getId();
+        Long second = itemRepository.save(item("Keyset 2")).getId();
+        Long third = itemRepository.save(item("Keyset 3")).getId();
+
+        // Act
+        List<Item> page = itemRepository.findByIdGreaterThanOrderByIdAsc(first, Limit.of(2));
+
+        // Assert
+        assertThat(page).extracting(Item::getId).containsExactly(second, third);
+    }
+
+    private Item item(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setPrice(10.0);
+        return item;
+    }
+}
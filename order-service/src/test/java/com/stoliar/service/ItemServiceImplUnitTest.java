@@ -0,0 +1,131 @@
+package com.stoliar.service;
+
+import com.stoliar.dto.item.ItemCursorPageDto;
+import com.stoliar.dto.item.ItemDto;
+import com.stoliar.entity.Item;
+import com.stoliar.mapper.ItemMapper;
+import com.stoliar.repository.ItemRepository;
+import com.stoliar.service.impl.ItemServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemServiceImplUnitTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemMapper itemMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ItemServiceImpl itemService;
+
+    @Test
+    void getItems_WithoutPrefix_ShouldUseCachedPage() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 20);
+        when(itemRepository.findAllCached(pageable)).thenReturn(new PageImpl<>(List.of(item(1L))));
+
+        // Act
+        Page<ItemDto> result = itemService.getItems(" ", pageable);
+
+        // Assert
+        assertEquals(1, result.getTotalElements());
+        verify(itemRepository, never()).findByNamePrefix(any(), any(), any(), any());
+    }
+
+    @Test
+    void getItems_WithPrefix_ShouldSearchIndexRangeWithEscapedPattern() {
+        // Arrange
+        when(itemRepository.findByNamePrefix(any(), any(), any(), any())).thenReturn(Page.empty());
+
+        // Act
+        itemService.getItems("Laz", PageRequest.of(0, 20));
+        itemService.getItems("50%_", PageRequest.of(0, 20));
+
+        // Assert - "z" не увеличивается до буквы, поэтому граница строится по предыдущему символу
+        verify(itemRepository).findByNamePrefix(eq("Laz"), eq("Lb"), eq("Laz%"), any());
+        verify(itemRepository).findByNamePrefix(eq("50%_"), eq("51"), eq("50\\%\\_%"), any());
+    }
+
+    @Test
+    void getItems_WithPrefixWithoutUpperBound_ShouldSearchFromLowerBoundOnly() {
+        // Arrange
+        when(itemRepository.findByNamePrefixFrom(any(), any(), any())).thenReturn(Page.empty());
+
+        // Act
+        itemService.getItems("zz", PageRequest.of(0, 20));
+
+        // Assert
+        verify(itemRepository).findByNamePrefixFrom(eq("zz"), eq("zz%"), any());
+    }
+
+    @Test
+    void getItemsAfter_ShouldFetchOneExtraRowToDetectNextPage() {
+        // Arrange
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(3)))
+                .thenReturn(new ArrayList<>(List.of(item(11L), item(12L), item(13L))));
+        when(itemMapper.toDtoList(anyList())).thenAnswer(inv -> inv.<List<Item>>getArgument(0).stream()
+                .map(i -> {
+                    ItemDto dto = new ItemDto();
+                    dto.setId(i.getId());
+                    return dto;
+                })
+                .toList());
+
+        // Act
+        ItemCursorPageDto page = itemService.getItemsAfter(10L, 2);
+
+        // Assert
+        assertTrue(page.isHasNext());
+        assertEquals(12L, page.getNextAfterId());
+        assertEquals(2, page.getContent().size());
+    }
+
+    @Test
+    void streamAllItems_ShouldPassEveryItemAndDetachIt() {
+        // Arrange
+        Item first = item(1L);
+        Item second = item(2L);
+        when(itemRepository.streamAllOrderedById()).thenReturn(Stream.of(first, second));
+        when(itemMapper.toDto(any(Item.class))).thenReturn(new ItemDto());
+        List<ItemDto> received = new ArrayList<>();
+
+        // Act
+        itemService.streamAllItems(received::add);
+
+        // Assert
+        assertEquals(2, received.size());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    private Item item(Long id) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Item " + id);
+        item.setPrice(10.0);
+        return item;
+    }
+}
@@ -3,6 +3,7 @@ package com.stoliar.service;
 import com.stoliar.client.UserServiceClient;
 import com.stoliar.dto.order.OrderCreateDto;
 import com.stoliar.dto.order.OrderResponseDto;
+import com.stoliar.dto.order.OrderStatusEvent;
 import com.stoliar.dto.order.OrderUpdateDto;
 import com.stoliar.dto.orderItem.OrderItemCreateDto;
 import com.stoliar.dto.orderItem.OrderItemDto;
@@ -26,6 +27,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -66,6 +68,9 @@ class OrderServiceImplUnitTest {
     @Mock
     private UserServiceClient userServiceClient;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderServiceImpl orderServiceImpl;
 
@@ -388,6 +393,9 @@ class OrderServiceImplUnitTest {
         assertNotNull(result);
         assertEquals(Order.OrderStatus.CONFIRMED, result.getStatus());
         verify(orderRepository, times(1)).save(testOrder);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof OrderStatusEvent e
+                && e.previousStatus() == Order.OrderStatus.PENDING
+                && e.status() == Order.OrderStatus.CONFIRMED));
     }
 
     @Test
@@ -0,0 +1,90 @@
+package com.stoliar.sse;
+
+import com.stoliar.dto.order.OrderStatusEvent;
+import com.stoliar.entity.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusBroadcasterTest {
+
+    private OrderStatusBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new OrderStatusBroadcaster(Duration.ofMinutes(1), 10, 3, Duration.ofSeconds(15), 1,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void eventsAfter_ShouldReturnOnlyMissedEventsOfSubscribedOrder() {
+        // Arrange
+        broadcaster.onStatusChanged(event(1L, 10L, Order.OrderStatus.CONFIRMED));
+        String lastSeen = broadcaster.lastEventId();
+        broadcaster.onStatusChanged(event(2L, 10L, Order.OrderStatus.CONFIRMED));
+        broadcaster.onStatusChanged(event(1L, 10L, Order.OrderStatus.SHIPPED));
+
+        // Act
+        List<OrderStatusBroadcaster.StoredEvent> forOrder = broadcaster.eventsAfter(lastSeen, orderSubscriber(1L));
+        List<OrderStatusBroadcaster.StoredEvent> forUser = broadcaster.eventsAfter(lastSeen, userSubscriber(10L));
+
+        // Assert
+        assertThat(forOrder).extracting(stored -> stored.event().status())
+                .containsExactly(Order.OrderStatus.SHIPPED);
+        assertThat(forUser).hasSize(2);
+    }
+
+    @Test
+    void eventsAfter_WhenGapIsOutsideHistory_ShouldRequestReset() {
+        // Arrange - история хранит 3 события, первое вытесняется
+        broadcaster.onStatusChanged(event(1L, 10L, Order.OrderStatus.CONFIRMED));
+        String lastSeen = broadcaster.lastEventId();
+        for (int i = 0; i < 4; i++) {
+            broadcaster.onStatusChanged(event(1L, 10L, Order.OrderStatus.SHIPPED));
+        }
+
+        // Act & Assert
+        assertThat(broadcaster.eventsAfter(lastSeen, orderSubscriber(1L))).isNull();
+    }
+
+    @Test
+    void eventsAfter_WithIdFromAnotherRun_ShouldRequestReset() {
+        assertThat(broadcaster.eventsAfter("previous-42", orderSubscriber(1L))).isNull();
+        assertThat(broadcaster.eventsAfter(null, orderSubscriber(1L))).isEmpty();
+    }
+
+    @Test
+    void subscribe_ShouldRegisterConnection() {
+        // Act
+        broadcaster.subscribeToOrder(1L, null);
+        broadcaster.subscribeToUser(10L, null);
+
+        // Assert
+        assertThat(broadcaster.connectionCount()).isEqualTo(2);
+    }
+
+    private OrderStatusEvent event(Long orderId, Long userId, Order.OrderStatus status) {
+        return new OrderStatusEvent(orderId, userId, Order.OrderStatus.PENDING, status, LocalDateTime.now());
+    }
+
+    private OrderStatusSubscriber orderSubscriber(Long orderId) {
+        return new OrderStatusSubscriber(new SseEmitter(), orderId, null, 10);
+    }
+
+    private OrderStatusSubscriber userSubscriber(Long userId) {
+        return new OrderStatusSubscriber(new SseEmitter(), null, userId, 10);
+    }
+}
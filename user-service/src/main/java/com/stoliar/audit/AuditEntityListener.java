@@ -0,0 +1,113 @@
+package com.stoliar.audit;
+
+import com.stoliar.entity.PaymentCard;
+import com.stoliar.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Снимает изменения User и PaymentCard при flush и передает их в AuditTrail.
+ * Нативные вставки (createUser, createCardIfAllowed) сюда не попадают - их фиксируют сервисы.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditEntityListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditTrail auditTrail;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getEntity(), AuditOperation.CREATE,
+                snapshot(event.getPersister(), event.getState(), null, null));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Map<String, Object> changes = snapshot(event.getPersister(), event.getState(), event.getOldState(),
+                event.getDirtyProperties());
+        if (!changes.isEmpty()) {
+            record(event.getEntity(), AuditOperation.UPDATE, changes);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getEntity(), AuditOperation.DELETE,
+                snapshot(event.getPersister(), event.getDeletedState(), null, null));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(Object entity, AuditOperation operation, Map<String, Object> changes) {
+        if (entity instanceof User user) {
+            auditTrail.record(User.class.getSimpleName(), user.getId(), user.getId(), operation, changes);
+        } else if (entity instanceof PaymentCard card) {
+            auditTrail.record(PaymentCard.class.getSimpleName(), card.getId(), card.getUser().getId(),
+                    operation, changes);
+        }
+    }
+
+    // Для UPDATE - только измененные поля; связи и коллекции не сохраняются
+    private Map<String, Object> snapshot(EntityPersister persister, Object[] state, Object[] oldState,
+                                         int[] dirtyProperties) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (state == null) {
+            return changes;
+        }
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        int[] properties = dirtyProperties != null ? dirtyProperties : allProperties(names.length);
+        for (int i : properties) {
+            if (types[i].isEntityType() || types[i].isCollectionType()) {
+                continue;
+            }
+            if (oldState != null) {
+                Map<String, Object> change = new LinkedHashMap<>();
+                change.put("old", AuditTrail.mask(names[i], oldState[i]));
+                change.put("new", AuditTrail.mask(names[i], state[i]));
+                changes.put(names[i], change);
+            } else {
+                changes.put(names[i], AuditTrail.mask(names[i], state[i]));
+            }
+        }
+        return changes;
+    }
+
+    private static int[] allProperties(int count) {
+        int[] properties = new int[count];
+        for (int i = 0; i < count; i++) {
+            properties[i] = i;
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,10 @@
+package com.stoliar.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Изменение сущности, зафиксированное в транзакции. changes - JSON-снимок измененных полей.
+ */
+public record AuditEvent(String entityType, Long entityId, Long userId, AuditOperation operation,
+                         String changes, LocalDateTime changedAt) {
+}
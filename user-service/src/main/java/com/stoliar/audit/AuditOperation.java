@@ -0,0 +1,7 @@
+package com.stoliar.audit;
+
+public enum AuditOperation {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,75 @@
+package com.stoliar.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Точка фиксации изменений для аудита. Снимок делается в транзакции,
+ * а в очередь AuditWriter события уходят только после коммита - откаченные изменения не попадают в историю.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditTrail {
+
+    private final AuditWriter auditWriter;
+    private final ObjectMapper objectMapper;
+
+    public void record(String entityType, Long entityId, Long userId, AuditOperation operation,
+                       Map<String, Object> changes) {
+        AuditEvent event = new AuditEvent(entityType, entityId, userId, operation, toJson(changes),
+                LocalDateTime.now());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            auditWriter.enqueue(List.of(event));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<AuditEvent> pending = (List<AuditEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<AuditEvent> buffer = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditWriter.enqueue(buffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditTrail.this);
+                }
+            });
+            pending = buffer;
+        }
+        pending.add(event);
+    }
+
+    // Номер карты в истории хранится только последними цифрами
+    public static Object mask(String property, Object value) {
+        if ("number".equals(property) && value instanceof String number && number.length() > 4) {
+            return "*".repeat(number.length() - 4) + number.substring(number.length() - 4);
+        }
+        return value;
+    }
+
+    private String toJson(Map<String, Object> changes) {
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize audit changes: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.stoliar.audit;
+
+import com.stoliar.config.AuditProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновая запись аудита: события из ограниченной очереди вставляются пачками одним batch-запросом.
+ */
+@Slf4j
+@Component
+public class AuditWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_log (entity_type, entity_id, user_id, operation, changes, changed_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final AuditProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuditEvent> queue;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AuditWriter(AuditProperties properties, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        this.writtenCounter = Counter.builder("audit.events.written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("audit.events.dropped")
+                .description("Audit events dropped because the queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("audit.events.failed")
+                .description("Audit events lost because the batch insert failed")
+                .register(meterRegistry);
+        Gauge.builder("audit.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "audit-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Дописываем накопленное перед остановкой
+        running = false;
+        worker.interrupt();
+        worker.join(properties.getFlushInterval().toMillis() * 4);
+    }
+
+    public void enqueue(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            if (!queue.offer(event)) {
+                droppedCounter.increment();
+                log.warn("Audit queue is full, dropping {} event for {} id: {}",
+                        event.operation(), event.entityType(), event.entityId());
+            }
+        }
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Прерывание - сигнал остановки, оставшиеся события дописываются без ожидания
+                running = false;
+            }
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<AuditEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, event) -> {
+                statement.setString(1, event.entityType());
+                statement.setLong(2, event.entityId());
+                statement.setLong(3, event.userId());
+                statement.setString(4, event.operation().name());
+                statement.setString(5, event.changes());
+                statement.setTimestamp(6, Timestamp.valueOf(event.changedAt()));
+            });
+            writtenCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} audit events: {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.stoliar.cache;
+
+import com.stoliar.config.RedisConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сервис остается UP без Redis - данные есть в PostgreSQL.
+ * Деградация видна в деталях: mode = degraded, пока breaker не закрыт.
+ */
+@Component("cache")
+@Profile("!integration-test")
+@RequiredArgsConstructor
+public class CacheHealthIndicator implements HealthIndicator {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Override
+    public Health health() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(RedisConfig.CACHE_CIRCUIT_BREAKER);
+        CircuitBreaker.State state = circuitBreaker.getState();
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+
+        return Health.up()
+                .withDetail("mode", state == CircuitBreaker.State.CLOSED ? "normal" : "degraded")
+                .withDetail("circuitBreakerState", state.name())
+                .withDetail("failureRate", metrics.getFailureRate())
+                .withDetail("slowCallRate", metrics.getSlowCallRate())
+                .withDetail("notPermittedCalls", metrics.getNumberOfNotPermittedCalls())
+                .build();
+    }
+}
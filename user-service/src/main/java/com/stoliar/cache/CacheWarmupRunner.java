@@ -0,0 +1,139 @@
+package com.stoliar.cache;
+
+import com.stoliar.config.CacheWarmupProperties;
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.entity.User;
+import com.stoliar.mapper.PaymentCardMapper;
+import com.stoliar.mapper.UserMapper;
+import com.stoliar.repository.PaymentCardRepository;
+import com.stoliar.repository.UserRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Прогрев кэшей users, userCards и paymentCards после старта.
+ * ApplicationRunner выполняется до перехода readiness в ACCEPTING_TRAFFIC,
+ * поэтому трафик приходит на инстанс уже с заполненным кэшем.
+ */
+@Slf4j
+@Component
+@Profile("!integration-test")
+@ConditionalOnProperty(prefix = "app.cache.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    private final CacheWarmupProperties properties;
+    private final UserRepository userRepository;
+    private final PaymentCardRepository paymentCardRepository;
+    private final UserMapper userMapper;
+    private final PaymentCardMapper paymentCardMapper;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger targetUsers = new AtomicInteger(-1); // -1 - список еще не загружен
+    private final AtomicInteger warmedUsers = new AtomicInteger();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Gauge.builder("cache.warmup.progress", this, CacheWarmupRunner::progress)
+                .description("Share of users loaded into the cache during warm-up (0..1)")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.users", warmedUsers, AtomicInteger::get)
+                .description("Users loaded into the cache during warm-up")
+                .register(meterRegistry);
+
+        if (isCacheUnavailable()) {
+            log.warn("Cache warm-up skipped: Redis circuit breaker is open");
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        List<Long> userIds = userRepository.findRecentlyActiveUserIds(PageRequest.of(0, properties.getUserCount()));
+        targetUsers.set(userIds.size());
+        log.info("Cache warm-up started for {} users", userIds.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int from = 0; from < userIds.size(); from += properties.getBatchSize()) {
+                List<Long> batch = userIds.subList(from, Math.min(from + properties.getBatchSize(), userIds.size()));
+                executor.submit(() -> warmUpBatch(batch));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Cache warm-up timed out after {}", properties.getTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Cache warm-up finished: {} of {} users in {} ms",
+                warmedUsers.get(), userIds.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    void warmUpBatch(List<Long> userIds) {
+        if (Thread.currentThread().isInterrupted() || isCacheUnavailable()) {
+            return;
+        }
+        try {
+            // Два запроса на пачку: пользователи и все их карты
+            List<User> users = userRepository.findAllById(userIds);
+            Map<Long, List<PaymentCardDTO>> cardsByUser = paymentCardMapper
+                    .toDTOList(paymentCardRepository.findAllByUserIdIn(userIds)).stream()
+                    .collect(Collectors.groupingBy(PaymentCardDTO::getUserId));
+
+            Cache usersCache = cacheManager.getCache("users");
+            Cache cardsCache = cacheManager.getCache("paymentCards");
+            Cache userCardsCache = cacheManager.getCache(UserCardsCache.CACHE_NAME);
+
+            for (User user : users) {
+                // putIfAbsent: не затираем значение, записанное другим инстансом после нашего чтения
+                usersCache.putIfAbsent(user.getId(), userMapper.toDTO(user));
+                List<PaymentCardDTO> cards = cardsByUser.getOrDefault(user.getId(), new ArrayList<>());
+                userCardsCache.putIfAbsent(user.getId(), cards);
+                cards.forEach(card -> cardsCache.putIfAbsent(card.getId(), card));
+                warmedUsers.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up batch of {} users failed: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    double progress() {
+        int target = targetUsers.get();
+        if (target < 0) {
+            return 0.0;
+        }
+        return target == 0 ? 1.0 : (double) warmedUsers.get() / target;
+    }
+
+    private boolean isCacheUnavailable() {
+        return cacheManager instanceof ResilientCacheManager resilientCacheManager
+                && resilientCacheManager.getCircuitBreaker().getState() == CircuitBreaker.State.OPEN;
+    }
+}
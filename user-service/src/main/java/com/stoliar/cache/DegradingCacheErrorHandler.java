@@ -0,0 +1,58 @@
+package com.stoliar.cache;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+
+/**
+ * Не дает ошибкам Redis доходить до клиента: промах кэша вместо 500.
+ * Каждая ошибка учитывается в метрике cache.errors (cache, operation, reason).
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DegradingCacheErrorHandler implements CacheErrorHandler {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        handle("get", exception, cache, key);
+    }
+
+    @Override
+    public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+        handle("put", exception, cache, key);
+    }
+
+    @Override
+    public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+        handle("evict", exception, cache, key);
+    }
+
+    @Override
+    public void handleCacheClearError(RuntimeException exception, Cache cache) {
+        handle("clear", exception, cache, null);
+    }
+
+    private void handle(String operation, RuntimeException exception, Cache cache, Object key) {
+        boolean bypassed = exception instanceof CallNotPermittedException;
+
+        Counter.builder("cache.errors")
+                .description("Cache operations skipped because of Redis errors or an open circuit breaker")
+                .tag("cache", cache.getName())
+                .tag("operation", operation)
+                .tag("reason", bypassed ? "circuit_open" : "redis_error")
+                .register(meterRegistry)
+                .increment();
+
+        if (bypassed) {
+            log.debug("Cache {} bypassed for {} key {}: circuit breaker is open", cache.getName(), operation, key);
+        } else {
+            log.warn("Cache {} {} failed for key {}: {}", cache.getName(), operation, key, exception.getMessage());
+        }
+    }
+}
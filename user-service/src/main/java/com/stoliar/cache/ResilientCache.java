@@ -0,0 +1,96 @@
+package com.stoliar.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Декоратор над Redis-кэшем: каждая операция проходит через circuit breaker.
+ * Когда breaker открыт, операции мгновенно падают с CallNotPermittedException,
+ * а CacheErrorHandler превращает это в промах кэша - запрос уходит в PostgreSQL.
+ */
+@RequiredArgsConstructor
+public class ResilientCache implements Cache {
+
+    private final Cache delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return circuitBreaker.executeSupplier(() -> delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return circuitBreaker.executeSupplier(() -> delegate.get(key, type));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Для sync = true Spring не вызывает CacheErrorHandler, поэтому ошибки Redis гасим здесь.
+        // Загрузчик вызываем вне breaker'а, чтобы ошибки БД не открывали его.
+        try {
+            ValueWrapper cached = get(key);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+        } catch (RuntimeException ignored) {
+            // кэш недоступен - идем в источник
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        try {
+            put(key, value);
+        } catch (RuntimeException ignored) {
+            // значение все равно возвращаем
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        circuitBreaker.executeRunnable(() -> delegate.put(key, value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return circuitBreaker.executeSupplier(() -> delegate.putIfAbsent(key, value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        circuitBreaker.executeRunnable(() -> delegate.evict(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return circuitBreaker.executeSupplier(() -> delegate.evictIfPresent(key));
+    }
+
+    @Override
+    public void clear() {
+        circuitBreaker.executeRunnable(delegate::clear);
+    }
+
+    @Override
+    public boolean invalidate() {
+        return circuitBreaker.executeSupplier(delegate::invalidate);
+    }
+}
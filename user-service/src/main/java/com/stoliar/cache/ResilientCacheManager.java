@@ -0,0 +1,44 @@
+package com.stoliar.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Оборачивает кэши делегата в {@link ResilientCache} с общим circuit breaker'ом:
+ * все кэши живут в одном Redis, и его недоступность затрагивает их одинаково.
+ */
+@RequiredArgsConstructor
+public class ResilientCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new ResilientCache(target, circuitBreaker));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,110 @@
+package com.stoliar.cache;
+
+import com.stoliar.config.RevocationProperties;
+import com.stoliar.dto.RevocationSnapshotDTO;
+import com.stoliar.util.BloomFilter;
+import com.stoliar.util.JwtPrincipal;
+import com.stoliar.util.RevocationSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Локальная копия снимка отзывов auth-service (GET /api/v1/auth/revocations).
+ * Обновляется по расписанию с If-None-Match; проверка токена - O(1) в памяти, без сетевых вызовов.
+ * При недоступности auth-service остается последний полученный снимок.
+ */
+@Slf4j
+@Component
+public class TokenRevocationCache {
+
+    private final RestClient restClient;
+    private final RevocationProperties properties;
+    private final Counter rejectedCounter;
+
+    private volatile RevocationSnapshot snapshot = RevocationSnapshot.empty();
+    private volatile String etag;
+
+    public TokenRevocationCache(RestClient.Builder restClientBuilder,
+                                RevocationProperties properties,
+                                MeterRegistry meterRegistry) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getTimeout());
+        requestFactory.setReadTimeout(properties.getTimeout());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.properties = properties;
+        this.rejectedCounter = Counter.builder("jwt.revoked.rejected")
+                .description("Tokens rejected because they were revoked in auth-service")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revoked.snapshot.version", this, cache -> cache.snapshot.version())
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        boolean revoked = snapshot.isRevoked(principal);
+        if (revoked) {
+            rejectedCounter.increment();
+        }
+        return revoked;
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocation.refresh-interval:5s}")
+    public void refresh() {
+        try {
+            String currentEtag = etag;
+            ResponseEntity<RevocationSnapshotDTO> response = restClient.get()
+                    .uri(properties.getSnapshotUrl())
+                    .headers(headers -> {
+                        if (currentEtag != null) {
+                            headers.set(HttpHeaders.IF_NONE_MATCH, currentEtag);
+                        }
+                    })
+                    .retrieve()
+                    .toEntity(RevocationSnapshotDTO.class);
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) || response.getBody() == null) {
+                return;
+            }
+            apply(response.getBody(), response.getHeaders().getETag());
+        } catch (Exception e) {
+            log.warn("Failed to refresh revocation snapshot: {}", e.getMessage());
+        }
+    }
+
+    void apply(RevocationSnapshotDTO body, String newEtag) {
+        snapshot = toSnapshot(body);
+        etag = newEtag;
+        log.debug("Revocation snapshot {} applied: {} tokens, {} users", body.getVersion(),
+                snapshot.revokedTokenIds().size(), snapshot.userCutoffs().size());
+    }
+
+    static RevocationSnapshot toSnapshot(RevocationSnapshotDTO body) {
+        BloomFilter filter = null;
+        if (BloomFilter.HASH_ALGORITHM.equals(body.getHashAlgorithm()) && body.getBloomBits() != null) {
+            byte[] bytes = Base64.getDecoder().decode(body.getBloomBits());
+            long[] words = new long[bytes.length / Long.BYTES];
+            ByteBuffer.wrap(bytes).asLongBuffer().get(words);
+            filter = BloomFilter.fromWords(words, body.getBloomBitSize(), body.getBloomHashFunctions());
+        } else {
+            // Фильтр посчитан незнакомым алгоритмом - проверяем только точное множество
+            log.warn("Unsupported revocation filter algorithm: {}", body.getHashAlgorithm());
+        }
+        return new RevocationSnapshot(
+                body.getVersion(),
+                filter,
+                body.getRevokedTokenIds() != null ? Set.copyOf(body.getRevokedTokenIds()) : Set.of(),
+                body.getUserCutoffs() != null ? Map.copyOf(body.getUserCutoffs()) : Map.of());
+    }
+}
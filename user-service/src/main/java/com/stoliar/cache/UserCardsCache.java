@@ -0,0 +1,35 @@
+package com.stoliar.cache;
+
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.mapper.PaymentCardMapper;
+import com.stoliar.repository.PaymentCardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Список карт пользователя в кэше userCards (ключ - userId).
+ * Вынесен в отдельный бин, чтобы @Cacheable срабатывал и при вызове из PaymentCardServiceImpl.
+ * Инвалидация - в методах записи PaymentCardServiceImpl.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCardsCache {
+
+    public static final String CACHE_NAME = "userCards";
+
+    private final PaymentCardRepository paymentCardRepository;
+    private final PaymentCardMapper paymentCardMapper;
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = CACHE_NAME, key = "#userId")
+    public List<PaymentCardDTO> getCards(Long userId) {
+        log.debug("Loading cards of user id: {} from database", userId);
+        return paymentCardMapper.toDTOList(paymentCardRepository.findAllByUserId(userId));
+    }
+}
@@ -0,0 +1,52 @@
+package com.stoliar.cache;
+
+import com.stoliar.dto.UserDTO;
+import com.stoliar.entity.User;
+import com.stoliar.exception.EntityNotFoundException;
+import com.stoliar.mapper.UserMapper;
+import com.stoliar.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Поиск пользователя по email через вторичный кэш userEmails (email -> id).
+ * Сам пользователь берется из кэша users по id - записи общие с UserServiceImpl.getUserById.
+ * Вынесен в отдельный бин, чтобы @Cacheable срабатывал при вызове из UserServiceImpl.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserEmailLookup {
+
+    public static final String CACHE_NAME = "userEmails";
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = CACHE_NAME, key = "#email", unless = "#result == null")
+    public Long findUserId(String email) {
+        log.debug("Resolving user id by email from database");
+        return userRepository.findIdByEmail(email).orElse(null);
+    }
+
+    // Тот же кэш и ключ, что у UserServiceImpl.getUserById
+    @Transactional(readOnly = true)
+    @Cacheable(value = "users", key = "#id")
+    public UserDTO getUser(Long id) {
+        User user = userRepository.findUserById(id);
+        if (user == null) {
+            throw new EntityNotFoundException("User not found with id: " + id);
+        }
+        return userMapper.toDTO(user);
+    }
+
+    @CacheEvict(value = CACHE_NAME, key = "#email")
+    public void evict(String email) {
+        log.debug("Evicting email mapping from cache");
+    }
+}
@@ -0,0 +1,102 @@
+package com.stoliar.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.stoliar.config.JwtProperties;
+import com.stoliar.util.JwtPrincipal;
+import com.stoliar.util.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Локальный кэш недавно проверенных JWT: повторный запрос с тем же токеном не проверяет подпись заново.
+ * Ключ - SHA-256 токена (сами токены в памяти не храним), запись живет не дольше exp токена.
+ * Невалидные токены не кэшируются. Отзыв проверяется на каждом запросе, в том числе при попадании в кэш.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final Cache<String, JwtPrincipal> cache;
+
+    public VerifiedTokenCache(JwtTokenProvider jwtTokenProvider,
+                              TokenRevocationCache tokenRevocationCache,
+                              JwtProperties jwtProperties,
+                              MeterRegistry meterRegistry) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.tokenRevocationCache = tokenRevocationCache;
+        long maxTtlNanos = jwtProperties.getVerifiedCacheMaxTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getVerifiedCacheSize())
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                        return ttlNanos(principal, maxTtlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime,
+                                                  long currentDuration) {
+                        return ttlNanos(principal, maxTtlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtPrincipal principal, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtVerified");
+    }
+
+    public Optional<JwtPrincipal> verify(String token) {
+        String key = hash(token);
+        JwtPrincipal cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (tokenRevocationCache.isRevoked(cached)) {
+                cache.invalidate(key);
+                return Optional.empty();
+            }
+            return Optional.of(cached);
+        }
+
+        Optional<JwtPrincipal> principal = jwtTokenProvider.verify(token);
+        if (principal.isPresent() && tokenRevocationCache.isRevoked(principal.get())) {
+            return Optional.empty();
+        }
+        principal.ifPresent(p -> cache.put(key, p));
+        return principal;
+    }
+
+    private static long ttlNanos(JwtPrincipal principal, long maxTtlNanos) {
+        if (principal.expiresAt() == null) {
+            return maxTtlNanos;
+        }
+        long untilExpiry = Duration.between(Instant.now(), principal.expiresAt()).toNanos();
+        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
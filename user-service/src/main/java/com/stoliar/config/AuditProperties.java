@@ -0,0 +1,18 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.audit")
+@Data
+public class AuditProperties {
+    // При переполнении очереди события отбрасываются, запросы не ждут запись аудита
+    private int queueCapacity = 10000;
+    private int batchSize = 200;
+    // Максимальная задержка записи неполной пачки
+    private Duration flushInterval = Duration.ofMillis(500);
+}
@@ -0,0 +1,22 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.cache.warmup")
+@Data
+public class CacheWarmupProperties {
+    private boolean enabled = true;
+    // Сколько недавно активных пользователей загрузить в кэш
+    private int userCount = 1000;
+    // Пользователей на один запрос к БД
+    private int batchSize = 100;
+    // Одновременно выполняемых пачек - ограничивает нагрузку на БД
+    private int concurrency = 2;
+    // Дольше не задерживаем готовность инстанса, остаток догреется запросами
+    private Duration timeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,21 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.cards.expiration-sweep")
+@Data
+public class CardExpirationSweepProperties {
+    private boolean enabled = true;
+    private String cron = "0 5 0 * * *";
+    // Карт в одной транзакции - ограничивает время блокировок
+    private int batchSize = 500;
+    // Пауза между пачками, чтобы проход не забирал ресурсы БД у запросов
+    private Duration pauseBetweenBatches = Duration.ofMillis(200);
+    // Остаток обработается следующим запуском
+    private int maxBatchesPerRun = 200;
+}
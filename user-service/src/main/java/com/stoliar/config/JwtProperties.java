@@ -4,9 +4,14 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties(prefix = "app.jwt")
 @Data
 public class JwtProperties {
     private String secret;
+    // Кэш проверенных токенов: размер и верхняя граница жизни записи (не дольше exp токена)
+    private int verifiedCacheSize = 10000;
+    private Duration verifiedCacheMaxTtl = Duration.ofMinutes(15);
 }
\ No newline at end of file
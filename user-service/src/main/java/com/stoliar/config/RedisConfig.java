@@ -1,9 +1,20 @@
 package com.stoliar.config;
 
+import com.stoliar.cache.DegradingCacheErrorHandler;
+import com.stoliar.cache.ResilientCacheManager;
+import com.stoliar.cache.UserCardsCache;
+import com.stoliar.cache.UserEmailLookup;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -15,12 +26,19 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
-@EnableCaching
+// Кэш снаружи транзакции: put/evict выполняются после коммита, а попадание в кэш не открывает транзакцию
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @Profile("!integration-test")
-public class RedisConfig {
+@RequiredArgsConstructor
+public class RedisConfig implements CachingConfigurer {
+
+    public static final String CACHE_CIRCUIT_BREAKER = "redisCache";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final MeterRegistry meterRegistry;
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
         // Используем JdkSerializationRedisSerializer вместо Jackson
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30))
@@ -36,12 +54,27 @@ public class RedisConfig {
         // Кэш пользователей - дольше живет
         cacheConfigurations.put("users", defaultConfig.entryTtl(Duration.ofMinutes(60)));
 
+        // Email -> id, сами пользователи лежат в users
+        cacheConfigurations.put(UserEmailLookup.CACHE_NAME, defaultConfig.entryTtl(Duration.ofMinutes(60)));
+
         // Кэш карт - меньше живет
         cacheConfigurations.put("paymentCards", defaultConfig.entryTtl(Duration.ofMinutes(30)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // Списки карт по пользователю
+        cacheConfigurations.put(UserCardsCache.CACHE_NAME, defaultConfig.entryTtl(Duration.ofMinutes(30)));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
+
+        // При проблемах с Redis кэш обходится, запросы идут напрямую в БД
+        return new ResilientCacheManager(redisCacheManager,
+                circuitBreakerRegistry.circuitBreaker(CACHE_CIRCUIT_BREAKER));
+    }
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new DegradingCacheErrorHandler(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.revocation")
+@Data
+public class RevocationProperties {
+    private String snapshotUrl = "http://auth-service:8081/api/v1/auth/revocations";
+    // Задержка, с которой отзыв в auth-service начинает действовать в user-service
+    private Duration refreshInterval = Duration.ofSeconds(5);
+    private Duration timeout = Duration.ofSeconds(2);
+}
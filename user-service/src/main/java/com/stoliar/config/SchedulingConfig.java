@@ -0,0 +1,11 @@
+package com.stoliar.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@Profile("!integration-test")
+public class SchedulingConfig {
+}
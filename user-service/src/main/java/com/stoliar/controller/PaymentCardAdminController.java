@@ -0,0 +1,52 @@
+package com.stoliar.controller;
+
+import com.stoliar.dto.CursorPageDTO;
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.pagination.PaymentCardSortField;
+import com.stoliar.response.ApiResponse;
+import com.stoliar.service.PaymentCardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+// Под /api/v1/users - единственный префикс, который шлюз маршрутизирует в user-service
+@RequestMapping("/api/v1/users/payment-cards")
+@Slf4j
+@RequiredArgsConstructor
+@Tag(name = "Payment Card Administration", description = "APIs for browsing payment cards of all users")
+public class PaymentCardAdminController {
+
+    private final PaymentCardService paymentCardService;
+
+    @Operation(summary = "Get all payment cards by cursor",
+            description = "Retrieve payment cards of all users using keyset pagination (ADMIN only). "
+                    + "Pass nextCursor from the previous response to get the next page")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Payment cards retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor or sort field")
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPageDTO<PaymentCardDTO>>> getAllCardsByCursor(
+            @Parameter(description = "Cursor from the previous page (empty for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50)") @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Sort by field: id, createdAt, expirationDate (default: createdAt)") @RequestParam(defaultValue = "createdAt") String sort,
+            @Parameter(description = "Sort direction (default: ASC)") @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+
+        log.info("Fetching all cards by cursor - size: {}, sort: {}, direction: {}", size, sort, direction);
+        CursorPageDTO<PaymentCardDTO> cards = paymentCardService.getAllCardsByCursor(
+                cursor, size, PaymentCardSortField.fromProperty(sort), direction);
+        return ResponseEntity.ok(ApiResponse.success(cards, "Payment cards retrieved successfully"));
+    }
+}
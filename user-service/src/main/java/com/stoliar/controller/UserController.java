@@ -1,9 +1,13 @@
 package com.stoliar.controller;
 
+import com.stoliar.dto.AuditLogEntryDTO;
+import com.stoliar.dto.CursorPageDTO;
 import com.stoliar.dto.UserCreateDTO;
 import com.stoliar.dto.UserDTO;
+import com.stoliar.pagination.UserSortField;
 import com.stoliar.response.ApiResponse;
 import com.stoliar.service.UserService;
+import com.stoliar.specification.KeysetSpecifications;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -15,6 +19,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -66,6 +71,21 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(user, "User retrieved successfully"));
     }
 
+    @Operation(summary = "Get user by email", description = "Retrieve a specific user by email (ADMIN and internal services)")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "User retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @GetMapping("/email/{email}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<UserDTO>> getUserByEmail(
+            @Parameter(description = "User email", required = true) @PathVariable String email) {
+
+        log.info("Fetching user by email");
+        UserDTO user = userService.getUserByEmail(email);
+        return ResponseEntity.ok(ApiResponse.success(user, "User retrieved successfully"));
+    }
+
     @Operation(summary = "Get all users", description = "Retrieve paginated list of all users (ADMIN only)")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Users retrieved successfully")
@@ -75,29 +95,60 @@ public class UserController {
     public ResponseEntity<ApiResponse<Page<UserDTO>>> getAllUsers(
             @Parameter(description = "Page number (default: 0)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size (default: 10)") @RequestParam(defaultValue = "10") int size,
-            @Parameter(description = "Sort by field (default: createdAt)") @RequestParam(defaultValue = "createdAt") String sort) {
+            @Parameter(description = "Sort by field: id, createdAt, surname, email (default: createdAt)") @RequestParam(defaultValue = "createdAt") String sort) {
 
         log.info("Fetching all users - page: {}, size: {}, sort: {}", page, size, sort);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sort));
+        // Только индексированные поля, id - tie-breaker для стабильного порядка
+        UserSortField sortField = UserSortField.fromProperty(sort);
+        Pageable pageable = PageRequest.of(page, size,
+                KeysetSpecifications.keysetSort(sortField.getProperty(), Sort.Direction.ASC));
         Page<UserDTO> users = userService.getAllUsers(pageable);
         return ResponseEntity.ok(ApiResponse.success(users, "Users retrieved successfully"));
     }
 
-    @Operation(summary = "Get users with filters", description = "Retrieve filtered and paginated list of users (ADMIN only)")
+    @Operation(summary = "Get users by cursor",
+            description = "Retrieve users page by page using keyset pagination (ADMIN only). "
+                    + "Pass nextCursor from the previous response to get the next page")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor or sort field")
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPageDTO<UserDTO>>> getUsersByCursor(
+            @Parameter(description = "Cursor from the previous page (empty for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50)") @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Sort by field: id, createdAt, surname, email (default: createdAt)") @RequestParam(defaultValue = "createdAt") String sort,
+            @Parameter(description = "Sort direction (default: ASC)") @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+
+        log.info("Fetching users by cursor - size: {}, sort: {}, direction: {}", size, sort, direction);
+        CursorPageDTO<UserDTO> users = userService.getUsersByCursor(
+                cursor, size, UserSortField.fromProperty(sort), direction);
+        return ResponseEntity.ok(ApiResponse.success(users, "Users retrieved successfully"));
+    }
+
+    @Operation(summary = "Get users with filters",
+            description = "Retrieve filtered and paginated list of users (ADMIN only). "
+                    + "By default matches substrings ordered by id; fuzzy=true tolerates typos, orders by similarity "
+                    + "and returns a slice without the total count")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Filtered users retrieved successfully")
     })
     @GetMapping("/filter")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<UserDTO>>> getUsersWithFilters(
+    public ResponseEntity<ApiResponse<Slice<UserDTO>>> getUsersWithFilters(
             @Parameter(description = "First name filter") @RequestParam(required = false) String firstName,
             @Parameter(description = "Surname filter") @RequestParam(required = false) String surname,
+            @Parameter(description = "Fuzzy (trigram) matching with relevance ordering (default: false)")
+            @RequestParam(defaultValue = "false") boolean fuzzy,
             @Parameter(description = "Page number (default: 0)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size (default: 10)") @RequestParam(defaultValue = "10") int size) {
 
-        log.info("Filtering users - firstName: {}, surname: {}", firstName, surname);
+        log.info("Filtering users - firstName: {}, surname: {}, fuzzy: {}", firstName, surname, fuzzy);
         Pageable pageable = PageRequest.of(page, size);
-        Page<UserDTO> users = userService.getUsersWithFilters(firstName, surname, pageable);
+        Slice<UserDTO> users = fuzzy
+                ? userService.searchUsersFuzzy(firstName, surname, pageable)
+                : userService.getUsersWithFilters(firstName, surname, pageable);
         return ResponseEntity.ok(ApiResponse.success(users, "Filtered users retrieved successfully"));
     }
 
@@ -118,6 +169,22 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(updatedUser, "User updated successfully"));
     }
 
+    @Operation(summary = "Get user change history", description = "Get paginated history of changes to the user and their cards")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "History retrieved successfully")
+    })
+    @GetMapping("/{id}/history")
+    @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal")
+    public ResponseEntity<ApiResponse<Page<AuditLogEntryDTO>>> getUserHistory(
+            @Parameter(description = "User ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Page number (default: 0)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (default: 20)") @RequestParam(defaultValue = "20") int size) {
+
+        log.info("Getting change history for user id: {} - page: {}, size: {}", id, page, size);
+        Page<AuditLogEntryDTO> history = userService.getUserHistory(id, PageRequest.of(page, size));
+        return ResponseEntity.ok(ApiResponse.success(history, "User history retrieved successfully"));
+    }
+
     @Operation(summary = "Update user status", description = "Activate or deactivate a user (ADMIN only)")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "User status updated successfully"),
@@ -0,0 +1,76 @@
+package com.stoliar.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoliar.dto.UserImportSummaryDTO;
+import com.stoliar.imports.UserImportFormat;
+import com.stoliar.service.UserImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/users/import")
+@Slf4j
+@RequiredArgsConstructor
+@Tag(name = "User Import", description = "APIs for bulk user import")
+public class UserImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+
+    @Operation(summary = "Bulk import users",
+            description = "Stream users as CSV (header: name,surname,birthDate,email) or NDJSON (ADMIN only). "
+                    + "The response is NDJSON: one result per input row, then a {\"summary\": ...} line "
+                    + "written after the import is committed. A response without the summary line means the import failed")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Import processed"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Unsupported format or invalid CSV header")
+    })
+    @PostMapping(consumes = {"text/csv", NDJSON}, produces = NDJSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        UserImportFormat format = UserImportFormat.fromContentType(contentType);
+        log.info("Bulk import of users, format: {}", format);
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+
+        // Тело запроса и отчет идут потоком - файл целиком в памяти не держится
+        UserImportSummaryDTO summary = userImportService.importUsers(request.getInputStream(), format, row -> {
+            try {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        writer.write(objectMapper.writeValueAsString(Map.of("summary", summary)));
+        writer.write('\n');
+        writer.flush();
+        log.info("Bulk import finished: {}", summary);
+    }
+}
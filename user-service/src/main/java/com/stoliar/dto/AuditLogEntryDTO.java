@@ -0,0 +1,24 @@
+package com.stoliar.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.stoliar.audit.AuditOperation;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+public class AuditLogEntryDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String entityType;
+    private Long entityId;
+    private AuditOperation operation;
+    // Уже JSON - отдается как есть
+    @JsonRawValue
+    private String changes;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,20 @@
+package com.stoliar.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+// Ответ GET /api/v1/auth/revocations; bloomBits - long[] фильтра в base64 (big-endian)
+@Data
+public class RevocationSnapshotDTO {
+    private long version;
+    private Instant generatedAt;
+    private String hashAlgorithm;
+    private int bloomBitSize;
+    private int bloomHashFunctions;
+    private String bloomBits;
+    private Set<String> revokedTokenIds;
+    private Map<Long, Instant> userCutoffs;
+}
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.time.LocalDate;
@@ -11,9 +12,11 @@ import java.time.LocalDate;
 @Data
 public class UserCreateDTO {
     @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must be at most 100 characters")
     private String name;
     
     @NotBlank(message = "Surname is required")
+    @Size(max = 100, message = "Surname must be at most 100 characters")
     private String surname;
     
     @NotNull(message = "Birth date is required")
@@ -22,5 +25,6 @@ public class UserCreateDTO {
     
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
+    @Size(max = 255, message = "Email must be at most 255 characters")
     private String email;
 }
\ No newline at end of file
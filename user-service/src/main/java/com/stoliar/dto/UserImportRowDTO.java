@@ -0,0 +1,19 @@
+package com.stoliar.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.stoliar.imports.UserImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportRowDTO {
+    private Long line;
+    private String email;
+    private UserImportStatus status;
+    private Long userId;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.stoliar.dto;
+
+import com.stoliar.imports.UserImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportSummaryDTO {
+    private long total;
+    private Map<UserImportStatus, Long> byStatus;
+}
@@ -0,0 +1,45 @@
+package com.stoliar.entity;
+
+import com.stoliar.audit.AuditOperation;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись истории изменений. Пишется пачками через JdbcTemplate (см. AuditWriter), через JPA только читается.
+ */
+@Entity
+@Table(name = "audit_log", indexes = {
+    @Index(name = "idx_audit_log_user_changed_at", columnList = "user_id, changed_at, id")
+})
+@Getter
+@Setter
+@ToString
+public class AuditLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 50)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 10)
+    private AuditOperation operation;
+
+    @Column(name = "changes", columnDefinition = "text")
+    private String changes;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
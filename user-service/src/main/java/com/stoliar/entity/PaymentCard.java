@@ -14,7 +14,9 @@ import java.time.LocalDate;
 @Entity
 @Table(name = "payment_cards", indexes = {
     @Index(name = "idx_card_number", columnList = "number"),
-    @Index(name = "idx_card_expiration_date", columnList = "expiration_date")
+    @Index(name = "idx_card_user_id", columnList = "user_id"),
+    @Index(name = "idx_card_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_card_expiration_date_id", columnList = "expiration_date, id")
     },
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_payment_cards_number", columnNames = "number")
@@ -15,7 +15,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "users", indexes = {
-    @Index(name = "idx_user_created_at", columnList = "created_at")
+    @Index(name = "idx_user_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_user_surname_id", columnList = "surname, id")
 })
 @Getter
 @Setter
@@ -47,6 +48,11 @@ public class User extends AuditableEntity {
     @Column(name = "active", nullable = false)
     private Boolean active = true;
 
+    // Число активных карт. Ведется SQL-запросами репозиториев, Hibernate его не пишет
+    @Column(name = "active_cards", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer default 0")
+    private Integer activeCards = 0;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<PaymentCard> paymentCards = new ArrayList<>();
 }
\ No newline at end of file
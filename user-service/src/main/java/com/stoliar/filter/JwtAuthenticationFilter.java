@@ -1,7 +1,7 @@
 package com.stoliar.filter;
 
-import com.stoliar.entity.Role;
-import com.stoliar.util.JwtTokenProvider;
+import com.stoliar.cache.VerifiedTokenCache;
+import com.stoliar.util.JwtPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +18,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Slf4j
 @Component
@@ -25,7 +26,7 @@ import java.util.Collections;
 @Profile("!integration-test")
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider jwtTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,22 +35,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = getTokenFromRequest(request);
 
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String username = jwtTokenProvider.getUsernameFromToken(token);
-                Role role = jwtTokenProvider.getRoleFromToken(token);
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
+            // Токен проверяется один раз за запрос (или берется из кэша проверенных)
+            Optional<JwtPrincipal> principal = StringUtils.hasText(token)
+                    ? verifiedTokenCache.verify(token)
+                    : Optional.empty();
 
+            if (principal.isPresent()) {
+                JwtPrincipal jwt = principal.get();
                 var authorities = Collections.singletonList(
-                        new SimpleGrantedAuthority("ROLE_" + role.name())
+                        new SimpleGrantedAuthority("ROLE_" + jwt.role().name())
                 );
 
                 // Устанавливаем userId как principal
                 var authentication = new UsernamePasswordAuthenticationToken(
-                        userId, null, authorities
+                        jwt.userId(), null, authorities
                 );
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Authenticated user: {} with role: {} and userId: {}", username, role, userId);
+                log.debug("Authenticated user: {} with role: {} and userId: {}", jwt.username(), jwt.role(), jwt.userId());
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication", e);
@@ -0,0 +1,12 @@
+package com.stoliar.imports;
+
+/**
+ * Строка входного файла. error - причина, по которой строку не удалось разобрать.
+ */
+public record UserImportRecord(long lineNo, String name, String surname, String birthDate, String email,
+                               String error) {
+
+    public static UserImportRecord invalid(long lineNo, String error) {
+        return new UserImportRecord(lineNo, null, null, null, null, error);
+    }
+}
@@ -0,0 +1,136 @@
+package com.stoliar.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Построчно читает CSV (с заголовком) или NDJSON, не загружая файл в память.
+ * Ошибка разбора строки не прерывает импорт - строка возвращается с error.
+ */
+public class UserImportRecordReader {
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "surname", "birthdate", "email");
+
+    private final BufferedReader reader;
+    private final UserImportFormat format;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> csvColumns = new HashMap<>();
+    private long lineNo;
+
+    public UserImportRecordReader(InputStream input, UserImportFormat format, ObjectMapper objectMapper)
+            throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == UserImportFormat.CSV) {
+            readCsvHeader();
+        }
+    }
+
+    // null - входные данные закончились
+    public UserImportRecord next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNo++;
+        } while (line.isBlank());
+
+        try {
+            return format == UserImportFormat.CSV ? fromCsv(line) : fromJson(line);
+        } catch (JsonProcessingException e) {
+            return UserImportRecord.invalid(lineNo, "Malformed JSON");
+        } catch (IllegalArgumentException e) {
+            return UserImportRecord.invalid(lineNo, e.getMessage());
+        }
+    }
+
+    private void readCsvHeader() throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        lineNo++;
+        List<String> columns = splitCsv(header);
+        for (int i = 0; i < columns.size(); i++) {
+            // birthDate, birth_date и BirthDate считаются одной колонкой
+            csvColumns.put(columns.get(i).trim().replace("_", "").toLowerCase(), i);
+        }
+        List<String> missing = CSV_COLUMNS.stream().filter(column -> !csvColumns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+    }
+
+    private UserImportRecord fromCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < csvColumns.size()) {
+            throw new IllegalArgumentException("Expected " + csvColumns.size() + " columns but got " + fields.size());
+        }
+        return new UserImportRecord(lineNo,
+                fields.get(csvColumns.get("name")),
+                fields.get(csvColumns.get("surname")),
+                fields.get(csvColumns.get("birthdate")),
+                fields.get(csvColumns.get("email")),
+                null);
+    }
+
+    private UserImportRecord fromJson(String line) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return new UserImportRecord(lineNo, text(node, "name"), text(node, "surname"),
+                text(node, "birthDate"), text(node, "email"), null);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // Поля в кавычках с экранированием "" ; переводы строк внутри полей не поддерживаются
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
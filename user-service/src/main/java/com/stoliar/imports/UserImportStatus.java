@@ -0,0 +1,8 @@
+package com.stoliar.imports;
+
+public enum UserImportStatus {
+    CREATED,
+    INVALID,
+    DUPLICATE_IN_FILE,
+    EMAIL_EXISTS
+}
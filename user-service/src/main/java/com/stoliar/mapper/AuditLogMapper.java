@@ -0,0 +1,14 @@
+package com.stoliar.mapper;
+
+import com.stoliar.dto.AuditLogEntryDTO;
+import com.stoliar.entity.AuditLogEntry;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper(componentModel = "spring")
+public interface AuditLogMapper {
+
+    AuditLogMapper INSTANCE = Mappers.getMapper(AuditLogMapper.class);
+
+    AuditLogEntryDTO toDTO(AuditLogEntry auditLogEntry);
+}
@@ -21,9 +21,11 @@ public interface UserMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "paymentCards", ignore = true)
+    @Mapping(target = "activeCards", ignore = true)
     User toEntity(UserCreateDTO userCreateDTO);
     
     @Mapping(target = "paymentCards", ignore = true)
+    @Mapping(target = "activeCards", ignore = true)
     User toEntity(UserDTO userDTO);
     
     List<UserDTO> toDTOList(List<User> users);
@@ -0,0 +1,81 @@
+package com.stoliar.pagination;
+
+import com.stoliar.dto.CursorPageDTO;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: поле сортировки, направление,
+ * значение поля и id последней записи страницы (id - tie-breaker).
+ */
+public record KeysetCursor(String property, Sort.Direction direction, Long id, String value) {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String SEPARATOR = ":";
+
+    public String encode() {
+        // value последним - в нем может встречаться разделитель (например, во времени)
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует курсор и проверяет, что он выдан для той же сортировки. Пустой курсор - первая страница.
+     */
+    public static KeysetCursor decode(String cursor, String property, Sort.Direction direction) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        KeysetCursor decoded;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            decoded = new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (!decoded.property.equals(property) || decoded.direction != direction) {
+            throw new IllegalArgumentException("Cursor was issued for sort " + decoded.property + ","
+                    + decoded.direction + " and cannot be used with " + property + "," + direction);
+        }
+        return decoded;
+    }
+
+    public Comparable<?> parseValue(Function<String, Comparable<?>> parser) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor value: " + value);
+        }
+    }
+
+    public static int checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    /**
+     * Собирает страницу из выборки размером size + 1: лишняя запись означает, что есть следующая страница.
+     */
+    public static <T> CursorPageDTO<T> toPage(List<T> rows, int size, String property, Sort.Direction direction,
+                                              Function<T, Object> valueExtractor, Function<T, Long> idExtractor) {
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows, null, false);
+        }
+        List<T> content = rows.subList(0, size);
+        T last = content.get(size - 1);
+        String nextCursor = new KeysetCursor(property, direction, idExtractor.apply(last),
+                String.valueOf(valueExtractor.apply(last))).encode();
+        return new CursorPageDTO<>(List.copyOf(content), nextCursor, true);
+    }
+}
@@ -0,0 +1,35 @@
+package com.stoliar.pagination;
+
+import com.stoliar.dto.PaymentCardDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Разрешенные поля сортировки карт. Каждому соответствует составной индекс (поле, id).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PaymentCardSortField {
+    ID("id", Long::valueOf, PaymentCardDTO::getId),
+    CREATED_AT("createdAt", LocalDateTime::parse, PaymentCardDTO::getCreatedAt),              // idx_card_created_at_id
+    EXPIRATION_DATE("expirationDate", LocalDate::parse, PaymentCardDTO::getExpirationDate);   // idx_card_expiration_date_id
+
+    private final String property;
+    private final Function<String, Comparable<?>> parser;
+    private final Function<PaymentCardDTO, Object> extractor;
+
+    public static PaymentCardSortField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort field: " + property
+                        + ". Allowed: " + Arrays.stream(values()).map(PaymentCardSortField::getProperty)
+                        .collect(Collectors.joining(", "))));
+    }
+}
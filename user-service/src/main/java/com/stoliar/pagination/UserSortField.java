@@ -0,0 +1,35 @@
+package com.stoliar.pagination;
+
+import com.stoliar.dto.UserDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Разрешенные поля сортировки пользователей. Каждому соответствует составной индекс (поле, id).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum UserSortField {
+    ID("id", Long::valueOf, UserDTO::getId),
+    CREATED_AT("createdAt", LocalDateTime::parse, UserDTO::getCreatedAt),   // idx_user_created_at_id
+    SURNAME("surname", value -> value, UserDTO::getSurname),                // idx_user_surname_id
+    EMAIL("email", value -> value, UserDTO::getEmail);                      // уникальный индекс email
+
+    private final String property;
+    private final Function<String, Comparable<?>> parser;
+    private final Function<UserDTO, Object> extractor;
+
+    public static UserSortField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort field: " + property
+                        + ". Allowed: " + Arrays.stream(values()).map(UserSortField::getProperty)
+                        .collect(Collectors.joining(", "))));
+    }
+}
@@ -0,0 +1,14 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.AuditLogEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AuditLogRepository extends JpaRepository<AuditLogEntry, Long> {
+
+    // История пользователя и его карт, новые записи первыми (индекс idx_audit_log_user_changed_at)
+    Page<AuditLogEntry> findByUserIdOrderByChangedAtDescIdDesc(Long userId, Pageable pageable);
+}
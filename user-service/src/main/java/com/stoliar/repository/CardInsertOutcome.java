@@ -0,0 +1,12 @@
+package com.stoliar.repository;
+
+/**
+ * Результат условной вставки карты {@link PaymentCardRepository#createCardIfAllowed}.
+ */
+public enum CardInsertOutcome {
+    CREATED,
+    USER_NOT_FOUND,
+    USER_INACTIVE,
+    CARD_LIMIT_EXCEEDED,
+    DUPLICATE_NUMBER
+}
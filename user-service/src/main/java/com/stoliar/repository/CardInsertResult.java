@@ -0,0 +1,10 @@
+package com.stoliar.repository;
+
+/**
+ * Проекция результата {@link PaymentCardRepository#createCardIfAllowed}.
+ * cardId заполнен только при outcome = CREATED.
+ */
+public interface CardInsertResult {
+    CardInsertOutcome getOutcome();
+    Long getCardId();
+}
@@ -0,0 +1,9 @@
+package com.stoliar.repository;
+
+/**
+ * Проекция результата {@link PaymentCardRepository#deactivateExpiredCards}.
+ */
+public interface ExpiredCard {
+    Long getCardId();
+    Long getUserId();
+}
@@ -2,16 +2,21 @@ package com.stoliar.repository;
 
 import com.stoliar.dto.PaymentCardDTO;
 import com.stoliar.entity.PaymentCard;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,12 +34,82 @@ public interface PaymentCardRepository extends JpaRepository<PaymentCard, Long>,
                            @Param("holder") String holder,
                            @Param("expirationDate") LocalDate expirationDate);
 
+    // Проверка пользователя, лимита активных карт и уникальности номера + вставка за один запрос.
+    // UPDATE счетчика блокирует строку пользователя, поэтому параллельные вставки не превысят лимит;
+    // при DUPLICATE_NUMBER счетчик откатывается вместе с транзакцией.
+    @Query(value = """
+    WITH owner AS (
+        UPDATE users SET active_cards = active_cards + 1
+        WHERE id = :userId AND active = true AND active_cards < :maxActiveCards
+        RETURNING id
+    ),
+    inserted AS (
+        INSERT INTO payment_cards (user_id, number, holder, expiration_date, active, created_at, updated_at)
+        SELECT id, :number, :holder, :expirationDate, true, :now, :now FROM owner
+        ON CONFLICT (number) DO NOTHING
+        RETURNING id
+    )
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM inserted) THEN 'CREATED'
+               WHEN EXISTS (SELECT 1 FROM owner) THEN 'DUPLICATE_NUMBER'
+               WHEN NOT EXISTS (SELECT 1 FROM users WHERE id = :userId) THEN 'USER_NOT_FOUND'
+               WHEN NOT EXISTS (SELECT 1 FROM users WHERE id = :userId AND active = true) THEN 'USER_INACTIVE'
+               ELSE 'CARD_LIMIT_EXCEEDED'
+           END AS outcome,
+           (SELECT id FROM inserted) AS "cardId"
+    """, nativeQuery = true)
+    CardInsertResult createCardIfAllowed(@Param("userId") Long userId,
+                                         @Param("number") String number,
+                                         @Param("holder") String holder,
+                                         @Param("expirationDate") LocalDate expirationDate,
+                                         @Param("maxActiveCards") int maxActiveCards,
+                                         @Param("now") LocalDateTime now);
+
+    // Деактивация пачки просроченных карт с уменьшением счетчиков users.active_cards.
+    // Порядок (expiration_date, id) совпадает с частичным индексом idx_card_active_expiration;
+    // SKIP LOCKED позволяет нескольким инстансам выполнять проход параллельно.
+    @Transactional
+    @Query(value = """
+    WITH expired AS (
+        SELECT id FROM payment_cards
+        WHERE active = true AND expiration_date < :today
+        ORDER BY expiration_date, id
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+    ),
+    deactivated AS (
+        UPDATE payment_cards pc SET active = false, updated_at = :now
+        FROM expired e
+        WHERE pc.id = e.id
+        RETURNING pc.id, pc.user_id
+    ),
+    counters AS (
+        UPDATE users u SET active_cards = GREATEST(u.active_cards - d.cards, 0)
+        FROM (SELECT user_id, COUNT(*) AS cards FROM deactivated GROUP BY user_id) d
+        WHERE u.id = d.user_id
+    )
+    SELECT id AS "cardId", user_id AS "userId" FROM deactivated
+    """, nativeQuery = true)
+    List<ExpiredCard> deactivateExpiredCards(@Param("today") LocalDate today,
+                                             @Param("batchSize") int batchSize,
+                                             @Param("now") LocalDateTime now);
+
     // NAMED METHODS
     Optional<PaymentCard> findByNumber(String number);
 
+    // Строка карты блокируется до конца транзакции: параллельные смена статуса и удаление
+    // читают актуальный active, и счетчик users.active_cards меняется ровно один раз
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pc FROM PaymentCard pc WHERE pc.id = :id")
+    Optional<PaymentCard> findByIdForUpdate(@Param("id") Long id);
+
     @Query("SELECT pc FROM PaymentCard pc WHERE pc.user.id = :userId")
     List<PaymentCard> findAllByUserId(@Param("userId") Long userId);
 
+    // Карты пачки пользователей одним запросом (прогрев кэша)
+    @Query("SELECT pc FROM PaymentCard pc WHERE pc.user.id IN :userIds")
+    List<PaymentCard> findAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
     Page<PaymentCardDTO> getAllCardsByUserId(Long userId, Pageable pageable);
 
     // SPECIFICATION METHODS
@@ -3,14 +3,18 @@ package com.stoliar.repository;
 import com.stoliar.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
@@ -31,6 +35,63 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
             nativeQuery = true)
     int countActiveCardsByUserId(@Param("userId") Long userId);
 
+    // Id по email - использует уникальный индекс на email
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // Недавно активные пользователи - кандидаты на прогрев кэша; частичный индекс idx_user_active_updated_at_id
+    @Query("SELECT u.id FROM User u WHERE u.active = true ORDER BY u.updatedAt DESC, u.id DESC")
+    List<Long> findRecentlyActiveUserIds(Pageable pageable);
+
+    // Счетчик users.active_cards: увеличивается только если лимит не достигнут
+    @Modifying
+    @Query(value = "UPDATE users SET active_cards = active_cards + 1 WHERE id = :userId AND active_cards < :maxActiveCards",
+            nativeQuery = true)
+    int incrementActiveCards(@Param("userId") Long userId, @Param("maxActiveCards") int maxActiveCards);
+
+    @Modifying
+    @Query(value = "UPDATE users SET active_cards = GREATEST(active_cards - 1, 0) WHERE id = :userId",
+            nativeQuery = true)
+    int decrementActiveCards(@Param("userId") Long userId);
+
+    // Нечеткий поиск (pg_trgm): совпадение по префиксу или по сходству триграмм выше порога pg_trgm.similarity_threshold,
+    // по убыванию сходства. Отдельный запрос на каждое сочетание параметров, чтобы условие обслуживалось
+    // GIN-индексами idx_user_name_trgm / idx_user_surname_trgm. Slice - без COUNT по всем совпадениям.
+    // Префикс передается экранированным (LikePatterns.prefix)
+    @Query(value = """
+    SELECT * FROM users u
+    WHERE lower(u.name) LIKE lower(:namePrefix) ESCAPE '\\'
+       OR lower(u.name) % lower(:name)
+    ORDER BY similarity(lower(u.name), lower(:name)) DESC, u.id
+    """, nativeQuery = true)
+    Slice<User> searchByFirstNameFuzzy(@Param("name") String name,
+                                       @Param("namePrefix") String namePrefix,
+                                       Pageable pageable);
+
+    @Query(value = """
+    SELECT * FROM users u
+    WHERE lower(u.surname) LIKE lower(:surnamePrefix) ESCAPE '\\'
+       OR lower(u.surname) % lower(:surname)
+    ORDER BY similarity(lower(u.surname), lower(:surname)) DESC, u.id
+    """, nativeQuery = true)
+    Slice<User> searchBySurnameFuzzy(@Param("surname") String surname,
+                                     @Param("surnamePrefix") String surnamePrefix,
+                                     Pageable pageable);
+
+    @Query(value = """
+    SELECT * FROM users u
+    WHERE (lower(u.name) LIKE lower(:namePrefix) ESCAPE '\\'
+           OR lower(u.name) % lower(:name))
+      AND (lower(u.surname) LIKE lower(:surnamePrefix) ESCAPE '\\'
+           OR lower(u.surname) % lower(:surname))
+    ORDER BY similarity(lower(u.name), lower(:name)) + similarity(lower(u.surname), lower(:surname)) DESC, u.id
+    """, nativeQuery = true)
+    Slice<User> searchByFullNameFuzzy(@Param("name") String name,
+                                      @Param("namePrefix") String namePrefix,
+                                      @Param("surname") String surname,
+                                      @Param("surnamePrefix") String surnamePrefix,
+                                      Pageable pageable);
+
     // NAMED METHODS
     User findUserById(Long id);
     boolean existsByEmail(String email);
@@ -0,0 +1,122 @@
+package com.stoliar.scheduler;
+
+import com.stoliar.audit.AuditOperation;
+import com.stoliar.audit.AuditTrail;
+import com.stoliar.cache.UserCardsCache;
+import com.stoliar.config.CardExpirationSweepProperties;
+import com.stoliar.entity.PaymentCard;
+import com.stoliar.repository.ExpiredCard;
+import com.stoliar.repository.PaymentCardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Плановая деактивация просроченных карт пачками.
+ * Каждая пачка - отдельная транзакция; кэш очищается после ее коммита.
+ */
+@Slf4j
+@Component
+@Profile("!integration-test")
+@ConditionalOnProperty(prefix = "app.cards.expiration-sweep", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CardExpirationSweeper {
+
+    private final CardExpirationSweepProperties properties;
+    private final PaymentCardRepository paymentCardRepository;
+    private final CacheManager cacheManager;
+    private final AuditTrail auditTrail;
+    private final Counter deactivatedCounter;
+    private final Counter evictionErrorCounter;
+    private final Timer sweepTimer;
+
+    public CardExpirationSweeper(CardExpirationSweepProperties properties,
+                                 PaymentCardRepository paymentCardRepository,
+                                 CacheManager cacheManager,
+                                 AuditTrail auditTrail,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.paymentCardRepository = paymentCardRepository;
+        this.cacheManager = cacheManager;
+        this.auditTrail = auditTrail;
+        this.deactivatedCounter = Counter.builder("cards.expired.deactivated")
+                .description("Expired payment cards deactivated by the sweep")
+                .register(meterRegistry);
+        this.evictionErrorCounter = Counter.builder("cards.expired.eviction.errors")
+                .description("Cache evictions that failed after deactivating expired cards")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("cards.expiration.sweep")
+                .description("Duration of an expiration sweep run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.cards.expiration-sweep.cron:0 5 0 * * *}")
+    public void sweep() {
+        sweepTimer.record(() -> sweep(LocalDate.now()));
+    }
+
+    int sweep(LocalDate today) {
+        int total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            List<ExpiredCard> expired = paymentCardRepository.deactivateExpiredCards(
+                    today, properties.getBatchSize(), LocalDateTime.now());
+            if (expired.isEmpty()) {
+                break;
+            }
+
+            evict(expired);
+            // Пачка уже закоммичена - события уходят в очередь аудита сразу
+            expired.forEach(card -> auditTrail.record(PaymentCard.class.getSimpleName(), card.getCardId(),
+                    card.getUserId(), AuditOperation.UPDATE,
+                    Map.of("active", Map.of("old", true, "new", false), "reason", "expired")));
+            deactivatedCounter.increment(expired.size());
+            total += expired.size();
+
+            if (expired.size() < properties.getBatchSize() || !pause()) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Expiration sweep deactivated {} cards", total);
+        }
+        return total;
+    }
+
+    private void evict(List<ExpiredCard> expired) {
+        Cache cardsCache = cacheManager.getCache("paymentCards");
+        Cache userCardsCache = cacheManager.getCache(UserCardsCache.CACHE_NAME);
+        Set<Long> userIds = expired.stream().map(ExpiredCard::getUserId).collect(Collectors.toSet());
+        try {
+            expired.forEach(card -> cardsCache.evict(card.getCardId()));
+            userIds.forEach(userCardsCache::evict);
+        } catch (RuntimeException e) {
+            // Устаревшие записи доживут до TTL - так же, как при недоступном Redis в остальных операциях
+            evictionErrorCounter.increment();
+            log.warn("Failed to evict {} expired cards from cache: {}", expired.size(), e.getMessage());
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
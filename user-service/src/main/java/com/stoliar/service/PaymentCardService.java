@@ -1,9 +1,12 @@
 package com.stoliar.service;
 
+import com.stoliar.dto.CursorPageDTO;
 import com.stoliar.dto.PaymentCardCreateDTO;
 import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.pagination.PaymentCardSortField;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 
@@ -13,6 +16,7 @@ public interface PaymentCardService {
     List<PaymentCardDTO> getAllCardsByUserId(Long userId);
     Page<PaymentCardDTO> getAllCardsByUserId(Long userId, Pageable pageable);
     Page<PaymentCardDTO> getAllCards(Pageable pageable);
+    CursorPageDTO<PaymentCardDTO> getAllCardsByCursor(String cursor, int size, PaymentCardSortField sortField, Sort.Direction direction);
     PaymentCardDTO updateCard(Long cardId, PaymentCardDTO paymentCardDTO);
     PaymentCardDTO updateCardStatus(Long id, boolean active);
     void deleteCard(Long userId, Long cardId);
@@ -0,0 +1,12 @@
+package com.stoliar.service;
+
+import com.stoliar.dto.UserImportRowDTO;
+import com.stoliar.dto.UserImportSummaryDTO;
+import com.stoliar.imports.UserImportFormat;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+public interface UserImportService {
+    UserImportSummaryDTO importUsers(InputStream input, UserImportFormat format, Consumer<UserImportRowDTO> rowReport);
+}
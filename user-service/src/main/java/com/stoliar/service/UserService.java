@@ -1,16 +1,25 @@
 package com.stoliar.service;
 
+import com.stoliar.dto.AuditLogEntryDTO;
+import com.stoliar.dto.CursorPageDTO;
 import com.stoliar.dto.UserCreateDTO;
 import com.stoliar.dto.UserDTO;
+import com.stoliar.pagination.UserSortField;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 public interface UserService {
     UserDTO createUser(UserCreateDTO userCreateDTO);
     UserDTO getUserById(Long id);
+    UserDTO getUserByEmail(String email);
     Page<UserDTO> getAllUsers(Pageable pageable);
+    CursorPageDTO<UserDTO> getUsersByCursor(String cursor, int size, UserSortField sortField, Sort.Direction direction);
     UserDTO updateUser(Long id, UserDTO userDTO);
     UserDTO updateUserStatus(Long id, boolean active);
     void deleteUser(Long id);
     Page<UserDTO> getUsersWithFilters(String firstName, String surname, Pageable pageable);
+    Slice<UserDTO> searchUsersFuzzy(String firstName, String surname, Pageable pageable);
+    Page<AuditLogEntryDTO> getUserHistory(Long userId, Pageable pageable);
 }
\ No newline at end of file
@@ -1,16 +1,23 @@
 package com.stoliar.service.impl;
 
+import com.stoliar.audit.AuditOperation;
+import com.stoliar.audit.AuditTrail;
+import com.stoliar.cache.UserCardsCache;
+import com.stoliar.dto.CursorPageDTO;
 import com.stoliar.dto.PaymentCardCreateDTO;
 import com.stoliar.dto.PaymentCardDTO;
 import com.stoliar.entity.PaymentCard;
-import com.stoliar.entity.User;
 import com.stoliar.exception.BusinessRuleException;
 import com.stoliar.exception.DuplicateResourceException;
 import com.stoliar.exception.EntityNotFoundException;
 import com.stoliar.mapper.PaymentCardMapper;
+import com.stoliar.pagination.KeysetCursor;
+import com.stoliar.pagination.PaymentCardSortField;
+import com.stoliar.repository.CardInsertResult;
 import com.stoliar.repository.PaymentCardRepository;
 import com.stoliar.repository.UserRepository;
 import com.stoliar.service.PaymentCardService;
+import com.stoliar.specification.KeysetSpecifications;
 import com.stoliar.specification.PaymentCardSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,12 +26,21 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -34,41 +50,66 @@ public class PaymentCardServiceImpl implements PaymentCardService {
     private final PaymentCardRepository paymentCardRepository;
     private final UserRepository userRepository;
     private final PaymentCardMapper paymentCardMapper;
+    private final UserCardsCache userCardsCache;
+    private final AuditTrail auditTrail;
+
+    private static final int MAX_ACTIVE_CARDS = 5;
+
+    // Поля для сортировки закэшированного списка карт пользователя
+    private static final Map<String, Function<PaymentCardDTO, Object>> IN_MEMORY_SORT_FIELDS = Map.of(
+            "id", PaymentCardDTO::getId,
+            "number", PaymentCardDTO::getNumber,
+            "holder", PaymentCardDTO::getHolder,
+            "expirationDate", PaymentCardDTO::getExpirationDate,
+            "active", PaymentCardDTO::getActive,
+            "createdAt", PaymentCardDTO::getCreatedAt,
+            "updatedAt", PaymentCardDTO::getUpdatedAt
+    );
 
     @Override
     @Transactional
-    @CachePut(value = "paymentCards", key = "#result.id")
+    @Caching(
+            put = @CachePut(value = "paymentCards", key = "#result.id"),
+            evict = @CacheEvict(value = UserCardsCache.CACHE_NAME, key = "#userId")
+    )
     public PaymentCardDTO createPaymentCard(Long userId, PaymentCardCreateDTO paymentCardCreateDTO) {
         log.info("Creating payment card for user id: {}", userId);
 
-        // Проверка наличия пользователя и его активности
-        User user = userRepository.findUserById(userId);
-        if (user == null) {
-            throw new EntityNotFoundException("User not found with id: " + userId);
-        }
-
-        if (!user.getActive()) {
-            throw new BusinessRuleException("Cannot add card to inactive user");
-        }
-
-        // Проверка лимита карт
-        int currentCardCount = userRepository.countActiveCardsByUserId(userId);
-        if (currentCardCount >= 5) {
-            throw new BusinessRuleException("User cannot have more than 5 active cards. Current count: " + currentCardCount);
-        }
-
-        // Проверка уникального номера карты
-        if (paymentCardRepository.findByNumber(paymentCardCreateDTO.getNumber()).isPresent()) {
-            throw new DuplicateResourceException("Card with number " + paymentCardCreateDTO.getNumber() + " already exists");
-        }
-
-        PaymentCard createdCard = paymentCardRepository.createCard(
+        // Все проверки и вставка выполняются одним запросом
+        LocalDateTime now = LocalDateTime.now();
+        CardInsertResult result = paymentCardRepository.createCardIfAllowed(
                 userId,
                 paymentCardCreateDTO.getNumber(),
                 paymentCardCreateDTO.getHolder(),
-                paymentCardCreateDTO.getExpirationDate()
+                paymentCardCreateDTO.getExpirationDate(),
+                MAX_ACTIVE_CARDS,
+                now
         );
 
+        switch (result.getOutcome()) {
+            case USER_NOT_FOUND -> throw new EntityNotFoundException("User not found with id: " + userId);
+            case USER_INACTIVE -> throw new BusinessRuleException("Cannot add card to inactive user");
+            case CARD_LIMIT_EXCEEDED -> throw new BusinessRuleException(
+                    "User cannot have more than " + MAX_ACTIVE_CARDS + " active cards");
+            case DUPLICATE_NUMBER -> throw new DuplicateResourceException(
+                    "Card with number " + paymentCardCreateDTO.getNumber() + " already exists");
+            case CREATED -> log.debug("Payment card {} created for user id: {}", result.getCardId(), userId);
+        }
+
+        PaymentCard createdCard = paymentCardMapper.toEntity(paymentCardCreateDTO, userId);
+        createdCard.setId(result.getCardId());
+        createdCard.setCreatedAt(now);
+        createdCard.setUpdatedAt(now);
+
+        // Нативная вставка минует Hibernate-события - фиксируем создание для аудита явно
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("number", AuditTrail.mask("number", createdCard.getNumber()));
+        changes.put("holder", createdCard.getHolder());
+        changes.put("expirationDate", createdCard.getExpirationDate());
+        changes.put("active", createdCard.getActive());
+        auditTrail.record(PaymentCard.class.getSimpleName(), createdCard.getId(), userId,
+                AuditOperation.CREATE, changes);
+
         return paymentCardMapper.toDTO(createdCard);
     }
 
@@ -83,22 +124,29 @@ public class PaymentCardServiceImpl implements PaymentCardService {
     }
 
     @Override
-    @Transactional
     public List<PaymentCardDTO> getAllCardsByUserId(Long userId) {
         log.info("Fetching all cards for user id: {}", userId);
-        List<PaymentCard> cards = paymentCardRepository.findAllByUserId(userId);
-        return paymentCardMapper.toDTOList(cards);
+        return userCardsCache.getCards(userId);
     }
 
     @Override
-    @Transactional
     public Page<PaymentCardDTO> getAllCardsByUserId(Long userId, Pageable pageable) {
         log.info("Fetching paginated cards for user id: {}", userId);
-        Specification<PaymentCard> spec = (root, query, cb) ->
-                cb.equal(root.get("user").get("id"), userId);
 
-        Page<PaymentCard> cardsPage = paymentCardRepository.findAll(spec, pageable);
-        return cardsPage.map(paymentCardMapper::toDTO);
+        // Карт у пользователя немного - страницу собираем из закэшированного списка
+        List<PaymentCardDTO> cards = new ArrayList<>(userCardsCache.getCards(userId));
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(cards);
+        }
+
+        Comparator<PaymentCardDTO> comparator = toComparator(pageable.getSort());
+        if (comparator != null) {
+            cards.sort(comparator);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), cards.size());
+        int to = Math.min(from + pageable.getPageSize(), cards.size());
+        return new PageImpl<>(cards.subList(from, to), pageable, cards.size());
     }
 
     @Override
@@ -111,9 +159,35 @@ public class PaymentCardServiceImpl implements PaymentCardService {
         ).map(paymentCardMapper::toDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PaymentCardDTO> getAllCardsByCursor(String cursor, int size, PaymentCardSortField sortField,
+                                                             Sort.Direction direction) {
+        log.info("Fetching all cards by cursor - sort: {}, direction: {}, size: {}", sortField, direction, size);
+        KeysetCursor.checkPageSize(size);
+
+        String property = sortField.getProperty();
+        KeysetCursor after = KeysetCursor.decode(cursor, property, direction);
+        Specification<PaymentCard> spec = after == null
+                ? KeysetSpecifications.after(property, null, null, direction)
+                : KeysetSpecifications.after(property, after.parseValue(sortField.getParser()), after.id(), direction);
+
+        // Без count-запроса: берем на одну запись больше, чтобы узнать о следующей странице
+        List<PaymentCard> rows = paymentCardRepository.findBy(spec, query -> query
+                .sortBy(KeysetSpecifications.keysetSort(property, direction))
+                .limit(size + 1)
+                .all());
+
+        return KeysetCursor.toPage(paymentCardMapper.toDTOList(rows), size, property, direction,
+                sortField.getExtractor(), PaymentCardDTO::getId);
+    }
+
     @Override
     @Transactional
-    @CachePut(value = "paymentCards", key = "#cardId")
+    @Caching(
+            put = @CachePut(value = "paymentCards", key = "#cardId"),
+            evict = @CacheEvict(value = UserCardsCache.CACHE_NAME, key = "#result.userId")
+    )
     public PaymentCardDTO updateCard(Long cardId, PaymentCardDTO paymentCardDTO) {
         log.info("Updating card with id: {}", cardId);
 
@@ -137,13 +211,29 @@ public class PaymentCardServiceImpl implements PaymentCardService {
 
     @Override
     @Transactional
-    @CachePut(value = "paymentCards", key = "#cardId")
+    @Caching(
+            put = @CachePut(value = "paymentCards", key = "#cardId"),
+            evict = @CacheEvict(value = UserCardsCache.CACHE_NAME, key = "#result.userId")
+    )
     public PaymentCardDTO updateCardStatus(Long cardId, boolean active) {
         log.info("Updating card status: {}", active);
 
-        PaymentCard card = paymentCardRepository.findById(cardId)
+        PaymentCard card = paymentCardRepository.findByIdForUpdate(cardId)
                 .orElseThrow(() -> new EntityNotFoundException("Card not found with id: " + cardId));
 
+        // Поддерживаем счетчик активных карт пользователя; строка карты заблокирована,
+        // поэтому параллельная смена статуса увидит уже новое значение active
+        if (!card.getActive().equals(active)) {
+            Long ownerId = card.getUser().getId();
+            if (active) {
+                if (userRepository.incrementActiveCards(ownerId, MAX_ACTIVE_CARDS) == 0) {
+                    throw new BusinessRuleException("User cannot have more than " + MAX_ACTIVE_CARDS + " active cards");
+                }
+            } else {
+                userRepository.decrementActiveCards(ownerId);
+            }
+        }
+
         card.setActive(active);
         PaymentCard updatedCard = paymentCardRepository.save(card);
 
@@ -154,18 +244,53 @@ public class PaymentCardServiceImpl implements PaymentCardService {
     @Transactional
     @Caching(evict = {
             @CacheEvict(value = "paymentCards", key = "#cardId"),
-            @CacheEvict(value = "users", key = "#userId")
+            @CacheEvict(value = "users", key = "#userId"),
+            @CacheEvict(value = UserCardsCache.CACHE_NAME, key = "#userId")
     })
     public void deleteCard(Long userId, Long cardId) {
         log.info("Deleting card with id: {}", cardId);
 
-        PaymentCard card = paymentCardRepository.findById(cardId)
+        PaymentCard card = paymentCardRepository.findByIdForUpdate(cardId)
                 .orElseThrow(() -> new EntityNotFoundException("Card not found with id: " + cardId));
 
         if (!card.getUser().getId().equals(userId)) {
             throw new EntityNotFoundException("Card not found for this user");
         }
 
+        if (Boolean.TRUE.equals(card.getActive())) {
+            userRepository.decrementActiveCards(userId);
+        }
         paymentCardRepository.delete(card);
     }
+
+    private Comparator<PaymentCardDTO> toComparator(Sort sort) {
+        Comparator<PaymentCardDTO> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<PaymentCardDTO> next = toComparator(order);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    // Неизвестное поле - 400, а не молчаливо несортированная страница
+    private Comparator<PaymentCardDTO> toComparator(Sort.Order order) {
+        Function<PaymentCardDTO, Object> extractor = IN_MEMORY_SORT_FIELDS.get(order.getProperty());
+        if (extractor == null) {
+            throw new IllegalArgumentException("Unsupported sort field: " + order.getProperty()
+                    + ". Allowed: " + String.join(", ", new TreeSet<>(IN_MEMORY_SORT_FIELDS.keySet())));
+        }
+
+        boolean ignoreCase = order.isIgnoreCase();
+        Comparator<PaymentCardDTO> comparator = Comparator.comparing(
+                extractor, Comparator.nullsLast((a, b) -> compareValues(a, b, ignoreCase)));
+        return order.isAscending() ? comparator : comparator.reversed();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b, boolean ignoreCase) {
+        if (ignoreCase && a instanceof String left && b instanceof String right) {
+            return String.CASE_INSENSITIVE_ORDER.compare(left, right);
+        }
+        return ((Comparable) a).compareTo(b);
+    }
 }
\ No newline at end of file
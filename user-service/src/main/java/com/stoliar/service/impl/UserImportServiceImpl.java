@@ -0,0 +1,230 @@
+package com.stoliar.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoliar.dto.UserCreateDTO;
+import com.stoliar.dto.UserImportRowDTO;
+import com.stoliar.dto.UserImportSummaryDTO;
+import com.stoliar.imports.UserImportFormat;
+import com.stoliar.imports.UserImportRecord;
+import com.stoliar.imports.UserImportRecordReader;
+import com.stoliar.imports.UserImportStatus;
+import com.stoliar.service.UserImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт пользователей: строки потоком уходят через COPY во временную таблицу,
+ * конфликты email и вставка в users решаются несколькими set-based запросами.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final int REPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Override
+    @Transactional
+    public UserImportSummaryDTO importUsers(InputStream input, UserImportFormat format,
+                                            Consumer<UserImportRowDTO> rowReport) {
+        UserImportRecordReader reader;
+        try {
+            reader = new UserImportRecordReader(input, format, objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import data", e);
+        }
+
+        // Временная таблица живет до конца транзакции и видна только этому соединению
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE user_import_staging (
+                    line_no BIGINT NOT NULL,
+                    name TEXT,
+                    surname TEXT,
+                    birth_date DATE,
+                    email TEXT,
+                    status TEXT,
+                    message TEXT,
+                    user_id BIGINT
+                ) ON COMMIT DROP
+                """);
+
+        long staged = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> copyToStaging(connection, reader));
+        log.info("Staged {} rows for {} user import", staged, format);
+        jdbcTemplate.execute("ANALYZE user_import_staging");
+
+        resolveConflictsAndInsert();
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    SELECT line_no, email, status, user_id, message
+                    FROM user_import_staging
+                    ORDER BY line_no
+                    """);
+            // Отчет читается курсором, а не целиком
+            statement.setFetchSize(REPORT_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> rowReport.accept(new UserImportRowDTO(
+                rs.getLong("line_no"),
+                rs.getString("email"),
+                UserImportStatus.valueOf(rs.getString("status")),
+                rs.getObject("user_id", Long.class),
+                rs.getString("message"))));
+
+        return summarize();
+    }
+
+    private long copyToStaging(Connection connection, UserImportRecordReader reader) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY user_import_staging (line_no, name, surname, birth_date, email, status, message) "
+                        + "FROM STDIN WITH (FORMAT csv)");
+        try {
+            long rows = 0;
+            UserImportRecord record;
+            while ((record = reader.next()) != null) {
+                byte[] row = toCsvRow(record).getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(row, 0, row.length);
+                rows++;
+            }
+            copyIn.endCopy();
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import data", e);
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void resolveConflictsAndInsert() {
+        // Повтор email внутри файла - побеждает первая строка
+        jdbcTemplate.update("""
+                UPDATE user_import_staging s
+                SET status = 'DUPLICATE_IN_FILE', message = 'Email already used on line ' || f.first_line
+                FROM (SELECT email, MIN(line_no) AS first_line
+                      FROM user_import_staging
+                      WHERE status IS NULL
+                      GROUP BY email) f
+                WHERE s.status IS NULL AND s.email = f.email AND s.line_no > f.first_line
+                """);
+
+        jdbcTemplate.update("""
+                UPDATE user_import_staging s
+                SET status = 'EMAIL_EXISTS', message = 'User with this email already exists'
+                FROM users u
+                WHERE s.status IS NULL AND u.email = s.email
+                """);
+
+        int created = jdbcTemplate.update("""
+                WITH inserted AS (
+                    INSERT INTO users (name, surname, birth_date, email, active, created_at, updated_at)
+                    SELECT name, surname, birth_date, email, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                    FROM user_import_staging
+                    WHERE status IS NULL
+                    ORDER BY line_no
+                    ON CONFLICT (email) DO NOTHING
+                    RETURNING id, email
+                )
+                UPDATE user_import_staging s
+                SET status = 'CREATED', user_id = i.id
+                FROM inserted i
+                WHERE s.status IS NULL AND s.email = i.email
+                """);
+
+        // Email занят параллельной транзакцией между проверкой и вставкой
+        jdbcTemplate.update("""
+                UPDATE user_import_staging
+                SET status = 'EMAIL_EXISTS', message = 'User with this email already exists'
+                WHERE status IS NULL
+                """);
+
+        log.info("Bulk import created {} users", created);
+    }
+
+    private UserImportSummaryDTO summarize() {
+        Map<UserImportStatus, Long> byStatus = new EnumMap<>(UserImportStatus.class);
+        jdbcTemplate.query("SELECT status, COUNT(*) AS cnt FROM user_import_staging GROUP BY status",
+                (RowCallbackHandler) rs -> byStatus.put(UserImportStatus.valueOf(rs.getString("status")),
+                        rs.getLong("cnt")));
+        long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+        return new UserImportSummaryDTO(total, byStatus);
+    }
+
+    // Строка для COPY: валидные записи без статуса, невалидные сразу с INVALID и причиной
+    private String toCsvRow(UserImportRecord record) {
+        String error = record.error() != null ? record.error() : validate(record);
+        if (error != null) {
+            return csv(record.lineNo(), record.name(), record.surname(), null, trim(record.email()),
+                    UserImportStatus.INVALID.name(), error);
+        }
+        return csv(record.lineNo(), record.name().trim(), record.surname().trim(), record.birthDate().trim(),
+                record.email().trim(), null, null);
+    }
+
+    private String validate(UserImportRecord record) {
+        UserCreateDTO dto = new UserCreateDTO();
+        dto.setName(trim(record.name()));
+        dto.setSurname(trim(record.surname()));
+        dto.setEmail(trim(record.email()));
+        if (record.birthDate() != null && !record.birthDate().isBlank()) {
+            try {
+                dto.setBirthDate(LocalDate.parse(record.birthDate().trim()));
+            } catch (DateTimeParseException e) {
+                return "Birth date must be in format yyyy-MM-dd";
+            }
+        }
+
+        Set<ConstraintViolation<UserCreateDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    // Пустое значение без кавычек в CSV-режиме COPY - это NULL
+    private static String csv(long lineNo, String... values) {
+        StringBuilder row = new StringBuilder().append(lineNo);
+        for (String value : values) {
+            row.append(',');
+            if (value != null) {
+                row.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+        return row.append('\n').toString();
+    }
+}
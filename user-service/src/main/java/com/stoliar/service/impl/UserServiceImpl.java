@@ -1,24 +1,44 @@
 package com.stoliar.service.impl;
 
+import com.stoliar.audit.AuditOperation;
+import com.stoliar.audit.AuditTrail;
+import com.stoliar.cache.UserCardsCache;
+import com.stoliar.cache.UserEmailLookup;
+import com.stoliar.dto.AuditLogEntryDTO;
+import com.stoliar.dto.CursorPageDTO;
 import com.stoliar.dto.UserCreateDTO;
 import com.stoliar.dto.UserDTO;
 import com.stoliar.entity.User;
 import com.stoliar.exception.DuplicateResourceException;
 import com.stoliar.exception.EntityNotFoundException;
+import com.stoliar.mapper.AuditLogMapper;
 import com.stoliar.mapper.UserMapper;
+import com.stoliar.pagination.KeysetCursor;
+import com.stoliar.pagination.UserSortField;
+import com.stoliar.repository.AuditLogRepository;
 import com.stoliar.repository.UserRepository;
 import com.stoliar.service.UserService;
+import com.stoliar.specification.KeysetSpecifications;
 import com.stoliar.specification.UserSpecifications;
+import com.stoliar.util.LikePatterns;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -27,6 +47,10 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserEmailLookup userEmailLookup;
+    private final AuditTrail auditTrail;
+    private final AuditLogRepository auditLogRepository;
+    private final AuditLogMapper auditLogMapper;
 
     @Override
     @Transactional
@@ -46,6 +70,16 @@ public class UserServiceImpl implements UserService {
                 userCreateDTO.getEmail()
         );
 
+        // Нативная вставка минует Hibernate-события - фиксируем создание для аудита явно
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("name", createdUser.getName());
+        changes.put("surname", createdUser.getSurname());
+        changes.put("birthDate", createdUser.getBirthDate());
+        changes.put("email", createdUser.getEmail());
+        changes.put("active", createdUser.getActive());
+        auditTrail.record(User.class.getSimpleName(), createdUser.getId(), createdUser.getId(),
+                AuditOperation.CREATE, changes);
+
         return userMapper.toDTO(createdUser);
     }
 
@@ -61,6 +95,32 @@ public class UserServiceImpl implements UserService {
         return userMapper.toDTO(user);
     }
 
+    @Override
+    public UserDTO getUserByEmail(String email) {
+        log.info("Fetching user by email");
+        String normalizedEmail = email.trim();
+
+        Long id = userEmailLookup.findUserId(normalizedEmail);
+        if (id != null) {
+            try {
+                UserDTO user = userEmailLookup.getUser(id);
+                if (normalizedEmail.equals(user.getEmail())) {
+                    return user;
+                }
+            } catch (EntityNotFoundException e) {
+                log.debug("User id: {} from email mapping no longer exists", id);
+            }
+            // Email сменился или пользователь удален - сопоставление устарело, перечитываем из БД
+            userEmailLookup.evict(normalizedEmail);
+            id = userEmailLookup.findUserId(normalizedEmail);
+        }
+
+        if (id == null) {
+            throw new EntityNotFoundException("User not found with email: " + normalizedEmail);
+        }
+        return userEmailLookup.getUser(id);
+    }
+
     @Override
     @Transactional
     public Page<UserDTO> getAllUsers(Pageable pageable) {
@@ -69,6 +129,29 @@ public class UserServiceImpl implements UserService {
                 .map(userMapper::toDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserDTO> getUsersByCursor(String cursor, int size, UserSortField sortField,
+                                                   Sort.Direction direction) {
+        log.info("Fetching users by cursor - sort: {}, direction: {}, size: {}", sortField, direction, size);
+        KeysetCursor.checkPageSize(size);
+
+        String property = sortField.getProperty();
+        KeysetCursor after = KeysetCursor.decode(cursor, property, direction);
+        Specification<User> spec = after == null
+                ? KeysetSpecifications.after(property, null, null, direction)
+                : KeysetSpecifications.after(property, after.parseValue(sortField.getParser()), after.id(), direction);
+
+        // Без count-запроса: берем на одну запись больше, чтобы узнать о следующей странице
+        List<User> rows = userRepository.findBy(spec, query -> query
+                .sortBy(KeysetSpecifications.keysetSort(property, direction))
+                .limit(size + 1)
+                .all());
+
+        return KeysetCursor.toPage(userMapper.toDTOList(rows), size, property, direction,
+                sortField.getExtractor(), UserDTO::getId);
+    }
+
     @Override
     @Transactional
     @CachePut(value = "users", key = "#id")
@@ -86,12 +169,18 @@ public class UserServiceImpl implements UserService {
             throw new DuplicateResourceException("Email " + userDTO.getEmail() + " already exists");
         }
 
+        String previousEmail = existingUser.getEmail();
+
         existingUser.setName(userDTO.getName());
         existingUser.setSurname(userDTO.getSurname());
         existingUser.setBirthDate(userDTO.getBirthDate());
         existingUser.setEmail(userDTO.getEmail());
 
         User updatedUser = userRepository.save(existingUser);
+        if (!previousEmail.equals(updatedUser.getEmail())) {
+            // Запись могут вернуть до коммита - getUserByEmail дополнительно сверяет email с кэшем users
+            userEmailLookup.evict(previousEmail);
+        }
         return userMapper.toDTO(updatedUser);
     }
 
@@ -114,7 +203,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    @CacheEvict(value = {"users", "paymentCards"}, allEntries = true)
+    @CacheEvict(value = {"users", "paymentCards", UserCardsCache.CACHE_NAME, UserEmailLookup.CACHE_NAME}, allEntries = true)
     public void deleteUser(Long id) {
         log.info("Deleting user with id: {}", id);
         User user = userRepository.findUserById(id);
@@ -130,8 +219,43 @@ public class UserServiceImpl implements UserService {
         log.info("Fetching users with filters - firstName: {}, surname: {}", firstName, surname);
 
         Specification<User> spec = UserSpecifications.hasFirstName(firstName)
-                .and(UserSpecifications.hasSurname(surname));
+                .and(UserSpecifications.hasSurname(surname))
+                .and(UserSpecifications.orderById());
 
         return userRepository.findAll(spec, pageable).map(userMapper::toDTO);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AuditLogEntryDTO> getUserHistory(Long userId, Pageable pageable) {
+        log.info("Fetching change history for user id: {}", userId);
+        // История удаленного пользователя тоже доступна, поэтому существование не проверяем
+        return auditLogRepository.findByUserIdOrderByChangedAtDescIdDesc(userId, pageable)
+                .map(auditLogMapper::toDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> searchUsersFuzzy(String firstName, String surname, Pageable pageable) {
+        log.info("Fuzzy search of users - firstName: {}, surname: {}", firstName, surname);
+
+        String name = StringUtils.hasText(firstName) ? firstName.trim() : null;
+        String lastName = StringUtils.hasText(surname) ? surname.trim() : null;
+        if (name == null && lastName == null) {
+            return getAllUsers(pageable);
+        }
+
+        // Порядок задает сам запрос - по релевантности
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Slice<User> users;
+        if (name != null && lastName != null) {
+            users = userRepository.searchByFullNameFuzzy(
+                    name, LikePatterns.prefix(name), lastName, LikePatterns.prefix(lastName), page);
+        } else if (name != null) {
+            users = userRepository.searchByFirstNameFuzzy(name, LikePatterns.prefix(name), page);
+        } else {
+            users = userRepository.searchBySurnameFuzzy(lastName, LikePatterns.prefix(lastName), page);
+        }
+        return users.map(userMapper::toDTO);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.stoliar.specification;
+
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public class KeysetSpecifications {
+
+    // Записи строго после (value, id) в порядке сортировки.
+    // Условие "field >= value" задает начало диапазона в индексе (field, id), вторая часть отсекает дубли.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Specification<T> after(String property, Comparable value, Long id, Sort.Direction direction) {
+        return (root, query, criteriaBuilder) -> {
+            if (value == null) {
+                return criteriaBuilder.conjunction(); // первая страница
+            }
+            Path path = root.get(property);
+            Path<Long> idPath = root.get("id");
+            if (direction.isAscending()) {
+                return criteriaBuilder.and(
+                        criteriaBuilder.greaterThanOrEqualTo(path, value),
+                        criteriaBuilder.or(
+                                criteriaBuilder.greaterThan(path, value),
+                                criteriaBuilder.greaterThan(idPath, id)));
+            }
+            return criteriaBuilder.and(
+                    criteriaBuilder.lessThanOrEqualTo(path, value),
+                    criteriaBuilder.or(
+                            criteriaBuilder.lessThan(path, value),
+                            criteriaBuilder.lessThan(idPath, id)));
+        };
+    }
+
+    // Сортировка по полю с id в качестве tie-breaker
+    public static Sort keysetSort(String property, Sort.Direction direction) {
+        if ("id".equals(property)) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+}
@@ -1,11 +1,13 @@
 package com.stoliar.specification;
 
 import com.stoliar.entity.User;
+import com.stoliar.util.LikePatterns;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
 public class UserSpecifications {
 
+    // lower(name) LIKE '%x%' обслуживается GIN-индексами idx_user_name_trgm / idx_user_surname_trgm
     public static Specification<User> hasFirstName(String firstName) {
         return (root, query, criteriaBuilder) -> {
             if (!StringUtils.hasText(firstName)) {
@@ -13,7 +15,8 @@ public class UserSpecifications {
             }
             return criteriaBuilder.like(
                 criteriaBuilder.lower(root.get("name")),
-                "%" + firstName.toLowerCase() + "%"
+                LikePatterns.contains(firstName.toLowerCase()),
+                LikePatterns.ESCAPE
             );
         };
     }
@@ -25,9 +28,18 @@ public class UserSpecifications {
             }
             return criteriaBuilder.like(
                 criteriaBuilder.lower(root.get("surname")),
-                "%" + surname.toLowerCase() + "%"
+                LikePatterns.contains(surname.toLowerCase()),
+                LikePatterns.ESCAPE
             );
         };
     }
 
+    // Порядок по первичному ключу, если в Pageable не задана сортировка (count-запрос сортировку отбрасывает).
+    // Сортировка по релевантности (CASE по префиксу) требовала бы сортировать все совпадения целиком
+    public static Specification<User> orderById() {
+        return (root, query, criteriaBuilder) -> {
+            query.orderBy(criteriaBuilder.asc(root.get("id")));
+            return criteriaBuilder.conjunction();
+        };
+    }
 }
\ No newline at end of file
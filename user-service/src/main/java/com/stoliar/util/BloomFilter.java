@@ -0,0 +1,63 @@
+package com.stoliar.util;
+
+/**
+ * Фильтр Блума отозванных jti, опубликованный auth-service (GET /api/v1/auth/revocations).
+ * Биты приходят готовыми; индексы считаются так же, как в auth-service: двойное хэширование
+ * floorMod(h1 + i * h2, bitSize) в знаковой 64-битной арифметике от FNV-1a 64 с финализатором MurmurHash3.
+ */
+public final class BloomFilter {
+
+    public static final String HASH_ALGORITHM = "fnv1a64-fmix64";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long SECOND_HASH_SEED = 0x9e3779b97f4a7c15L;
+
+    private final long[] bits;
+    private final int bitSize;
+    private final int hashFunctions;
+
+    private BloomFilter(long[] bits, int bitSize, int hashFunctions) {
+        this.bits = bits;
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+    }
+
+    public static BloomFilter fromWords(long[] words, int bitSize, int hashFunctions) {
+        if (bitSize <= 0 || hashFunctions <= 0 || words.length < (bitSize + Long.SIZE - 1) / Long.SIZE) {
+            throw new IllegalArgumentException("Bloom filter parameters do not match its bits: bitSize=" + bitSize
+                    + ", hashFunctions=" + hashFunctions + ", words=" + words.length);
+        }
+        return new BloomFilter(words.clone(), bitSize, hashFunctions);
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = fmix64(h1 ^ SECOND_HASH_SEED);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) bitSize);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return fmix64(hash);
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
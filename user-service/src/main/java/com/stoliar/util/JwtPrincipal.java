@@ -0,0 +1,13 @@
+package com.stoliar.util;
+
+import com.stoliar.entity.Role;
+
+import java.time.Instant;
+
+/**
+ * Данные проверенного токена. tokenId (jti), issuedAt и expiresAt могут быть null у старых токенов;
+ * первые два нужны для проверки отзыва.
+ */
+public record JwtPrincipal(String username, Role role, Long userId, String tokenId,
+                           Instant issuedAt, Instant expiresAt) {
+}
@@ -0,0 +1,33 @@
+package com.stoliar.util;
+
+/**
+ * Шаблоны для LIKE с экранированием спецсимволов: '%' и '_' из пользовательского ввода
+ * ищутся буквально, а не как подстановочные знаки.
+ */
+public final class LikePatterns {
+
+    public static final char ESCAPE = '\\';
+
+    private LikePatterns() {
+    }
+
+    public static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE || c == '%' || c == '_') {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    public static String prefix(String value) {
+        return escape(value) + "%";
+    }
+
+    public static String contains(String value) {
+        return "%" + escape(value) + "%";
+    }
+}
@@ -0,0 +1,34 @@
+package com.stoliar.util;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Неизменяемый снимок отзывов из auth-service. Проверка - O(1) в памяти: отсечка по пользователю,
+ * затем фильтр Блума и только при его срабатывании - точное множество.
+ * filter равен null, если алгоритм хэширования фильтра неизвестен - тогда проверяется только множество.
+ */
+public record RevocationSnapshot(long version,
+                                 BloomFilter filter,
+                                 Set<String> revokedTokenIds,
+                                 Map<Long, Instant> userCutoffs) {
+
+    public static RevocationSnapshot empty() {
+        return new RevocationSnapshot(0, null, Set.of(), Map.of());
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        if (principal.userId() != null && principal.issuedAt() != null) {
+            Instant cutoff = userCutoffs.get(principal.userId());
+            // iat хранится с точностью до секунды - токен, выпущенный в секунду отзыва, тоже недействителен
+            if (cutoff != null && !principal.issuedAt().isAfter(cutoff)) {
+                return true;
+            }
+        }
+        String tokenId = principal.tokenId();
+        return tokenId != null
+                && (filter == null || filter.mightContain(tokenId))
+                && revokedTokenIds.contains(tokenId);
+    }
+}
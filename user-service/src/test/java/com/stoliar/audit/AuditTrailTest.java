@@ -0,0 +1,93 @@
+package com.stoliar.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditTrailTest {
+
+    @Mock
+    private AuditWriter auditWriter;
+
+    private AuditTrail auditTrail;
+
+    @BeforeEach
+    void setUp() {
+        auditTrail = new AuditTrail(auditWriter, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(auditTrail);
+    }
+
+    @Test
+    void testRecord_WithoutTransaction_ShouldEnqueueImmediately() {
+        // When
+        auditTrail.record("User", 1L, 1L, AuditOperation.UPDATE, Map.of("name", "John"));
+
+        // Then
+        verify(auditWriter).enqueue(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecord_InTransaction_ShouldEnqueueOneBatchAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        auditTrail.record("User", 1L, 1L, AuditOperation.UPDATE, Map.of("name", "John"));
+        auditTrail.record("PaymentCard", 10L, 1L, AuditOperation.DELETE, Map.of());
+        verifyNoInteractions(auditWriter);
+
+        // When
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Then
+        ArgumentCaptor<List<AuditEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(auditWriter).enqueue(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals("{\"name\":\"John\"}", captor.getValue().get(0).changes());
+        assertNull(TransactionSynchronizationManager.getResource(auditTrail));
+    }
+
+    @Test
+    void testRecord_OnRollback_ShouldDropEvents() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        auditTrail.record("User", 1L, 1L, AuditOperation.UPDATE, Map.of("name", "John"));
+
+        // When
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        verifyNoInteractions(auditWriter);
+        assertNull(TransactionSynchronizationManager.getResource(auditTrail));
+    }
+
+    @Test
+    void testMask_ShouldKeepOnlyLastFourDigitsOfCardNumber() {
+        assertEquals("************1111", AuditTrail.mask("number", "4111111111111111"));
+        assertEquals("John Doe", AuditTrail.mask("holder", "John Doe"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.stoliar.cache;
+
+import com.stoliar.config.CacheWarmupProperties;
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.entity.PaymentCard;
+import com.stoliar.entity.User;
+import com.stoliar.mapper.PaymentCardMapper;
+import com.stoliar.mapper.UserMapper;
+import com.stoliar.repository.PaymentCardRepository;
+import com.stoliar.repository.UserRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmupRunnerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PaymentCardRepository paymentCardRepository;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private CacheWarmupProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("users", "paymentCards", UserCardsCache.CACHE_NAME);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new CacheWarmupProperties();
+        properties.setBatchSize(2);
+    }
+
+    @Test
+    void testRun_ShouldLoadUsersAndCardsInBatches() {
+        // Given - три пользователя, пачки по два
+        User first = user(1L);
+        User second = user(2L);
+        User third = user(3L);
+        when(userRepository.findRecentlyActiveUserIds(any(Pageable.class))).thenReturn(List.of(1L, 2L, 3L));
+        when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(userRepository.findAllById(List.of(3L))).thenReturn(List.of(third));
+        when(paymentCardRepository.findAllByUserIdIn(List.of(1L, 2L))).thenReturn(List.of(card(10L, first)));
+        when(paymentCardRepository.findAllByUserIdIn(List.of(3L))).thenReturn(List.of());
+
+        // When
+        runner(cacheManager).run(new DefaultApplicationArguments());
+
+        // Then
+        assertNotNull(cacheManager.getCache("users").get(3L));
+        assertEquals(1, cacheManager.getCache(UserCardsCache.CACHE_NAME).get(1L, List.class).size());
+        assertTrue(cacheManager.getCache(UserCardsCache.CACHE_NAME).get(2L, List.class).isEmpty());
+        assertEquals(1L, cacheManager.getCache("paymentCards").get(10L, PaymentCardDTO.class).getUserId());
+        assertEquals(1.0, meterRegistry.get("cache.warmup.progress").gauge().value());
+        assertEquals(3.0, meterRegistry.get("cache.warmup.users").gauge().value());
+    }
+
+    @Test
+    void testRun_WhenFreshValueAlreadyCached_ShouldNotOverwriteIt() {
+        // Given
+        cacheManager.getCache("users").put(1L, "fresh");
+        when(userRepository.findRecentlyActiveUserIds(any(Pageable.class))).thenReturn(List.of(1L));
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(user(1L)));
+
+        // When
+        runner(cacheManager).run(new DefaultApplicationArguments());
+
+        // Then
+        assertEquals("fresh", cacheManager.getCache("users").get(1L).get());
+    }
+
+    @Test
+    void testRun_WhenCircuitOpen_ShouldSkipWarmup() {
+        // Given
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("redisCache");
+        circuitBreaker.transitionToOpenState();
+
+        // When
+        runner(new ResilientCacheManager(cacheManager, circuitBreaker)).run(new DefaultApplicationArguments());
+
+        // Then
+        verifyNoInteractions(userRepository, paymentCardRepository);
+        assertEquals(0.0, meterRegistry.get("cache.warmup.progress").gauge().value());
+    }
+
+    private CacheWarmupRunner runner(CacheManager manager) {
+        return new CacheWarmupRunner(properties, userRepository, paymentCardRepository,
+                UserMapper.INSTANCE, PaymentCardMapper.INSTANCE, manager, meterRegistry);
+    }
+
+    private User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User" + id);
+        user.setActive(true);
+        return user;
+    }
+
+    private PaymentCard card(Long id, User owner) {
+        PaymentCard card = new PaymentCard();
+        card.setId(id);
+        card.setUser(owner);
+        card.setNumber("411111111111111" + id);
+        card.setHolder("Holder");
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setActive(true);
+        return card;
+    }
+}
@@ -0,0 +1,103 @@
+package com.stoliar.cache;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientCacheTest {
+
+    @Mock
+    private Cache redisCache;
+
+    private CircuitBreaker circuitBreaker;
+    private ResilientCache cache;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = CircuitBreaker.of("redisCache", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        cache = new ResilientCache(redisCache, circuitBreaker);
+    }
+
+    @Test
+    void testGet_WhenRedisHealthy_ShouldReturnCachedValue() {
+        // Given
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("user"));
+
+        // When
+        Cache.ValueWrapper result = cache.get(1L);
+
+        // Then
+        assertNotNull(result);
+        assertEquals("user", result.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testGet_WhenRedisKeepsFailing_ShouldOpenCircuitAndSkipRedis() {
+        // Given
+        when(redisCache.get(1L)).thenThrow(new QueryTimeoutException("Redis command timed out"));
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThrows(QueryTimeoutException.class, () -> cache.get(1L));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> cache.get(1L));
+        verify(redisCache, times(4)).get(1L);
+    }
+
+    @Test
+    void testGetWithLoader_WhenCircuitOpen_ShouldLoadFromSource() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+
+        // When
+        String result = cache.get(1L, () -> "from-db");
+
+        // Then
+        assertEquals("from-db", result);
+        verifyNoInteractions(redisCache);
+    }
+
+    @Test
+    void testErrorHandler_ShouldSwallowErrorsAndCountThem() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DegradingCacheErrorHandler errorHandler = new DegradingCacheErrorHandler(meterRegistry);
+        when(redisCache.getName()).thenReturn("users");
+
+        // When
+        assertDoesNotThrow(() -> errorHandler.handleCacheGetError(
+                new QueryTimeoutException("Redis command timed out"), cache, 1L));
+        assertDoesNotThrow(() -> errorHandler.handleCachePutError(
+                CallNotPermittedException.createCallNotPermittedException(circuitBreaker), cache, 1L, "user"));
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("cache.errors")
+                .tag("operation", "get").tag("reason", "redis_error").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.errors")
+                .tag("operation", "put").tag("reason", "circuit_open").counter().count());
+    }
+}
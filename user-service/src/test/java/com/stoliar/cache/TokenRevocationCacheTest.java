@@ -0,0 +1,131 @@
+package com.stoliar.cache;
+
+import com.stoliar.config.RevocationProperties;
+import com.stoliar.dto.RevocationSnapshotDTO;
+import com.stoliar.entity.Role;
+import com.stoliar.util.BloomFilter;
+import com.stoliar.util.JwtPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationCacheTest {
+
+    private static final int BIT_SIZE = 256;
+    private static final int HASH_FUNCTIONS = 4;
+
+    private TokenRevocationCache tokenRevocationCache;
+
+    @BeforeEach
+    void setUp() {
+        RevocationProperties properties = new RevocationProperties();
+        // Адрес недоступен - refresh не должен затирать последний снимок
+        properties.setSnapshotUrl("http://127.0.0.1:1/api/v1/auth/revocations");
+        tokenRevocationCache = new TokenRevocationCache(RestClient.builder(), properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testIsRevoked_BeforeFirstSnapshot_ShouldAcceptTokens() {
+        assertFalse(tokenRevocationCache.isRevoked(principal("jti-1", Instant.now())));
+    }
+
+    @Test
+    void testApply_PublishedBits_ShouldRejectRevokedTokenIds() {
+        // Given
+        tokenRevocationCache.apply(snapshot(Set.of("jti-1", "jti-2"), Map.of()), "\"1-1000\"");
+
+        // When & Then
+        assertTrue(tokenRevocationCache.isRevoked(principal("jti-1", Instant.now())));
+        assertTrue(tokenRevocationCache.isRevoked(principal("jti-2", Instant.now())));
+        assertFalse(tokenRevocationCache.isRevoked(principal("jti-3", Instant.now())));
+    }
+
+    @Test
+    void testApply_UserCutoff_ShouldRejectTokensIssuedUpToCutoffSecond() {
+        // Given
+        Instant cutoff = Instant.parse("2025-01-01T12:00:00.500Z");
+        tokenRevocationCache.apply(snapshot(Set.of(), Map.of(42L, cutoff)), "\"1-1000\"");
+
+        // When & Then
+        assertTrue(tokenRevocationCache.isRevoked(principal(null, Instant.parse("2025-01-01T12:00:00Z"))));
+        assertFalse(tokenRevocationCache.isRevoked(principal(null, Instant.parse("2025-01-01T12:00:01Z"))));
+    }
+
+    @Test
+    void testRefresh_AuthServiceUnavailable_ShouldKeepLastSnapshot() {
+        // Given
+        tokenRevocationCache.apply(snapshot(Set.of("jti-1"), Map.of()), "\"1-1000\"");
+
+        // When
+        tokenRevocationCache.refresh();
+
+        // Then
+        assertTrue(tokenRevocationCache.isRevoked(principal("jti-1", Instant.now())));
+    }
+
+    private static RevocationSnapshotDTO snapshot(Set<String> tokenIds, Map<Long, Instant> userCutoffs) {
+        RevocationSnapshotDTO body = new RevocationSnapshotDTO();
+        body.setVersion(1);
+        body.setGeneratedAt(Instant.now());
+        body.setHashAlgorithm(BloomFilter.HASH_ALGORITHM);
+        body.setBloomBitSize(BIT_SIZE);
+        body.setBloomHashFunctions(HASH_FUNCTIONS);
+        body.setBloomBits(encode(words(tokenIds)));
+        body.setRevokedTokenIds(tokenIds);
+        body.setUserCutoffs(userCutoffs);
+        return body;
+    }
+
+    private static JwtPrincipal principal(String tokenId, Instant issuedAt) {
+        return new JwtPrincipal("john@example.com", Role.USER, 42L, tokenId, issuedAt, issuedAt.plusSeconds(900));
+    }
+
+    // Так же, как auth-service: long[] в big-endian, затем base64
+    private static String encode(long[] words) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        buffer.asLongBuffer().put(words);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    // Независимая реализация опубликованной схемы fnv1a64-fmix64 (см. BloomFilter)
+    private static long[] words(Set<String> values) {
+        long[] words = new long[(BIT_SIZE + 63) / 64];
+        for (String value : values) {
+            long h1 = fmix64(fnv1a64(value));
+            long h2 = fmix64(h1 ^ 0x9e3779b97f4a7c15L);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long combined = h1 + i * h2;
+                long index = ((combined % BIT_SIZE) + BIT_SIZE) % BIT_SIZE;
+                words[(int) (index / 64)] |= 1L << (index % 64);
+            }
+        }
+        return words;
+    }
+
+    private static long fnv1a64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (char c : value.toCharArray()) {
+            hash ^= c;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
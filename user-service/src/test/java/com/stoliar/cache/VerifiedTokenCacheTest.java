@@ -0,0 +1,124 @@
+package com.stoliar.cache;
+
+import com.stoliar.config.JwtProperties;
+import com.stoliar.entity.Role;
+import com.stoliar.util.JwtPrincipal;
+import com.stoliar.util.JwtTokenProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "test-jwt-secret-for-verified-token-cache-tests";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private TokenRevocationCache tokenRevocationCache;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        jwtTokenProvider = spy(new JwtTokenProvider(properties));
+        jwtTokenProvider.init();
+        tokenRevocationCache = mock(TokenRevocationCache.class);
+        verifiedTokenCache = new VerifiedTokenCache(jwtTokenProvider, tokenRevocationCache, properties,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testVerify_ValidToken_ShouldParseOnceAndServeRepeatsFromCache() {
+        // Given
+        String token = token(Instant.now().plusSeconds(600));
+
+        // When
+        Optional<JwtPrincipal> first = verifiedTokenCache.verify(token);
+        Optional<JwtPrincipal> second = verifiedTokenCache.verify(token);
+
+        // Then
+        assertTrue(first.isPresent());
+        assertEquals("john@example.com", first.get().username());
+        assertEquals(Role.USER, first.get().role());
+        assertEquals(42L, first.get().userId());
+        assertEquals(first, second);
+        verify(jwtTokenProvider, times(1)).verify(token);
+    }
+
+    @Test
+    void testVerify_ExpiredToken_ShouldBeRejectedAndNotCached() {
+        // Given
+        String token = token(Instant.now().minusSeconds(60));
+
+        // When
+        Optional<JwtPrincipal> first = verifiedTokenCache.verify(token);
+        Optional<JwtPrincipal> second = verifiedTokenCache.verify(token);
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        verify(jwtTokenProvider, times(2)).verify(token);
+    }
+
+    @Test
+    void testVerify_TamperedToken_ShouldBeRejected() {
+        // Given
+        String token = token(Instant.now().plusSeconds(600));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When & Then
+        assertTrue(verifiedTokenCache.verify(tampered).isEmpty());
+    }
+
+    @Test
+    void testVerify_RevokedAfterCaching_ShouldBeRejectedOnCacheHit() {
+        // Given
+        String token = token(Instant.now().plusSeconds(600));
+        assertTrue(verifiedTokenCache.verify(token).isPresent());
+
+        // When
+        when(tokenRevocationCache.isRevoked(any())).thenReturn(true);
+
+        // Then
+        assertTrue(verifiedTokenCache.verify(token).isEmpty());
+        verify(jwtTokenProvider, times(1)).verify(token);
+    }
+
+    @Test
+    void testVerify_RevokedToken_ShouldNotBeCached() {
+        // Given
+        String token = token(Instant.now().plusSeconds(600));
+        when(tokenRevocationCache.isRevoked(any())).thenReturn(true);
+
+        // When
+        Optional<JwtPrincipal> result = verifiedTokenCache.verify(token);
+
+        // Then
+        assertTrue(result.isEmpty());
+        when(tokenRevocationCache.isRevoked(any())).thenReturn(false);
+        assertTrue(verifiedTokenCache.verify(token).isPresent());
+        verify(jwtTokenProvider, times(2)).verify(token);
+    }
+
+    private String token(Instant expiresAt) {
+        return Jwts.builder()
+                .setSubject("john@example.com")
+                .claim("role", Role.USER.name())
+                .claim("userId", 42L)
+                .setIssuedAt(new Date())
+                .setExpiration(Date.from(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
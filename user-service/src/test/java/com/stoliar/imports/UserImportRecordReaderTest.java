@@ -0,0 +1,78 @@
+package com.stoliar.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportRecordReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testNext_Csv_ShouldMapColumnsByHeaderAndHandleQuotes() throws IOException {
+        // Given - порядок колонок произвольный, поле с запятой и кавычками
+        String csv = """
+                email,birth_date,name,surname
+                john@example.com,1990-01-01,"Doe, ""Johnny\""",Smith
+
+                broken@example.com,"1990-01-01
+                """;
+        UserImportRecordReader reader = reader(csv, UserImportFormat.CSV);
+
+        // When
+        UserImportRecord first = reader.next();
+        UserImportRecord second = reader.next();
+        UserImportRecord end = reader.next();
+
+        // Then
+        assertEquals(2, first.lineNo());
+        assertEquals("Doe, \"Johnny\"", first.name());
+        assertEquals("Smith", first.surname());
+        assertEquals("1990-01-01", first.birthDate());
+        assertEquals("john@example.com", first.email());
+        assertNull(first.error());
+
+        assertEquals(4, second.lineNo()); // пустая строка пропущена, но учтена в нумерации
+        assertNotNull(second.error());
+        assertNull(end);
+    }
+
+    @Test
+    void testNext_Ndjson_ShouldReportMalformedLinesAndContinue() throws IOException {
+        // Given
+        String ndjson = """
+                {"name":"John","surname":"Doe","birthDate":"1990-01-01","email":"john@example.com"}
+                {"name":
+                ["not an object"]
+                {"name":"Jane","surname":"Doe","birthDate":"1991-01-01","email":"jane@example.com"}
+                """;
+        UserImportRecordReader reader = reader(ndjson, UserImportFormat.NDJSON);
+
+        // When & Then
+        assertEquals("john@example.com", reader.next().email());
+        assertEquals("Malformed JSON", reader.next().error());
+        assertEquals("Expected a JSON object", reader.next().error());
+        UserImportRecord last = reader.next();
+        assertEquals(4, last.lineNo());
+        assertEquals("Jane", last.name());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testConstructor_CsvWithoutRequiredColumns_ShouldThrowException() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> reader("name,email\nJohn,john@example.com\n", UserImportFormat.CSV));
+        assertTrue(exception.getMessage().contains("surname"));
+    }
+
+    private UserImportRecordReader reader(String content, UserImportFormat format) throws IOException {
+        return new UserImportRecordReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format, objectMapper);
+    }
+}
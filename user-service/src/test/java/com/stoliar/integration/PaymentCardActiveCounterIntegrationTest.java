@@ -0,0 +1,150 @@
+package com.stoliar.integration;
+
+import com.stoliar.entity.PaymentCard;
+import com.stoliar.entity.User;
+import com.stoliar.repository.PaymentCardRepository;
+import com.stoliar.repository.UserRepository;
+import com.stoliar.service.PaymentCardService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Параллельные смена статуса и удаление одной карты должны менять users.active_cards ровно один раз.
+ * Без транзакции теста: потоки работают со своими транзакциями и видят только зафиксированные данные.
+ */
+class PaymentCardActiveCounterIntegrationTest extends AbstractIntegrationTest {
+
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private PaymentCardService paymentCardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaymentCardRepository paymentCardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutorService executor;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+
+        user = new User();
+        user.setName("Counter");
+        user.setSurname("Test");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setEmail("counter." + UUID.randomUUID() + "@example.com");
+        user.setActive(true);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        jdbcTemplate.update("DELETE FROM payment_cards WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void testUpdateCardStatus_ConcurrentDeactivations_ShouldDecrementCounterOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            // Given
+            Long cardId = createActiveCard();
+            int before = activeCards();
+
+            // When
+            runConcurrently(
+                    () -> paymentCardService.updateCardStatus(cardId, false),
+                    () -> paymentCardService.updateCardStatus(cardId, false));
+
+            // Then
+            assertEquals(before - 1, activeCards(), "round " + round);
+            assertEquals(countActiveCards(), activeCards(), "round " + round);
+        }
+    }
+
+    @Test
+    void testDeleteCard_RacingDeactivation_ShouldDecrementCounterOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            // Given
+            Long cardId = createActiveCard();
+            int before = activeCards();
+
+            // When - проигравшая операция получает EntityNotFoundException, это ожидаемо
+            runConcurrently(
+                    () -> paymentCardService.updateCardStatus(cardId, false),
+                    () -> paymentCardService.deleteCard(user.getId(), cardId));
+
+            // Then
+            assertFalse(paymentCardRepository.existsById(cardId));
+            assertEquals(before - 1, activeCards(), "round " + round);
+            assertEquals(countActiveCards(), activeCards(), "round " + round);
+        }
+    }
+
+    private Long createActiveCard() {
+        // Лимит 5 активных карт - держим у пользователя одну, чтобы раунды не упирались в него
+        jdbcTemplate.update("DELETE FROM payment_cards WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("UPDATE users SET active_cards = 0 WHERE id = ?", user.getId());
+
+        PaymentCard card = new PaymentCard();
+        card.setUser(user);
+        card.setNumber(String.valueOf(4_000_000_000_000_000L + (System.nanoTime() % 1_000_000_000_000L)));
+        card.setHolder("Counter Test");
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setActive(true);
+        Long cardId = paymentCardRepository.save(card).getId();
+        jdbcTemplate.update("UPDATE users SET active_cards = 1 WHERE id = ?", user.getId());
+        return cardId;
+    }
+
+    private void runConcurrently(Runnable first, Runnable second) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable action : List.of(first, second)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    action.run();
+                } catch (RuntimeException ignored) {
+                    // Карта уже удалена параллельной операцией
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private int activeCards() {
+        return jdbcTemplate.queryForObject("SELECT active_cards FROM users WHERE id = ?", Integer.class, user.getId());
+    }
+
+    private int countActiveCards() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_cards WHERE user_id = ? AND active = true",
+                Integer.class, user.getId());
+    }
+}
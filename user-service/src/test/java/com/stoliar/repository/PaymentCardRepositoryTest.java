@@ -222,6 +222,66 @@ class PaymentCardRepositoryTest extends AbstractJpaTest {
         assertFalse(deletedCard.isPresent());
     }
 
+    @Test
+    @Transactional
+    void testCreateCardIfAllowed_ShouldReportEachRuleViolation() {
+        // Given
+        User user = createTestUser();
+        LocalDate expiration = LocalDate.now().plusYears(2);
+
+        // When - пять карт проходят, шестая упирается в лимит
+        for (int i = 0; i < 5; i++) {
+            CardInsertResult result = paymentCardRepository.createCardIfAllowed(
+                    user.getId(), "400000000000000" + i, "Holder", expiration, 5, LocalDateTime.now());
+            assertEquals(CardInsertOutcome.CREATED, result.getOutcome());
+            assertNotNull(result.getCardId());
+        }
+        CardInsertResult overLimit = paymentCardRepository.createCardIfAllowed(
+                user.getId(), "4000000000000009", "Holder", expiration, 5, LocalDateTime.now());
+
+        User anotherUser = createTestUser();
+        CardInsertResult duplicate = paymentCardRepository.createCardIfAllowed(
+                anotherUser.getId(), "4000000000000000", "Holder", expiration, 5, LocalDateTime.now());
+        CardInsertResult missingUser = paymentCardRepository.createCardIfAllowed(
+                -1L, "4000000000000008", "Holder", expiration, 5, LocalDateTime.now());
+
+        // Then
+        assertEquals(CardInsertOutcome.CARD_LIMIT_EXCEEDED, overLimit.getOutcome());
+        assertNull(overLimit.getCardId());
+        assertEquals(CardInsertOutcome.DUPLICATE_NUMBER, duplicate.getOutcome());
+        assertEquals(CardInsertOutcome.USER_NOT_FOUND, missingUser.getOutcome());
+        assertEquals(5, paymentCardRepository.findAllByUserId(user.getId()).size());
+    }
+
+    @Test
+    @Transactional
+    void testDeactivateExpiredCards_ShouldProcessBatchesInExpirationOrderAndUpdateCounter() {
+        // Given
+        User user = createTestUser();
+        LocalDate today = LocalDate.now();
+        Long oldest = paymentCardRepository.createCardIfAllowed(
+                user.getId(), "5000000000000001", "Holder", today.minusDays(10), 5, LocalDateTime.now()).getCardId();
+        Long recent = paymentCardRepository.createCardIfAllowed(
+                user.getId(), "5000000000000002", "Holder", today.minusDays(1), 5, LocalDateTime.now()).getCardId();
+        Long valid = paymentCardRepository.createCardIfAllowed(
+                user.getId(), "5000000000000003", "Holder", today, 5, LocalDateTime.now()).getCardId();
+
+        // When - пачки по одной карте
+        List<ExpiredCard> firstBatch = paymentCardRepository.deactivateExpiredCards(today, 1, LocalDateTime.now());
+        List<ExpiredCard> secondBatch = paymentCardRepository.deactivateExpiredCards(today, 1, LocalDateTime.now());
+        List<ExpiredCard> thirdBatch = paymentCardRepository.deactivateExpiredCards(today, 1, LocalDateTime.now());
+        entityManager.clear();
+
+        // Then
+        assertEquals(oldest, firstBatch.get(0).getCardId());
+        assertEquals(user.getId(), firstBatch.get(0).getUserId());
+        assertEquals(recent, secondBatch.get(0).getCardId());
+        assertTrue(thirdBatch.isEmpty());
+        assertFalse(paymentCardRepository.findById(oldest).orElseThrow().getActive());
+        assertTrue(paymentCardRepository.findById(valid).orElseThrow().getActive());
+        assertEquals(1, entityManager.find(User.class, user.getId()).getActiveCards());
+    }
+
     private User createTestUser() {
         User user = new User();
         user.setName("Test");
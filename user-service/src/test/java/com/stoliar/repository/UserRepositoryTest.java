@@ -2,14 +2,20 @@ package com.stoliar.repository;
 
 import com.stoliar.entity.PaymentCard;
 import com.stoliar.entity.User;
+import com.stoliar.specification.KeysetSpecifications;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -188,6 +194,85 @@ class UserRepositoryTest extends AbstractJpaTest {
         assertEquals(2, activeCardCount); // Две активные карты
     }
 
+    @Test
+    void testSearchByNameFuzzy_ShouldTolerateTyposAndOrderByRelevance() {
+        // Given - схема создается Hibernate, расширение ставим вручную (в проде - Liquibase)
+        entityManager.getEntityManager()
+                .createNativeQuery("CREATE EXTENSION IF NOT EXISTS pg_trgm")
+                .executeUpdate();
+        User exact = userRepository.createUser("Jonathan", "Smith", LocalDate.of(1990, 1, 1),
+                "jonathan" + UUID.randomUUID() + "@example.com");
+        User typo = userRepository.createUser("Jonatan", "Smith", LocalDate.of(1990, 1, 1),
+                "jonatan" + UUID.randomUUID() + "@example.com");
+        userRepository.createUser("Maria", "Ivanova", LocalDate.of(1990, 1, 1),
+                "maria" + UUID.randomUUID() + "@example.com");
+
+        // When
+        Slice<User> result = userRepository.searchByFirstNameFuzzy("jonathan", "jonathan%", PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(2, result.getNumberOfElements());
+        assertFalse(result.hasNext());
+        assertEquals(exact.getId(), result.getContent().get(0).getId());
+        assertEquals(typo.getId(), result.getContent().get(1).getId());
+    }
+
+    @Test
+    void testSearchByFullNameFuzzy_WithEscapedPrefix_ShouldMatchWildcardsLiterally() {
+        // Given
+        entityManager.getEntityManager()
+                .createNativeQuery("CREATE EXTENSION IF NOT EXISTS pg_trgm")
+                .executeUpdate();
+        String surname = "Wild" + UUID.randomUUID().toString().substring(0, 8);
+        User literal = userRepository.createUser("A_b", surname, LocalDate.of(1990, 1, 1),
+                "literal" + UUID.randomUUID() + "@example.com");
+        userRepository.createUser("Axb", surname, LocalDate.of(1990, 1, 1),
+                "wildcard" + UUID.randomUUID() + "@example.com");
+
+        // When - '_' в префиксе экранирован и не совпадает с произвольным символом
+        Slice<User> result = userRepository.searchByFullNameFuzzy(
+                "A_b", "A\\_b%", surname, surname + "%", PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of(literal.getId()), result.getContent().stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testKeysetPagination_WithTiesOnSortField_ShouldVisitEachUserOnce() {
+        // Given - у трех пользователей одинаковая фамилия, порядок среди них задает id
+        String surname = "Keyset" + UUID.randomUUID();
+        List<Long> expectedIds = new ArrayList<>();
+        for (String name : List.of("A", "B", "C")) {
+            expectedIds.add(userRepository.createUser(name, surname, LocalDate.of(1990, 1, 1),
+                    name + UUID.randomUUID() + "@example.com").getId());
+        }
+        expectedIds.add(userRepository.createUser("D", surname + "Z", LocalDate.of(1990, 1, 1),
+                "d" + UUID.randomUUID() + "@example.com").getId());
+
+        // When - идем по страницам из двух записей, продолжая от последней (surname, id)
+        List<Long> visitedIds = new ArrayList<>();
+        String lastSurname = null;
+        Long lastId = null;
+        List<User> page;
+        do {
+            page = userRepository.findBy(
+                    KeysetSpecifications.<User>after("surname", lastSurname, lastId, Sort.Direction.ASC),
+                    query -> query.sortBy(KeysetSpecifications.keysetSort("surname", Sort.Direction.ASC))
+                            .limit(2)
+                            .all());
+            page.forEach(user -> visitedIds.add(user.getId()));
+            if (!page.isEmpty()) {
+                lastSurname = page.get(page.size() - 1).getSurname();
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 2);
+
+        // Then
+        List<Long> ourIds = visitedIds.stream().filter(expectedIds::contains).toList();
+        assertEquals(expectedIds, ourIds);
+        assertEquals(visitedIds.size(), visitedIds.stream().distinct().count());
+    }
+
     @Test
     void testCreateUser_WithDuplicateEmail_ShouldThrowException() {
         // Given
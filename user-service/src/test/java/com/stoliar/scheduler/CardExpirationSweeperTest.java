@@ -0,0 +1,103 @@
+package com.stoliar.scheduler;
+
+import com.stoliar.audit.AuditTrail;
+import com.stoliar.cache.UserCardsCache;
+import com.stoliar.config.CardExpirationSweepProperties;
+import com.stoliar.repository.ExpiredCard;
+import com.stoliar.repository.PaymentCardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpirationSweeperTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 15);
+
+    @Mock
+    private PaymentCardRepository paymentCardRepository;
+
+    @Mock
+    private AuditTrail auditTrail;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private CardExpirationSweepProperties properties;
+    private CardExpirationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("paymentCards", UserCardsCache.CACHE_NAME);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new CardExpirationSweepProperties();
+        properties.setBatchSize(2);
+        properties.setPauseBetweenBatches(Duration.ZERO);
+        sweeper = new CardExpirationSweeper(properties, paymentCardRepository, cacheManager, auditTrail, meterRegistry);
+    }
+
+    @Test
+    void testSweep_ShouldDeactivateInBatchesAndEvictCaches() {
+        // Given - полная пачка, затем неполная
+        cacheManager.getCache("paymentCards").put(10L, "card");
+        cacheManager.getCache("paymentCards").put(12L, "card");
+        cacheManager.getCache(UserCardsCache.CACHE_NAME).put(1L, List.of("card"));
+        cacheManager.getCache(UserCardsCache.CACHE_NAME).put(3L, List.of("other user"));
+        when(paymentCardRepository.deactivateExpiredCards(eq(TODAY), eq(2), any()))
+                .thenReturn(List.of(expired(10L, 1L), expired(11L, 2L)))
+                .thenReturn(List.of(expired(12L, 1L)));
+
+        // When
+        int deactivated = sweeper.sweep(TODAY);
+
+        // Then
+        assertEquals(3, deactivated);
+        verify(paymentCardRepository, times(2)).deactivateExpiredCards(eq(TODAY), eq(2), any());
+        assertNull(cacheManager.getCache("paymentCards").get(10L));
+        assertNull(cacheManager.getCache("paymentCards").get(12L));
+        assertNull(cacheManager.getCache(UserCardsCache.CACHE_NAME).get(1L));
+        assertNotNull(cacheManager.getCache(UserCardsCache.CACHE_NAME).get(3L));
+        assertEquals(3.0, meterRegistry.get("cards.expired.deactivated").counter().count());
+    }
+
+    @Test
+    void testSweep_ShouldStopAfterMaxBatchesPerRun() {
+        // Given - просроченных карт больше, чем помещается в один запуск
+        properties.setMaxBatchesPerRun(3);
+        when(paymentCardRepository.deactivateExpiredCards(eq(TODAY), eq(2), any()))
+                .thenReturn(List.of(expired(1L, 1L), expired(2L, 1L)));
+
+        // When
+        int deactivated = sweeper.sweep(TODAY);
+
+        // Then
+        assertEquals(6, deactivated);
+        verify(paymentCardRepository, times(3)).deactivateExpiredCards(eq(TODAY), eq(2), any());
+    }
+
+    private ExpiredCard expired(Long cardId, Long userId) {
+        return new ExpiredCard() {
+            @Override
+            public Long getCardId() {
+                return cardId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+        };
+    }
+}
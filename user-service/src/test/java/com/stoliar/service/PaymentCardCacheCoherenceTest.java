@@ -0,0 +1,245 @@
+package com.stoliar.service;
+
+import com.stoliar.audit.AuditTrail;
+import com.stoliar.cache.UserCardsCache;
+import com.stoliar.dto.PaymentCardCreateDTO;
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.entity.PaymentCard;
+import com.stoliar.entity.User;
+import com.stoliar.mapper.PaymentCardMapper;
+import com.stoliar.repository.CardInsertOutcome;
+import com.stoliar.repository.CardInsertResult;
+import com.stoliar.repository.PaymentCardRepository;
+import com.stoliar.repository.UserRepository;
+import com.stoliar.service.impl.PaymentCardServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяет, что кэш userCards не отдает устаревший список после операций записи.
+ */
+@SpringJUnitConfig(PaymentCardCacheCoherenceTest.CacheTestConfig.class)
+class PaymentCardCacheCoherenceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Configuration
+    @EnableCaching
+    @Import({PaymentCardServiceImpl.class, UserCardsCache.class})
+    static class CacheTestConfig {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("users", "paymentCards", UserCardsCache.CACHE_NAME);
+        }
+
+        @Bean
+        public PaymentCardMapper paymentCardMapper() {
+            return PaymentCardMapper.INSTANCE;
+        }
+    }
+
+    @Autowired
+    private PaymentCardService paymentCardService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoBean
+    private PaymentCardRepository paymentCardRepository;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private AuditTrail auditTrail;
+
+    private User user;
+    private List<PaymentCard> cardsInDb;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        user = new User();
+        user.setId(USER_ID);
+        user.setActive(true);
+
+        cardsInDb = new ArrayList<>();
+        cardsInDb.add(card(10L, "4111111111111111", "Old Holder"));
+
+        when(paymentCardRepository.findAllByUserId(USER_ID)).thenAnswer(inv -> new ArrayList<>(cardsInDb));
+        when(paymentCardRepository.findById(anyLong())).thenAnswer(inv -> cardsInDb.stream()
+                .filter(c -> c.getId().equals(inv.getArgument(0)))
+                .findFirst());
+        when(paymentCardRepository.findByIdForUpdate(anyLong())).thenAnswer(inv -> cardsInDb.stream()
+                .filter(c -> c.getId().equals(inv.getArgument(0)))
+                .findFirst());
+        when(paymentCardRepository.save(any(PaymentCard.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void testGetAllCardsByUserId_SecondCall_ShouldBeServedFromCache() {
+        // When
+        paymentCardService.getAllCardsByUserId(USER_ID);
+        paymentCardService.getAllCardsByUserId(USER_ID);
+        paymentCardService.getAllCardsByUserId(USER_ID, PageRequest.of(0, 10));
+
+        // Then
+        verify(paymentCardRepository, times(1)).findAllByUserId(USER_ID);
+    }
+
+    @Test
+    void testCreatePaymentCard_ShouldNotLeaveStaleList() {
+        // Given
+        assertEquals(1, paymentCardService.getAllCardsByUserId(USER_ID).size());
+
+        PaymentCardCreateDTO createDTO = new PaymentCardCreateDTO();
+        createDTO.setNumber("5555444433332222");
+        createDTO.setHolder("New Card");
+        createDTO.setExpirationDate(LocalDate.now().plusYears(2));
+
+        when(paymentCardRepository.createCardIfAllowed(
+                eq(USER_ID), eq("5555444433332222"), eq("New Card"), any(), anyInt(), any()))
+                .thenAnswer(inv -> {
+                    cardsInDb.add(card(11L, "5555444433332222", "New Card"));
+                    return new CardInsertResult() {
+                        @Override
+                        public CardInsertOutcome getOutcome() {
+                            return CardInsertOutcome.CREATED;
+                        }
+
+                        @Override
+                        public Long getCardId() {
+                            return 11L;
+                        }
+                    };
+                });
+
+        // When
+        paymentCardService.createPaymentCard(USER_ID, createDTO);
+
+        // Then
+        assertEquals(2, paymentCardService.getAllCardsByUserId(USER_ID).size());
+        assertEquals(2, paymentCardService.getAllCardsByUserId(USER_ID, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void testUpdateCard_ShouldNotLeaveStaleList() {
+        // Given
+        assertEquals("Old Holder", paymentCardService.getAllCardsByUserId(USER_ID).get(0).getHolder());
+
+        PaymentCardDTO updateDTO = new PaymentCardDTO();
+        updateDTO.setNumber("4111111111111111");
+        updateDTO.setHolder("New Holder");
+        updateDTO.setExpirationDate(LocalDate.now().plusYears(3));
+
+        // When
+        paymentCardService.updateCard(10L, updateDTO);
+
+        // Then
+        assertEquals("New Holder", paymentCardService.getAllCardsByUserId(USER_ID).get(0).getHolder());
+    }
+
+    @Test
+    void testUpdateCardStatus_ShouldNotLeaveStaleList() {
+        // Given
+        assertTrue(paymentCardService.getAllCardsByUserId(USER_ID).get(0).getActive());
+
+        // When
+        paymentCardService.updateCardStatus(10L, false);
+
+        // Then
+        assertFalse(paymentCardService.getAllCardsByUserId(USER_ID).get(0).getActive());
+        assertFalse(paymentCardService.getAllCardsByUserId(USER_ID, PageRequest.of(0, 10))
+                .getContent().get(0).getActive());
+    }
+
+    @Test
+    void testDeleteCard_ShouldNotLeaveStaleList() {
+        // Given
+        assertEquals(1, paymentCardService.getAllCardsByUserId(USER_ID).size());
+        doAnswer(inv -> cardsInDb.remove(inv.<PaymentCard>getArgument(0)))
+                .when(paymentCardRepository).delete(any(PaymentCard.class));
+
+        // When
+        paymentCardService.deleteCard(USER_ID, 10L);
+
+        // Then
+        assertTrue(paymentCardService.getAllCardsByUserId(USER_ID).isEmpty());
+    }
+
+    @Test
+    void testGetAllCardsByUserIdPaged_ShouldSortAndSliceCachedList() {
+        // Given
+        cardsInDb.add(card(11L, "5555444433332222", "Alice"));
+        cardsInDb.add(card(12L, "6666444433332222", "Bob"));
+
+        // When
+        Page<PaymentCardDTO> page = paymentCardService.getAllCardsByUserId(
+                USER_ID, PageRequest.of(0, 2, Sort.by("holder")));
+
+        // Then
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getContent().size());
+        assertEquals("Alice", page.getContent().get(0).getHolder());
+        assertEquals("Bob", page.getContent().get(1).getHolder());
+    }
+
+    @Test
+    void testGetAllCardsByUserIdPaged_DescendingIgnoreCase_ShouldSortCachedList() {
+        // Given
+        cardsInDb.add(card(11L, "5555444433332222", "alice"));
+        cardsInDb.add(card(12L, "6666444433332222", "Bob"));
+
+        // When
+        Page<PaymentCardDTO> page = paymentCardService.getAllCardsByUserId(
+                USER_ID, PageRequest.of(0, 3, Sort.by(Sort.Order.desc("holder").ignoreCase())));
+
+        // Then
+        assertEquals(List.of("Old Holder", "Bob", "alice"),
+                page.getContent().stream().map(PaymentCardDTO::getHolder).toList());
+    }
+
+    @Test
+    void testGetAllCardsByUserIdPaged_UnknownSortProperty_ShouldThrowException() {
+        // Given
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by("cvv"));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> paymentCardService.getAllCardsByUserId(USER_ID, pageable));
+        assertTrue(exception.getMessage().contains("cvv"));
+    }
+
+    private PaymentCard card(Long id, String number, String holder) {
+        PaymentCard card = new PaymentCard();
+        card.setId(id);
+        card.setUser(user);
+        card.setNumber(number);
+        card.setHolder(holder);
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setActive(true);
+        return card;
+    }
+}
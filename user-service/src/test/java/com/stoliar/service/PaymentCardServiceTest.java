@@ -1,10 +1,17 @@
 package com.stoliar.service;
 
+import com.stoliar.audit.AuditTrail;
+import com.stoliar.cache.UserCardsCache;
 import com.stoliar.dto.PaymentCardCreateDTO;
 import com.stoliar.dto.PaymentCardDTO;
 import com.stoliar.entity.PaymentCard;
 import com.stoliar.entity.User;
+import com.stoliar.exception.BusinessRuleException;
+import com.stoliar.exception.DuplicateResourceException;
+import com.stoliar.exception.EntityNotFoundException;
 import com.stoliar.mapper.PaymentCardMapper;
+import com.stoliar.repository.CardInsertOutcome;
+import com.stoliar.repository.CardInsertResult;
 import com.stoliar.repository.PaymentCardRepository;
 import com.stoliar.repository.UserRepository;
 import com.stoliar.service.impl.PaymentCardServiceImpl;
@@ -21,6 +28,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,6 +49,12 @@ class PaymentCardServiceTest {
     @Mock
     private PaymentCardMapper paymentCardMapper;
 
+    @Mock
+    private UserCardsCache userCardsCache;
+
+    @Mock
+    private AuditTrail auditTrail;
+
     @InjectMocks
     private PaymentCardServiceImpl paymentCardService;
 
@@ -69,15 +83,15 @@ class PaymentCardServiceTest {
         expectedDTO.setNumber("1234567890123456");
         expectedDTO.setUserId(userId);
 
-        when(userRepository.findUserById(userId)).thenReturn(user);
-        when(userRepository.countActiveCardsByUserId(userId)).thenReturn(2);
-        when(paymentCardRepository.findByNumber("1234567890123456")).thenReturn(Optional.empty());
-        when(paymentCardRepository.createCard(
+        when(paymentCardRepository.createCardIfAllowed(
                 eq(userId),
                 eq("1234567890123456"),
                 eq("John Doe"),
-                eq(createDTO.getExpirationDate())
-        )).thenReturn(card);
+                eq(createDTO.getExpirationDate()),
+                eq(5),
+                any(LocalDateTime.class)
+        )).thenReturn(insertResult(CardInsertOutcome.CREATED, 1L));
+        when(paymentCardMapper.toEntity(createDTO, userId)).thenReturn(card);
         when(paymentCardMapper.toDTO(card)).thenReturn(expectedDTO);
 
         // When
@@ -88,12 +102,59 @@ class PaymentCardServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("1234567890123456", result.getNumber());
 
-        verify(paymentCardRepository).createCard(
-                userId,
-                "1234567890123456",
-                "John Doe",
-                createDTO.getExpirationDate()
+        verify(paymentCardRepository).createCardIfAllowed(
+                eq(userId),
+                eq("1234567890123456"),
+                eq("John Doe"),
+                eq(createDTO.getExpirationDate()),
+                eq(5),
+                any(LocalDateTime.class)
         );
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testCreatePaymentCard_RuleViolations_ShouldThrowMatchingException() {
+        // Given
+        Long userId = 1L;
+        PaymentCardCreateDTO createDTO = new PaymentCardCreateDTO();
+        createDTO.setNumber("1234567890123456");
+        createDTO.setHolder("John Doe");
+        createDTO.setExpirationDate(LocalDate.now().plusYears(2));
+
+        when(paymentCardRepository.createCardIfAllowed(
+                eq(userId), anyString(), anyString(), any(LocalDate.class), anyInt(), any(LocalDateTime.class)))
+                .thenReturn(insertResult(CardInsertOutcome.USER_NOT_FOUND, null))
+                .thenReturn(insertResult(CardInsertOutcome.USER_INACTIVE, null))
+                .thenReturn(insertResult(CardInsertOutcome.CARD_LIMIT_EXCEEDED, null))
+                .thenReturn(insertResult(CardInsertOutcome.DUPLICATE_NUMBER, null));
+
+        // When & Then
+        assertThrows(EntityNotFoundException.class, () -> paymentCardService.createPaymentCard(userId, createDTO));
+        assertThrows(BusinessRuleException.class, () -> paymentCardService.createPaymentCard(userId, createDTO));
+        assertThrows(BusinessRuleException.class, () -> paymentCardService.createPaymentCard(userId, createDTO));
+        assertThrows(DuplicateResourceException.class, () -> paymentCardService.createPaymentCard(userId, createDTO));
+        verify(paymentCardMapper, never()).toDTO(any(PaymentCard.class));
+    }
+
+    @Test
+    void testUpdateCardStatus_ActivateOverLimit_ShouldThrowBusinessRuleException() {
+        // Given
+        Long cardId = 1L;
+        User user = new User();
+        user.setId(1L);
+
+        PaymentCard card = new PaymentCard();
+        card.setId(cardId);
+        card.setUser(user);
+        card.setActive(false);
+
+        when(paymentCardRepository.findByIdForUpdate(cardId)).thenReturn(Optional.of(card));
+        when(userRepository.incrementActiveCards(1L, 5)).thenReturn(0);
+
+        // When & Then
+        assertThrows(BusinessRuleException.class, () -> paymentCardService.updateCardStatus(cardId, true));
+        verify(paymentCardRepository, never()).save(any(PaymentCard.class));
     }
 
     @Test
@@ -162,7 +223,7 @@ class PaymentCardServiceTest {
         expectedDTO.setActive(false);
         expectedDTO.setUserId(user.getId());
 
-        when(paymentCardRepository.findById(cardId)).thenReturn(Optional.of(existingCard));
+        when(paymentCardRepository.findByIdForUpdate(cardId)).thenReturn(Optional.of(existingCard));
         when(paymentCardRepository.save(any(PaymentCard.class))).thenReturn(updatedCard);
         when(paymentCardMapper.toDTO(updatedCard)).thenReturn(expectedDTO);
 
@@ -174,6 +235,7 @@ class PaymentCardServiceTest {
         assertFalse(result.getActive());
 
         verify(paymentCardRepository).save(any(PaymentCard.class));
+        verify(userRepository).decrementActiveCards(1L);
     }
 
     @Test
@@ -201,14 +263,10 @@ class PaymentCardServiceTest {
     void testGetAllCardsByUserId_ShouldReturnCardDTOs() {
         // Given
         Long userId = 1L;
-        PaymentCard card = new PaymentCard();
-        card.setId(1L);
-
         PaymentCardDTO cardDTO = new PaymentCardDTO();
         cardDTO.setId(1L);
 
-        when(paymentCardRepository.findAllByUserId(userId)).thenReturn(List.of(card));
-        when(paymentCardMapper.toDTOList(List.of(card))).thenReturn(List.of(cardDTO));
+        when(userCardsCache.getCards(userId)).thenReturn(List.of(cardDTO));
 
         // When
         List<PaymentCardDTO> result = paymentCardService.getAllCardsByUserId(userId);
@@ -231,12 +289,13 @@ class PaymentCardServiceTest {
         card.setId(cardId);
         card.setUser(user);
 
-        when(paymentCardRepository.findById(cardId)).thenReturn(Optional.of(card));
+        when(paymentCardRepository.findByIdForUpdate(cardId)).thenReturn(Optional.of(card));
 
         // When
         paymentCardService.deleteCard(user.getId(), cardId);
 
         // Then
+        verify(userRepository).decrementActiveCards(userId);
         verify(paymentCardRepository).delete(card);
     }
 
@@ -263,4 +322,18 @@ class PaymentCardServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
     }
+
+    private CardInsertResult insertResult(CardInsertOutcome outcome, Long cardId) {
+        return new CardInsertResult() {
+            @Override
+            public CardInsertOutcome getOutcome() {
+                return outcome;
+            }
+
+            @Override
+            public Long getCardId() {
+                return cardId;
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.stoliar.service;
+
+import com.stoliar.dto.UserImportRowDTO;
+import com.stoliar.dto.UserImportSummaryDTO;
+import com.stoliar.imports.UserImportFormat;
+import com.stoliar.imports.UserImportStatus;
+import com.stoliar.integration.AbstractIntegrationTest;
+import com.stoliar.integration.TestIntegrationSecurityConfig;
+import com.stoliar.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("integration-test")
+@Transactional
+@Import(TestIntegrationSecurityConfig.class)
+class UserImportServiceIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testImportUsers_Csv_ShouldCreateValidRowsAndReportEachRow() {
+        // Given
+        userRepository.createUser("Existing", "User", LocalDate.of(1980, 1, 1), "existing@import.test");
+        String csv = """
+                name,surname,birthDate,email
+                John,Doe,1990-01-01,john@import.test
+                Johnny,Doe,1990-01-01,john@import.test
+                Existing,Again,1980-01-01,existing@import.test
+                ,NoName,1990-01-01,noname@import.test
+                Bad,Date,01.01.1990,baddate@import.test
+                Jane,Doe,1991-02-03,jane@import.test
+                """;
+        List<UserImportRowDTO> rows = new ArrayList<>();
+
+        // When
+        UserImportSummaryDTO summary = userImportService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserImportFormat.CSV, rows::add);
+
+        // Then
+        assertEquals(6, summary.getTotal());
+        assertEquals(2L, summary.getByStatus().get(UserImportStatus.CREATED));
+        assertEquals(1L, summary.getByStatus().get(UserImportStatus.DUPLICATE_IN_FILE));
+        assertEquals(1L, summary.getByStatus().get(UserImportStatus.EMAIL_EXISTS));
+        assertEquals(2L, summary.getByStatus().get(UserImportStatus.INVALID));
+
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L), rows.stream().map(UserImportRowDTO::getLine).toList());
+        assertEquals(UserImportStatus.CREATED, rows.get(0).getStatus());
+        assertNotNull(rows.get(0).getUserId());
+        assertEquals(UserImportStatus.DUPLICATE_IN_FILE, rows.get(1).getStatus());
+        assertEquals(UserImportStatus.EMAIL_EXISTS, rows.get(2).getStatus());
+        assertEquals("Name is required", rows.get(3).getMessage());
+        assertEquals(UserImportStatus.INVALID, rows.get(4).getStatus());
+
+        assertTrue(userRepository.existsByEmail("jane@import.test"));
+        assertEquals("John", userRepository.findUserById(rows.get(0).getUserId()).getName());
+    }
+
+    @Test
+    void testImportUsers_Ndjson_ShouldCreateUsers() {
+        // Given
+        String ndjson = """
+                {"name":"Ann","surname":"Lee","birthDate":"1992-05-06","email":"ann@import.test"}
+                {"name":"Bob","surname":"Lee","birthDate":"1993-05-06","email":"bob@import.test"}
+                """;
+        List<UserImportRowDTO> rows = new ArrayList<>();
+
+        // When
+        UserImportSummaryDTO summary = userImportService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), UserImportFormat.NDJSON, rows::add);
+
+        // Then
+        assertEquals(2L, summary.getByStatus().get(UserImportStatus.CREATED));
+        assertTrue(rows.stream().allMatch(row -> row.getUserId() != null));
+        assertTrue(userRepository.existsByEmail("bob@import.test"));
+    }
+}
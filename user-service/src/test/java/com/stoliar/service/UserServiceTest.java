@@ -1,10 +1,21 @@
 package com.stoliar.service;
 
+import com.stoliar.audit.AuditOperation;
+import com.stoliar.audit.AuditTrail;
+import com.stoliar.cache.UserEmailLookup;
+import com.stoliar.dto.AuditLogEntryDTO;
+import com.stoliar.dto.CursorPageDTO;
 import com.stoliar.dto.UserCreateDTO;
 import com.stoliar.dto.UserDTO;
+import com.stoliar.entity.AuditLogEntry;
 import com.stoliar.entity.User;
 import com.stoliar.exception.DuplicateResourceException;
+import com.stoliar.exception.EntityNotFoundException;
+import com.stoliar.mapper.AuditLogMapper;
 import com.stoliar.mapper.UserMapper;
+import com.stoliar.pagination.KeysetCursor;
+import com.stoliar.pagination.UserSortField;
+import com.stoliar.repository.AuditLogRepository;
 import com.stoliar.repository.UserRepository;
 import com.stoliar.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.Test;
@@ -16,6 +27,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -24,6 +38,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +51,18 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserEmailLookup userEmailLookup;
+
+    @Mock
+    private AuditTrail auditTrail;
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private AuditLogMapper auditLogMapper;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -76,6 +103,7 @@ class UserServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("John", result.getName());
         assertEquals("john.doe@example.com", result.getEmail());
+        verify(auditTrail).record(eq("User"), eq(1L), eq(1L), eq(AuditOperation.CREATE), anyMap());
     }
 
     @Test
@@ -129,6 +157,7 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals(userId, result.getId());
         assertEquals("Jane", result.getName());
+        verify(userEmailLookup).evict("john.doe@example.com");
     }
 
     @Test
@@ -180,6 +209,50 @@ class UserServiceTest {
         assertEquals(userId, result.getId());
     }
 
+    @Test
+    void testGetUserByEmail_WhenMappingCached_ShouldReturnUserFromUsersCache() {
+        // Given
+        UserDTO user = userDTO(1L, "Doe");
+        user.setEmail("john.doe@example.com");
+        when(userEmailLookup.findUserId("john.doe@example.com")).thenReturn(1L);
+        when(userEmailLookup.getUser(1L)).thenReturn(user);
+
+        // When
+        UserDTO result = userService.getUserByEmail(" john.doe@example.com ");
+
+        // Then
+        assertEquals(1L, result.getId());
+        verify(userEmailLookup, never()).evict(any());
+    }
+
+    @Test
+    void testGetUserByEmail_WhenMappingStale_ShouldEvictAndResolveAgain() {
+        // Given - email перешел от пользователя 1 к пользователю 2
+        UserDTO previousOwner = userDTO(1L, "Doe");
+        previousOwner.setEmail("new.email@example.com");
+        UserDTO currentOwner = userDTO(2L, "Smith");
+        currentOwner.setEmail("john.doe@example.com");
+        when(userEmailLookup.findUserId("john.doe@example.com")).thenReturn(1L, 2L);
+        when(userEmailLookup.getUser(1L)).thenReturn(previousOwner);
+        when(userEmailLookup.getUser(2L)).thenReturn(currentOwner);
+
+        // When
+        UserDTO result = userService.getUserByEmail("john.doe@example.com");
+
+        // Then
+        assertEquals(2L, result.getId());
+        verify(userEmailLookup).evict("john.doe@example.com");
+    }
+
+    @Test
+    void testGetUserByEmail_WhenUnknown_ShouldThrowException() {
+        // Given
+        when(userEmailLookup.findUserId("missing@example.com")).thenReturn(null);
+
+        // When & Then
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserByEmail("missing@example.com"));
+    }
+
     @Test
     void testGetAllUsers_ShouldReturnPage() {
         // Given
@@ -202,6 +275,37 @@ class UserServiceTest {
         assertEquals(1, result.getTotalElements());
     }
 
+    @Test
+    void testGetUsersByCursor_ShouldReturnPageWithNextCursor() {
+        // Given - репозиторий отдает size + 1 записей
+        List<User> users = List.of(new User(), new User(), new User());
+        List<UserDTO> dtos = List.of(userDTO(1L, "Doe"), userDTO(2L, "Doe"), userDTO(3L, "Smith"));
+        when(userRepository.findBy(any(Specification.class), any())).thenReturn(users);
+        when(userMapper.toDTOList(users)).thenReturn(dtos);
+
+        // When
+        CursorPageDTO<UserDTO> result = userService.getUsersByCursor(
+                null, 2, UserSortField.SURNAME, Sort.Direction.ASC);
+
+        // Then
+        assertTrue(result.isHasNext());
+        assertEquals(2, result.getContent().size());
+        KeysetCursor next = KeysetCursor.decode(result.getNextCursor(), "surname", Sort.Direction.ASC);
+        assertEquals(2L, next.id());
+        assertEquals("Doe", next.value());
+    }
+
+    @Test
+    void testGetUsersByCursor_WithCursorOfOtherSort_ShouldThrowException() {
+        // Given
+        String cursor = new KeysetCursor("createdAt", Sort.Direction.ASC, 2L, "2024-01-01T10:00").encode();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersByCursor(
+                cursor, 10, UserSortField.SURNAME, Sort.Direction.ASC));
+        verify(userRepository, never()).findBy(any(Specification.class), any());
+    }
+
     @Test
     void testGetUsersWithFilters_ShouldReturnFilteredUsers() {
         // Given
@@ -285,4 +389,73 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchUsersFuzzy_ShouldDelegateToTrigramSearch() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+
+        User user = new User();
+        user.setId(1L);
+        Slice<User> userSlice = new SliceImpl<>(List.of(user), pageable, false);
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(1L);
+
+        when(userRepository.searchByFirstNameFuzzy("Jhon", "Jhon%", pageable)).thenReturn(userSlice);
+        when(userMapper.toDTO(user)).thenReturn(userDTO);
+
+        // When
+        Slice<UserDTO> result = userService.searchUsersFuzzy(" Jhon ", "", pageable);
+
+        // Then
+        assertEquals(1, result.getNumberOfElements());
+        assertFalse(result.hasNext());
+        verify(userRepository).searchByFirstNameFuzzy("Jhon", "Jhon%", pageable);
+        verify(userRepository, never()).searchByFullNameFuzzy(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testSearchUsersFuzzy_WithBothNamesAndWildcards_ShouldEscapePrefixes() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.searchByFullNameFuzzy("50%_off", "50\\%\\_off%", "O'Neil", "O'Neil%", pageable))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        // When
+        Slice<UserDTO> result = userService.searchUsersFuzzy("50%_off", "O'Neil", pageable);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(userRepository).searchByFullNameFuzzy("50%_off", "50\\%\\_off%", "O'Neil", "O'Neil%", pageable);
+        verify(userRepository, never()).searchByFirstNameFuzzy(any(), any(), any());
+        verify(userRepository, never()).searchBySurnameFuzzy(any(), any(), any());
+    }
+
+    @Test
+    void testGetUserHistory_ShouldReturnMappedEntriesForUser() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 20);
+        AuditLogEntry entry = new AuditLogEntry();
+        entry.setId(5L);
+        AuditLogEntryDTO entryDTO = new AuditLogEntryDTO();
+        entryDTO.setId(5L);
+
+        when(auditLogRepository.findByUserIdOrderByChangedAtDescIdDesc(1L, pageable))
+                .thenReturn(new PageImpl<>(List.of(entry)));
+        when(auditLogMapper.toDTO(entry)).thenReturn(entryDTO);
+
+        // When
+        Page<AuditLogEntryDTO> result = userService.getUserHistory(1L, pageable);
+
+        // Then
+        assertEquals(1, result.getTotalElements());
+        assertEquals(5L, result.getContent().get(0).getId());
+    }
+
+    private UserDTO userDTO(Long id, String surname) {
+        UserDTO dto = new UserDTO();
+        dto.setId(id);
+        dto.setSurname(surname);
+        return dto;
+    }
+}